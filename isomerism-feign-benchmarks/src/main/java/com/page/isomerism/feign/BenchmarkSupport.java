@@ -0,0 +1,53 @@
+package com.page.isomerism.feign;
+
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.client.DefaultServiceInstance;
+
+/**
+ * 基准测试的公共构造
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 构造未接入Spring容器的factory
+     *
+     * @param hystrix         是否使用HystrixFeign
+     * @param discoveryClient 发现客户端
+     * @return factory
+     */
+    static AbstractRemoteServiceFeignFactory newFactory(boolean hystrix, InMemoryDiscoveryClient discoveryClient) {
+        AbstractRemoteServiceFeignFactory factory = hystrix
+                ? new HystrixFeignRemoteServiceFeignFactory()
+                : new FeignRemoteServiceFeignFactory();
+        HttpMessageConverters messageConverters = new HttpMessageConverters();
+        factory.discoveryClient = discoveryClient;
+        factory.messageConverters = () -> messageConverters;
+        return factory;
+    }
+
+    /**
+     * 注册指定数量的服务，其中每10个服务有1个带有module/flag元数据
+     *
+     * @param discoveryClient 发现客户端
+     * @param services        服务数量
+     */
+    static void registerServices(InMemoryDiscoveryClient discoveryClient, int services) {
+        for (int i = 0; i < services; i++) {
+            String service = "service-" + i;
+            if (0 == i % 10) {
+                discoveryClient.register(service, "module" + i, "flag0", "10.0." + (i / 250) + "." + (i % 250), 8080);
+                discoveryClient.register(service, "module" + i, "flag0", "10.1." + (i / 250) + "." + (i % 250), 8080);
+            } else {
+                discoveryClient.register(service, new DefaultServiceInstance(
+                        service + "-0", service, "10.2." + (i / 250) + "." + (i % 250), 8080, false));
+            }
+        }
+    }
+
+}
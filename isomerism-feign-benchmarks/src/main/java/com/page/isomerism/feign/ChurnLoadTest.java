@@ -0,0 +1,345 @@
+package com.page.isomerism.feign;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.cloud.client.DefaultServiceInstance;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 节点上下线及变慢情况下的负载测试
+ * <p>
+ * 启动N个本地回环桩服务，以同一module/flag注册到内存中的DiscoveryClient，由factory按扫描周期发现；
+ * 按目标QPS每次经由getRemoteServiceInstance获取代理并调用，期间按周期轮流让一个节点下线(注销并立即停止)、
+ * 新节点上线、一个节点变慢(持续一个周期)，每秒输出吞吐、耗时分位值及错误数，
+ * 结束时输出汇总、代理重建次数(代理缓存未命中及调用方看到的代理实例变化)和路由表版本；
+ * 耗时从计划发出的时刻开始计算(包含排队等待)，调用线程不足时计划的请求记为丢弃
+ * <p>
+ * 参数以key=value形式传入(均可省略)：
+ * factory=feign|hystrix nodes=4 qps=500 duration=60 threads=64 serverThreads=32
+ * churnInterval=5(0 不做变化) slowMillis=200 minNodes=1 scanPeriod=1 outlier=false seed=随机
+ * maxErrorPercent=-1 maxP99Millis=-1(超过时以退出码1结束，负数不检查)
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class ChurnLoadTest {
+
+    private static final String SERVICE = "user-service";
+    private static final String MODULE = "user";
+    private static final String FLAG = "flag0";
+
+    /**
+     * 记录的耗时上限
+     * (单位 微秒)
+     */
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Map<String, String> parameters;
+    private final boolean hystrix;
+    private final int nodes;
+    private final int qps;
+    private final int duration;
+    private final int threads;
+    private final int serverThreads;
+    private final int churnInterval;
+    private final int slowMillis;
+    private final int minNodes;
+    private final int scanPeriod;
+    private final boolean outlier;
+    private final long seed;
+    private final double maxErrorPercent;
+    private final double maxP99Millis;
+
+    private final InMemoryDiscoveryClient discoveryClient = new InMemoryDiscoveryClient();
+    private final List<Node> liveNodes = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nodeSequence = new AtomicInteger();
+    private Random random;
+    private AbstractRemoteServiceFeignFactory factory;
+
+    private final Recorder latency = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+    /**
+     * 调用方最近一次拿到的代理及其变化次数
+     */
+    private final AtomicReference<Object> lastProxy = new AtomicReference<>();
+    private final LongAdder proxyChanges = new LongAdder();
+    private long start;
+    /**
+     * 变化的轮次及当前变慢的节点
+     * (仅在变化线程中访问)
+     */
+    private int churnRound;
+    private Node slowNode;
+
+    public ChurnLoadTest(Map<String, String> parameters) {
+        this.parameters = parameters;
+        this.hystrix = "hystrix".equalsIgnoreCase(parameters.getOrDefault("factory", "feign"));
+        this.nodes = intParameter("nodes", 4);
+        this.qps = intParameter("qps", 500);
+        this.duration = intParameter("duration", 60);
+        this.threads = intParameter("threads", 64);
+        this.serverThreads = intParameter("serverThreads", 32);
+        this.churnInterval = intParameter("churnInterval", 5);
+        this.slowMillis = intParameter("slowMillis", 200);
+        this.minNodes = Math.max(1, intParameter("minNodes", 1));
+        this.scanPeriod = intParameter("scanPeriod", 1);
+        this.outlier = Boolean.parseBoolean(parameters.getOrDefault("outlier", "false"));
+        this.seed = Long.parseLong(parameters.getOrDefault("seed", String.valueOf(System.nanoTime())));
+        this.maxErrorPercent = Double.parseDouble(parameters.getOrDefault("maxErrorPercent", "-1"));
+        this.maxP99Millis = Double.parseDouble(parameters.getOrDefault("maxP99Millis", "-1"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> parameters = new HashMap<>();
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (0 < index) {
+                parameters.put(arg.substring(0, index), arg.substring(index + 1));
+            }
+        }
+        System.exit(new ChurnLoadTest(parameters).run() ? 0 : 1);
+    }
+
+    /**
+     * 执行负载测试
+     *
+     * @return 是否通过检查
+     */
+    public boolean run() throws Exception {
+        random = new Random(seed);
+        System.out.println("churn load test " + describe());
+        for (int i = 0; i < nodes; i++) {
+            startNode();
+        }
+        factory = BenchmarkSupport.newFactory(hystrix, discoveryClient);
+        factory.setScanPeriod(scanPeriod);
+        if (outlier) {
+            factory.setOutlierDetector(new OutlierDetector());
+        }
+        factory.refreshModules();
+        factory.initScheduleJob();
+
+        ThreadPoolExecutor callers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), daemonThreads("load-caller"));
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, daemonThreads("load-scheduler"));
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        start = System.nanoTime();
+        scheduler.scheduleAtFixedRate(() -> report(total), 1, 1, TimeUnit.SECONDS);
+        if (0 < churnInterval) {
+            scheduler.scheduleAtFixedRate(this::churn, churnInterval, churnInterval, TimeUnit.SECONDS);
+        }
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, qps);
+        long end = start + TimeUnit.SECONDS.toNanos(duration);
+        for (long sequence = 0; ; sequence++) {
+            long scheduled = start + sequence * intervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (0 < wait) {
+                LockSupport.parkNanos(wait);
+            }
+            long id = sequence;
+            try {
+                callers.execute(() -> invoke(id, scheduled));
+            } catch (RejectedExecutionException e) {
+                dropped.increment();
+            }
+        }
+        callers.shutdown();
+        callers.awaitTermination(1, TimeUnit.MINUTES);
+        scheduler.shutdownNow();
+        report(total);
+        boolean passed = summarize(total, System.nanoTime() - start);
+        factory.destroy();
+        for (Node node : liveNodes) {
+            node.server.stop();
+        }
+        return passed;
+    }
+
+    private void invoke(long id, long scheduled) {
+        try {
+            UserService userService = factory.getRemoteServiceInstance(MODULE, FLAG, UserService.class);
+            if (null == userService) {
+                throw new IllegalStateException("no proxy");
+            }
+            Object previous = lastProxy.getAndSet(userService);
+            if (null != previous && previous != userService) {
+                proxyChanges.increment();
+            }
+            userService.getUser(id);
+            succeeded.increment();
+        } catch (Throwable t) {
+            failed.increment();
+            errors.computeIfAbsent(rootCause(t), key -> new LongAdder()).increment();
+        } finally {
+            latency.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled)));
+        }
+    }
+
+    /**
+     * 轮流执行 下线 -> 上线 -> 变慢，上一次变慢的节点在下一个周期恢复
+     */
+    private void churn() {
+        try {
+            if (null != slowNode) {
+                slowNode.server.setDelayMillis(0);
+                slowNode = null;
+            }
+            switch (churnRound++ % 3) {
+                case 0:
+                    if (liveNodes.size() > minNodes) {
+                        Node node = liveNodes.remove(random.nextInt(liveNodes.size()));
+                        discoveryClient.deregister(SERVICE, node.instanceId);
+                        node.server.stop();
+                        event("leave " + node.instanceId);
+                        break;
+                    }
+                    /* 节点数已到下限时改为上线 */
+                case 1:
+                    event("join " + startNode().instanceId);
+                    break;
+                default:
+                    slowNode = liveNodes.get(random.nextInt(liveNodes.size()));
+                    slowNode.server.setDelayMillis(slowMillis);
+                    event("slow " + slowNode.instanceId + " " + slowMillis + "ms");
+                    break;
+            }
+        } catch (Exception e) {
+            event("churn failed " + e);
+        }
+    }
+
+    private synchronized void event(String event) {
+        System.out.printf("t=%3ds event %s%n", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), event);
+    }
+
+    private Node startNode() throws IOException {
+        LoopbackHttpServer server = new LoopbackHttpServer(serverThreads);
+        Node node = new Node(SERVICE + ":" + nodeSequence.incrementAndGet(), server);
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put(ModuleDefinition.FIELD_NODE_MODULE, MODULE);
+        metadata.put(ModuleDefinition.FIELD_NODE_FLAG, FLAG);
+        discoveryClient.register(SERVICE, new DefaultServiceInstance(
+                node.instanceId, SERVICE, "127.0.0.1", server.getPort(), false, metadata));
+        liveNodes.add(node);
+        return node;
+    }
+
+    private synchronized void report(Histogram total) {
+        Histogram interval = latency.getIntervalHistogram();
+        total.add(interval);
+        RoutingTable routingTable = factory.getRoutingTable();
+        ModuleDefinition moduleDefinition = routingTable.get(MODULE.toUpperCase() + "-" + FLAG.toUpperCase());
+        System.out.printf("t=%3ds requests=%6d ok=%8d err=%6d drop=%6d p50=%8.2fms p99=%8.2fms max=%8.2fms nodes=%d/%d table=v%d%n",
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), interval.getTotalCount(),
+                succeeded.sum(), failed.sum(), dropped.sum(),
+                millis(interval.getValueAtPercentile(50)), millis(interval.getValueAtPercentile(99)), millis(interval.getMaxValue()),
+                null == moduleDefinition ? 0 : moduleDefinition.getNodes().size(), liveNodes.size(),
+                routingTable.getVersion());
+    }
+
+    private boolean summarize(Histogram total, long elapsedNanos) {
+        long requests = succeeded.sum() + failed.sum();
+        double errorPercent = 0 == requests ? 0D : 100D * failed.sum() / requests;
+        double p99 = millis(total.getValueAtPercentile(99));
+        System.out.println("== summary ==");
+        System.out.println(describe());
+        System.out.printf("requests=%d ok=%d errors=%d(%.3f%%) dropped=%d throughput=%.1f/s%n", requests, succeeded.sum(),
+                failed.sum(), errorPercent, dropped.sum(), succeeded.sum() * 1e9 / elapsedNanos);
+        System.out.printf("latency p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms%n",
+                millis(total.getValueAtPercentile(50)), millis(total.getValueAtPercentile(90)), p99,
+                millis(total.getValueAtPercentile(99.9)), millis(total.getMaxValue()));
+        Map<String, Long> errorCounts = new TreeMap<>();
+        errors.forEach((key, value) -> errorCounts.put(key, value.sum()));
+        System.out.println("errors " + errorCounts);
+        ProxyCacheStatistics proxyCache = factory.getProxyCacheStatistics();
+        System.out.println("proxy builds=" + proxyCache.getMissCount() + " proxyChanges=" + proxyChanges.sum()
+                + " routingTableVersion=" + factory.getRoutingTable().getVersion());
+        System.out.println(proxyCache);
+        System.out.println(factory.getScanStatistics());
+        if (outlier) {
+            System.out.println(factory.getOutlierStatistics());
+        }
+        List<String> violations = new ArrayList<>();
+        if (0 <= maxErrorPercent && errorPercent > maxErrorPercent) {
+            violations.add(String.format("error rate %.3f%% > %.3f%%", errorPercent, maxErrorPercent));
+        }
+        if (0 <= maxP99Millis && p99 > maxP99Millis) {
+            violations.add(String.format("p99 %.2fms > %.2fms", p99, maxP99Millis));
+        }
+        System.out.println(violations.isEmpty() ? "PASSED" : "FAILED " + violations);
+        return violations.isEmpty();
+    }
+
+    private String describe() {
+        return "factory=" + (hystrix ? "hystrix" : "feign") + " nodes=" + nodes + " qps=" + qps + " duration=" + duration
+                + "s threads=" + threads + " churnInterval=" + churnInterval + "s slowMillis=" + slowMillis
+                + " scanPeriod=" + scanPeriod + "s outlier=" + outlier + " seed=" + seed;
+    }
+
+    private int intParameter(String name, int defaultValue) {
+        return Integer.parseInt(parameters.getOrDefault(name, String.valueOf(defaultValue)));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000D;
+    }
+
+    private static String rootCause(Throwable throwable) {
+        Throwable cause = throwable;
+        while (null != cause.getCause() && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getClass().getSimpleName();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 一个桩服务节点
+     */
+    private static final class Node {
+
+        private final String instanceId;
+        private final LoopbackHttpServer server;
+
+        private Node(String instanceId, LoopbackHttpServer server) {
+            this.instanceId = instanceId;
+            this.server = server;
+        }
+
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.page.isomerism.feign;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 内存中的DiscoveryClient
+ * <p>
+ * 用于在没有注册中心的情况下驱动factory的扫描
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class InMemoryDiscoveryClient implements DiscoveryClient {
+
+    private final ConcurrentHashMap<String, List<ServiceInstance>> instances = new ConcurrentHashMap<>();
+
+    /**
+     * 注册带有module/flag元数据的实例
+     *
+     * @param service 服务名称
+     * @param module  模块名称
+     * @param flag    区分的flag
+     * @param host    主机
+     * @param port    端口
+     */
+    public void register(String service, String module, String flag, String host, int port) {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put(ModuleDefinition.FIELD_NODE_MODULE, module);
+        metadata.put(ModuleDefinition.FIELD_NODE_FLAG, flag);
+        register(service, new DefaultServiceInstance(service + ":" + host + ":" + port, service, host, port, false, metadata));
+    }
+
+    /**
+     * 注册实例
+     *
+     * @param service         服务名称
+     * @param serviceInstance 实例
+     */
+    public void register(String service, ServiceInstance serviceInstance) {
+        instances.compute(service, (key, value) -> {
+            List<ServiceInstance> list = null == value ? new ArrayList<>() : new ArrayList<>(value);
+            list.add(serviceInstance);
+            return list;
+        });
+    }
+
+    /**
+     * 注销服务的全部实例
+     *
+     * @param service 服务名称
+     */
+    public void deregister(String service) {
+        instances.remove(service);
+    }
+
+    /**
+     * 注销服务的一个实例
+     *
+     * @param service    服务名称
+     * @param instanceId 实例id
+     */
+    public void deregister(String service, String instanceId) {
+        instances.computeIfPresent(service, (key, value) -> {
+            List<ServiceInstance> list = new ArrayList<>(value);
+            list.removeIf(serviceInstance -> instanceId.equals(serviceInstance.getInstanceId()));
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    @Override
+    public String description() {
+        return "in-memory";
+    }
+
+    @Override
+    public List<ServiceInstance> getInstances(String serviceId) {
+        return instances.getOrDefault(serviceId, Collections.emptyList());
+    }
+
+    @Override
+    public List<String> getServices() {
+        return new ArrayList<>(instances.keySet());
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.page.isomerism.feign;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 远端调用的基准测试
+ * <p>
+ * 对本地回环桩服务发起调用，比较普通Feign与HystrixFeign代理的开销
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class InvocationBenchmark {
+
+    @Param({"feign", "hystrix"})
+    private String factoryType;
+
+    private LoopbackHttpServer server;
+    private UserService userService;
+
+    @Setup
+    public void setup() throws IOException {
+        server = new LoopbackHttpServer(8);
+        InMemoryDiscoveryClient discoveryClient = new InMemoryDiscoveryClient();
+        discoveryClient.register("user-service", "user", "flag0", "127.0.0.1", server.getPort());
+        AbstractRemoteServiceFeignFactory factory = BenchmarkSupport.newFactory("hystrix".equals(factoryType), discoveryClient);
+        factory.refreshModules();
+        userService = factory.getRemoteServiceInstance("user", "flag0", UserService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Benchmark
+    public String invoke() {
+        return userService.getUser(1L);
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.page.isomerism.feign;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 本地回环的HTTP桩服务
+ * <p>
+ * 对任意路径返回固定的文本响应，用于测量调用链路自身的开销；
+ * 可设置响应前的延迟以模拟变慢的节点
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class LoopbackHttpServer {
+
+    static {
+        /* 关闭Nagle，避免小响应在回环上触发延迟确认 */
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * 响应前的延迟
+     * (单位 毫秒)
+     */
+    private volatile int delayMillis;
+
+    public LoopbackHttpServer(int threads) throws IOException {
+        byte[] body = "isomerism".getBytes(StandardCharsets.UTF_8);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", exchange -> {
+            int delay = delayMillis;
+            if (0 < delay) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.getResponseHeaders().add("Content-Type", "text/plain");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        this.server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void setDelayMillis(int delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+}
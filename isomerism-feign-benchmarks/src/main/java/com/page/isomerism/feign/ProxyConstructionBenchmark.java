@@ -0,0 +1,62 @@
+package com.page.isomerism.feign;
+
+import feign.codec.ErrorDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 远端代理构造的基准测试
+ * <p>
+ * buildProxy为不经过缓存的完整构造(包括SpringMvcContract解析接口)，
+ * constructRemoteServiceInstance为命中自定义远端接口存照的构造
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProxyConstructionBenchmark {
+
+    private AbstractRemoteServiceFeignFactory factory;
+    private SpringDecoder decoder;
+    private SpringEncoder encoder;
+    private ErrorDecoder errorDecoder;
+
+    @Setup
+    public void setup() {
+        InMemoryDiscoveryClient discoveryClient = new InMemoryDiscoveryClient();
+        discoveryClient.register("user-service", "user", "flag0", "127.0.0.1", 18080);
+        factory = BenchmarkSupport.newFactory(false, discoveryClient);
+        factory.refreshModules();
+        decoder = new SpringDecoder(factory.messageConverters);
+        encoder = new SpringEncoder(factory.messageConverters);
+        errorDecoder = new ErrorDecoder.Default();
+    }
+
+    @Benchmark
+    public UserService buildProxy() {
+        return factory.constructInstance(UserService.class, decoder, encoder, errorDecoder, "http://127.0.0.1:18080");
+    }
+
+    @Benchmark
+    public UserService constructRemoteServiceInstance() {
+        return factory.constructRemoteServiceInstance("USER", "FLAG0", UserService.class, decoder, encoder, errorDecoder);
+    }
+
+}
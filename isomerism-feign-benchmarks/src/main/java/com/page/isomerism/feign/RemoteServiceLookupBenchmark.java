@@ -0,0 +1,62 @@
+package com.page.isomerism.feign;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getRemoteServiceInstance缓存命中路径的基准测试
+ * <p>
+ * 以 -prof gc 运行，lookup的gc.alloc.rate.norm应为0，
+ * legacyKeyLookup为原先toUpperCase+拼接key的查找方式，作为对照
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RemoteServiceLookupBenchmark {
+
+    private AbstractRemoteServiceFeignFactory factory;
+    private final ConcurrentHashMap<String, Object> legacyCaches = new ConcurrentHashMap<>();
+    private String module = "user";
+    private String flag = "flag0";
+
+    @Setup
+    public void setup() {
+        InMemoryDiscoveryClient discoveryClient = new InMemoryDiscoveryClient();
+        discoveryClient.register("user-service", "user", "flag0", "127.0.0.1", 18080);
+        factory = BenchmarkSupport.newFactory(false, discoveryClient);
+        factory.refreshModules();
+        Object service = factory.getRemoteServiceInstance(module, flag, UserService.class);
+        if (null == service) {
+            throw new IllegalStateException("remote service not constructed");
+        }
+        legacyCaches.put(module.toUpperCase() + "-" + flag.toUpperCase() + UserService.class.getName(), service);
+    }
+
+    @Benchmark
+    public UserService lookup() {
+        return factory.getRemoteServiceInstance(module, flag, UserService.class);
+    }
+
+    @Benchmark
+    public Object legacyKeyLookup() {
+        return legacyCaches.get(module.toUpperCase() + "-" + flag.toUpperCase() + UserService.class.getName());
+    }
+
+}
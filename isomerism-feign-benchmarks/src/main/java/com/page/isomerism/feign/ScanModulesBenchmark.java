@@ -0,0 +1,64 @@
+package com.page.isomerism.feign;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 发现扫描的基准测试
+ * <p>
+ * steadyScan为注册信息未变化时的一次扫描，churnScan为每次扫描都有一个模块节点上下线
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScanModulesBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int services;
+
+    private InMemoryDiscoveryClient discoveryClient;
+    private AbstractRemoteServiceFeignFactory factory;
+    private boolean churned;
+
+    @Setup
+    public void setup() {
+        discoveryClient = new InMemoryDiscoveryClient();
+        BenchmarkSupport.registerServices(discoveryClient, services);
+        factory = BenchmarkSupport.newFactory(false, discoveryClient);
+        factory.refreshModules();
+    }
+
+    @Benchmark
+    public void steadyScan() {
+        factory.refreshModules();
+    }
+
+    @Benchmark
+    public void churnScan() {
+        if (churned) {
+            discoveryClient.deregister("churn-service");
+        } else {
+            discoveryClient.register("churn-service", "churn", "flag0", "10.9.9.9", 8080);
+        }
+        churned = !churned;
+        factory.refreshModules();
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.page.isomerism.feign;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+/**
+ * 基准测试使用的远端接口
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public interface UserService {
+
+    /**
+     * 查询用户
+     *
+     * @param id 用户id
+     * @return 用户
+     */
+    @GetMapping("/users/{id}")
+    String getUser(@PathVariable("id") long id);
+
+}
@@ -1,6 +1,8 @@
 package com.page.isomerism.feign;
 
+import feign.Client;
 import feign.Feign;
+import feign.Retryer;
 import feign.codec.Decoder;
 import feign.codec.Encoder;
 import feign.codec.ErrorDecoder;
@@ -11,19 +13,49 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
 import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
 import org.springframework.cloud.openfeign.support.SpringDecoder;
 import org.springframework.cloud.openfeign.support.SpringEncoder;
-import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.context.event.EventListener;
 import org.springframework.util.StringUtils;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * 抽象的RemoteServiceFeignFactory
@@ -44,158 +76,1298 @@ public abstract class AbstractRemoteServiceFeignFactory
     private String defaultModule = "";
     private String defaultFlag = "";
     private final byte[] objectLock = new byte[1];
-    private final static ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+    /**
+     * 发现扫描的调度(每个factory独立)
+     */
+    private final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "isomerism-feign-scan");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * 预热的执行(每个factory独立，随factory销毁)
+     */
+    private final ExecutorService warmUpExecutorService = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "isomerism-feign-warmup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile int scanPeriod = 10;
+
+    /**
+     * 扫描周期的随机抖动比例 (0-100)
+     * (避免同一集群的实例在同一时刻扫描注册中心)
+     */
+    private volatile int scanJitterPercent = 20;
+
+    /**
+     * 并行拉取服务实例的线程数
+     * (1 时在扫描线程中逐个拉取)
+     */
+    private int scanParallelism = 4;
+
+    /**
+     * 一次扫描中拉取服务实例的超时时间
+     * (单位 秒，超时的服务沿用上一次扫描的结果)
+     */
+    private volatile int scanTimeout = 5;
+
+    /**
+     * 并行拉取服务实例的执行器
+     * (首次扫描时创建，仅在扫描锁内访问)
+     */
+    private ExecutorService scanFetchExecutorService;
+
+    /**
+     * 已知没有node.module元数据的服务
+     * <p>
+     * key 服务名称
+     * value 下一次重新拉取的扫描序号
+     * (仅在扫描锁内访问)
+     */
+    private final Map<String, Long> unmarkedServices = new HashMap<>();
+
+    /**
+     * 没有node.module元数据的服务每隔多少次扫描重新拉取一次
+     */
+    private static final int UNMARKED_RECHECK_SCANS = 6;
+
+    /**
+     * 路由表快照文件
+     * (为null时不保存快照)
+     */
+    private volatile Path snapshotPath;
+
+    /**
+     * 快照的最长有效时间
+     * (单位 秒，超过时启动时不使用)
+     */
+    private volatile int snapshotMaxAge = 600;
+
+    /**
+     * 扫描序号、耗时最大值、拉取失败次数
+     * (仅在扫描锁内访问)
+     */
+    private long scanSequence;
+    private long maxScanDurationMillis;
+    private long scanFailureCount;
+
+    private volatile ScanStatistics scanStatistics = new ScanStatistics(0L, 0L, 0L, 0, 0, 0, 0L);
+
+    /**
+     * 负载均衡策略
+     */
+    private volatile LoadBalancer loadBalancer = new RoundRobinLoadBalancer();
+
+    /**
+     * 一致性哈希路由的默认负载上限系数
+     */
+    static final double DEFAULT_CONSISTENT_HASH_LOAD_FACTOR = 1.25D;
+
+    /**
+     * 声明了路由key的调用使用的一致性哈希路由
+     */
+    private final ConsistentHashRouter consistentHashRouter = new ConsistentHashRouter(DEFAULT_CONSISTENT_HASH_LOAD_FACTOR);
+
+    /**
+     * 传输层
+     */
+    private volatile RemoteTransport remoteTransport = new DefaultRemoteTransport();
+
+    /**
+     * 直接按url构造的代理使用的Client
+     */
+    private final Client transportClient = (request, options) ->
+            remoteTransport.execute(RemoteServiceContract.route(request, request.url(), null), options, null, null);
+
+    /**
+     * 调用指标的注册中心
+     */
+    private volatile RemoteMetricsRegistry metricsRegistry = new InMemoryRemoteMetricsRegistry();
+
+    /**
+     * 调用指标的记录器
+     * <p>
+     * key ${ModuleDefinition.module}-${ModuleDefinition.flag}
+     * value 该module/flag下各方法(${接口的全限定名}#${方法签名})的记录器(不能再调用后移除)
+     */
+    private final ConcurrentHashMap<String, ModuleMetricsRecorders> metricsRecorders = new ConcurrentHashMap<>();
+
+    /**
+     * 节点运行时统计
+     * <p>
+     * key ${NodeDefinition.uri}
+     * value NodeStatistics
+     */
+    private final ConcurrentHashMap<String, NodeStatistics> nodeStatistics = new ConcurrentHashMap<>();
+
+    /**
+     * 异步调用的执行器
+     * (未设置时首次使用创建有界的默认执行器)
+     */
+    private volatile ExecutorService asyncExecutor;
+    private volatile boolean defaultAsyncExecutor = false;
+
+    /**
+     * 虚拟线程调用模式
+     * (异步调用及对冲请求在虚拟线程上执行，同步调用仍在调用方线程上执行，并发由各module/flag的信号量限制)
+     */
+    private volatile boolean virtualThreads = false;
+
+    /**
+     * 虚拟线程调用模式下每个module/flag的最大并发调用数
+     */
+    private volatile int maxConcurrentRequestsPerModule = 1000;
+
+    /**
+     * 虚拟线程调用模式下各module/flag的并发信号量
+     * <p>
+     * key ${ModuleDefinition.module}-${ModuleDefinition.flag}
+     * value ModuleSemaphore(调整最大并发调用数时在原信号量上增减许可；
+     * 不能再调用且许可全部归还后移除)
+     */
+    private final ConcurrentHashMap<String, ModuleSemaphore> moduleSemaphores = new ConcurrentHashMap<>();
+
+    /**
+     * 远端方法的结果缓存
+     * (module/flag不在路由表中后移除)
+     * <p>
+     * key ${ModuleDefinition.module}-${ModuleDefinition.flag}
+     * value 该module/flag下各方法的结果缓存
+     */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<Method, ResponseCache>> responseCaches = new ConcurrentHashMap<>();
+
+    /**
+     * 代理缓存的默认权重上限
+     * (单位 估算的KB)
+     */
+    static final long DEFAULT_PROXY_CACHE_MAX_WEIGHT = 64 * 1024L;
+
+    /**
+     * 远端接口存照的快速查找表
+     * (getRemoteServiceInstance命中时无对象分配，存照淘汰时移除)
+     */
+    private final RemoteServiceLookup remoteServiceLookup = new RemoteServiceLookup();
+
+    /**
+     * 远端接口存照(代理缓存)
+     * <p>
+     * key ${module}-${flag}-${clazz}-${decoder.class}-${encoder.class}-${errorDecoder.class}
+     * (子类直接按url构造的代理使用各自的key)
+     * value RemoteServiceDefinition
+     * (代理在每次调用时从路由表解析节点，节点变化不会淘汰存照；超出权重上限时淘汰最久未访问的代理)
+     */
+    private final ProxyCache proxyCache = new ProxyCache(DEFAULT_PROXY_CACHE_MAX_WEIGHT, remoteServiceLookup::remove);
+
+    /**
+     * 模块节点定义存照(路由表)
+     * <p>
+     * 整体原子替换(版本号递增)，读取时无需加锁
+     */
+    private volatile RoutingTable routingTable = RoutingTable.EMPTY;
+
+    /**
+     * 上一次扫描的各服务实例
+     * <p>
+     * key 服务名称
+     * value 该服务下带有module/flag元数据的实例
+     * (仅在扫描锁内访问)
+     */
+    private final Map<String, Set<ServiceInstanceRecord>> serviceSnapshots = new HashMap<>();
+
+    /**
+     * 上一次收到的发现心跳值
+     */
+    private volatile Object lastHeartbeat;
+
+    /**
+     * 心跳触发的扫描等待的最短时间
+     * (单位 毫秒，期间的多次心跳合并为一次扫描)
+     */
+    private static final long HEARTBEAT_DEBOUNCE_MILLIS = 500L;
+
+    /**
+     * 心跳触发的扫描距上一次扫描开始的最短间隔
+     * (单位 毫秒)
+     */
+    private static final long HEARTBEAT_MIN_SCAN_INTERVAL_MILLIS = 2000L;
+
+    /**
+     * 是否已安排心跳触发的扫描
+     */
+    private final AtomicBoolean heartbeatScanPending = new AtomicBoolean();
+
+    /**
+     * 最近一次收到心跳(值变化)、最近一次开始扫描及下一次定时扫描的时刻
+     * (System.nanoTime)
+     */
+    private volatile long lastHeartbeatNanos;
+    private volatile long lastScanStartNanos = System.nanoTime();
+    private volatile long nextScanNanos = System.nanoTime();
+
+    /**
+     * module/flag并发限制的构造方式
+     * (为null时不做限制)
+     */
+    private volatile Supplier<ConcurrencyLimiter> concurrencyLimiterSupplier;
+
+    /**
+     * 各module/flag的并发限制
+     * <p>
+     * key ${ModuleDefinition.module}-${ModuleDefinition.flag}
+     * value ConcurrencyLimiter(不能再调用超过保留时间且没有进行中的调用后移除)
+     */
+    private final ConcurrentHashMap<String, ConcurrencyLimiter> concurrencyLimiters = new ConcurrentHashMap<>();
+
+    /**
+     * 不能再调用的module/flag的并发限制的保留时间
+     * (单位 纳秒，短暂离开路由表的module/flag保留已调整的并发上限)
+     */
+    long concurrencyLimiterRetentionNanos = TimeUnit.MINUTES.toNanos(5);
+
+    /**
+     * key 并发限制不能再调用的module/flag
+     * value 开始不能调用的时刻(System.nanoTime)
+     * (仅在扫描锁内访问)
+     */
+    private final Map<String, Long> unroutableLimiters = new HashMap<>();
+
+    /**
+     * 异常节点探测
+     * (为null时不做探测)
+     */
+    private volatile OutlierDetector outlierDetector;
+
+    /**
+     * 重试策略
+     * (为null时不重试)
+     */
+    private volatile RetryPolicy retryPolicy = new RetryPolicy();
+
+    /**
+     * 对冲请求策略
+     * (为null时不对冲)
+     */
+    private volatile HedgePolicy hedgePolicy;
+
+    /**
+     * 需要预热的远端接口
+     * <p>
+     * key 模块名称(大写)
+     * value 该模块下需要预先构造代理的接口
+     */
+    private final ConcurrentHashMap<String, Set<Class<?>>> warmUpServices = new ConcurrentHashMap<>();
+
+    /**
+     * 预热时是否预先建立到节点的连接
+     */
+    private volatile boolean preconnect = false;
+
+    /**
+     * 启动发现扫描
+     * <p>
+     * 先由本地快照恢复路由表(配置了快照文件时)，
+     * 首次扫描在3s后的一个扫描周期内随机开始，之后每次扫描完成后按带抖动的周期安排下一次，
+     * 各实例的扫描时刻相互错开
+     */
+    @PostConstruct
+    protected void initScheduleJob() {
+        loadSnapshot();
+        long period = scanPeriod * 1000L;
+        scheduleScan(3 * 1000L + (0 < period ? ThreadLocalRandom.current().nextLong(period) : 0L));
+    }
+
+    private void scheduleScan(long delayMillis) {
+        nextScanNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        try {
+            scheduledExecutorService.schedule(() -> {
+                if (0 < scanPeriod) {
+                    refreshModules();
+                }
+                scheduleScan(nextScanDelay());
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.info("scan scheduler stopped");
+        }
+    }
+
+    /**
+     * 下一次扫描的间隔
+     * (扫描周期上下浮动scanJitterPercent，扫描关闭时每秒检查一次)
+     */
+    private long nextScanDelay() {
+        if (0 >= scanPeriod) {
+            return 1000L;
+        }
+        long period = scanPeriod * 1000L;
+        long jitter = period * scanJitterPercent / 100;
+        return 0 >= jitter ? period : period - jitter + ThreadLocalRandom.current().nextLong(2 * jitter + 1);
+    }
+
+    /**
+     * 设置扫描周期
+     * <p>
+     * 单位 秒
+     * (默认 30s)
+     *
+     * @param seconds 扫描间隔
+     */
+    @Override
+    public void setScanPeriod(int seconds) {
+        this.scanPeriod = Math.abs(seconds);
+    }
+
+    @Override
+    public void setScanJitterPercent(int scanJitterPercent) {
+        this.scanJitterPercent = Math.max(0, Math.min(100, scanJitterPercent));
+    }
+
+    @Override
+    public void setScanParallelism(int scanParallelism) {
+        synchronized (objectLock) {
+            this.scanParallelism = Math.max(1, scanParallelism);
+            if (null != scanFetchExecutorService) {
+                scanFetchExecutorService.shutdown();
+                scanFetchExecutorService = null;
+            }
+        }
+    }
+
+    @Override
+    public void setScanTimeout(int seconds) {
+        this.scanTimeout = Math.max(1, seconds);
+    }
+
+    @Override
+    public void setSnapshotPath(String snapshotPath) {
+        this.snapshotPath = StringUtils.isEmpty(snapshotPath) ? null : Paths.get(snapshotPath);
+        loadSnapshot();
+    }
+
+    @Override
+    public void setSnapshotMaxAge(int seconds) {
+        this.snapshotMaxAge = Math.max(0, seconds);
+    }
+
+    @Override
+    public ScanStatistics getScanStatistics() {
+        return scanStatistics;
+    }
+
+    @Override
+    public void setLoadBalancer(LoadBalancer loadBalancer) {
+        if (null != loadBalancer) {
+            this.loadBalancer = loadBalancer;
+        }
+    }
+
+    @Override
+    public void setConsistentHashLoadFactor(double loadFactor) {
+        consistentHashRouter.setLoadFactor(loadFactor);
+    }
+
+    @Override
+    public void setRemoteTransport(RemoteTransport remoteTransport) {
+        if (null == remoteTransport) {
+            return;
+        }
+        RemoteTransport previous = this.remoteTransport;
+        this.remoteTransport = remoteTransport;
+        if (previous != remoteTransport) {
+            previous.close();
+        }
+    }
+
+    @Override
+    public void setAsyncExecutor(ExecutorService asyncExecutor) {
+        if (null == asyncExecutor) {
+            return;
+        }
+        ExecutorService previous;
+        boolean shutdownPrevious;
+        synchronized (this) {
+            previous = this.asyncExecutor;
+            shutdownPrevious = defaultAsyncExecutor;
+            this.asyncExecutor = asyncExecutor;
+            this.defaultAsyncExecutor = false;
+        }
+        if (null != previous && shutdownPrevious) {
+            previous.shutdown();
+        }
+    }
+
+    @Override
+    public void setVirtualThreads(boolean virtualThreads) {
+        ExecutorService previous = null;
+        synchronized (this) {
+            this.virtualThreads = virtualThreads;
+            /* 默认执行器按新的模式重新创建，自定义的执行器保持不变 */
+            if (defaultAsyncExecutor) {
+                previous = asyncExecutor;
+                asyncExecutor = null;
+                defaultAsyncExecutor = false;
+            }
+        }
+        if (null != previous) {
+            previous.shutdown();
+        }
+    }
+
+    boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    public void setMaxConcurrentRequestsPerModule(int maxConcurrentRequestsPerModule) {
+        synchronized (moduleSemaphores) {
+            this.maxConcurrentRequestsPerModule = Math.max(1, maxConcurrentRequestsPerModule);
+            for (ModuleSemaphore semaphore : moduleSemaphores.values()) {
+                semaphore.resize(this.maxConcurrentRequestsPerModule);
+            }
+        }
+    }
+
+    int getMaxConcurrentRequestsPerModule() {
+        return maxConcurrentRequestsPerModule;
+    }
+
+    /**
+     * 虚拟线程调用模式下module/flag的并发信号量
+     *
+     * @param moduleKey ${module}-${flag}
+     * @return 信号量 / null(未启用虚拟线程调用模式)
+     */
+    Semaphore getModuleSemaphore(String moduleKey) {
+        if (!virtualThreads) {
+            return null;
+        }
+        Semaphore semaphore = moduleSemaphores.get(moduleKey);
+        if (null != semaphore) {
+            return semaphore;
+        }
+        synchronized (moduleSemaphores) {
+            return moduleSemaphores.computeIfAbsent(moduleKey, key -> new ModuleSemaphore(maxConcurrentRequestsPerModule));
+        }
+    }
+
+    /**
+     * 移除不能再调用的module/flag的信号量
+     * <p>
+     * 网关可以转发的module/flag保留；仍有调用占用许可的信号量保留，
+     * 避免之后新建的信号量带着全部许可与进行中的调用叠加而超出并发上限
+     *
+     * @param table 新的路由表
+     */
+    private void releaseModuleSemaphores(RoutingTable table) {
+        synchronized (moduleSemaphores) {
+            moduleSemaphores.entrySet().removeIf(entry -> !table.isRoutable(entry.getKey())
+                    && entry.getValue().availablePermits() >= maxConcurrentRequestsPerModule);
+        }
+    }
+
+    Executor getAsyncExecutor() {
+        ExecutorService executor = asyncExecutor;
+        if (null != executor) {
+            return executor;
+        }
+        synchronized (this) {
+            if (null == asyncExecutor && virtualThreads) {
+                asyncExecutor = VirtualThreads.newExecutor("isomerism-feign-virtual-");
+                if (null == asyncExecutor) {
+                    logger.warn("virtual threads not supported by this runtime,java:{},fall back to platform threads",
+                            System.getProperty("java.version"));
+                } else {
+                    defaultAsyncExecutor = true;
+                }
+            }
+            if (null == asyncExecutor) {
+                int threads = Math.max(16, Runtime.getRuntime().availableProcessors() * 8);
+                AtomicInteger sequence = new AtomicInteger();
+                asyncExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(threads * 16), runnable -> {
+                    Thread thread = new Thread(runnable, "isomerism-feign-async-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                defaultAsyncExecutor = true;
+            }
+            return asyncExecutor;
+        }
+    }
+
+    @Override
+    public void setMetricsRegistry(RemoteMetricsRegistry metricsRegistry) {
+        if (null == metricsRegistry) {
+            return;
+        }
+        synchronized (metricsRecorders) {
+            this.metricsRegistry = metricsRegistry;
+            metricsRecorders.clear();
+        }
+    }
+
+    @Override
+    public RemoteMetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    @Override
+    public void setConcurrencyLimiter(Supplier<ConcurrencyLimiter> concurrencyLimiterSupplier) {
+        synchronized (concurrencyLimiters) {
+            this.concurrencyLimiterSupplier = concurrencyLimiterSupplier;
+            concurrencyLimiters.clear();
+        }
+    }
+
+    @Override
+    public Map<String, Integer> getConcurrencyLimits() {
+        Map<String, Integer> limits = new HashMap<>();
+        concurrencyLimiters.forEach((moduleKey, limiter) -> limits.put(moduleKey, limiter.getLimit()));
+        return limits;
+    }
+
+    boolean isConcurrencyLimited() {
+        return null != concurrencyLimiterSupplier;
+    }
+
+    ConcurrencyLimiter getConcurrencyLimiter(ModuleDefinition moduleDefinition) {
+        if (null == concurrencyLimiterSupplier) {
+            return null;
+        }
+        ConcurrencyLimiter limiter = concurrencyLimiters.get(moduleDefinition.getKey());
+        if (null != limiter) {
+            return limiter;
+        }
+        synchronized (concurrencyLimiters) {
+            Supplier<ConcurrencyLimiter> supplier = concurrencyLimiterSupplier;
+            return null == supplier ? null : concurrencyLimiters.computeIfAbsent(moduleDefinition.getKey(), key -> supplier.get());
+        }
+    }
+
+    /**
+     * 移除不能再调用的module/flag的并发限制
+     * (仅在扫描锁内调用)
+     * <p>
+     * 网关可以转发的module/flag保留；不能再调用超过保留时间且没有进行中的调用时才移除，
+     * 短暂离开路由表的module/flag重新出现时沿用已调整的并发上限
+     *
+     * @param table 新的路由表
+     */
+    private void releaseConcurrencyLimiters(RoutingTable table) {
+        long now = System.nanoTime();
+        synchronized (concurrencyLimiters) {
+            unroutableLimiters.keySet().retainAll(concurrencyLimiters.keySet());
+            Iterator<Map.Entry<String, ConcurrencyLimiter>> iterator = concurrencyLimiters.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, ConcurrencyLimiter> entry = iterator.next();
+                if (table.isRoutable(entry.getKey())) {
+                    unroutableLimiters.remove(entry.getKey());
+                    continue;
+                }
+                long since = unroutableLimiters.computeIfAbsent(entry.getKey(), key -> now);
+                if (concurrencyLimiterRetentionNanos <= now - since && 0 == entry.getValue().getInFlight()) {
+                    iterator.remove();
+                    unroutableLimiters.remove(entry.getKey());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void setOutlierDetector(OutlierDetector outlierDetector) {
+        this.outlierDetector = outlierDetector;
+    }
+
+    @Override
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * 代理使用的Retryer
+     * (负载均衡的代理由RemoteServiceClient按RetryPolicy重试，Feign层不再重试)
+     *
+     * @param client 发送请求的Client
+     * @return Retryer
+     */
+    protected Retryer retryer(Client client) {
+        return client instanceof RemoteServiceClient ? Retryer.NEVER_RETRY : new Retryer.Default();
+    }
+
+    @Override
+    public void setHedgePolicy(HedgePolicy hedgePolicy) {
+        this.hedgePolicy = hedgePolicy;
+    }
+
+    HedgePolicy getHedgePolicy() {
+        return hedgePolicy;
+    }
+
+    OutlierDetector getOutlierDetector() {
+        return outlierDetector;
+    }
+
+    @Override
+    public List<OutlierStatistics> getOutlierStatistics() {
+        List<OutlierStatistics> statistics = new ArrayList<>();
+        long now = System.nanoTime();
+        for (ModuleDefinition moduleDefinition : routingTable.getModuleDefinitions().values()) {
+            for (NodeDefinition node : moduleDefinition.getNodes()) {
+                NodeStatistics nodeStatistics = node.getStatistics();
+                boolean ejected = nodeStatistics.isEjected(now);
+                statistics.add(new OutlierStatistics(moduleDefinition.getKey(), node.getInstanceId(), node.getUri(), ejected,
+                        ejected ? TimeUnit.NANOSECONDS.toMillis(nodeStatistics.getEjectedUntil() - now) : 0L,
+                        nodeStatistics.getEjectionCount(), nodeStatistics.getLastFailureRate(),
+                        (long) (nodeStatistics.getLastMeanLatency() / 1000)));
+            }
+        }
+        return statistics;
+    }
+
+    @Override
+    public void registerRemoteService(String module, Class<?> classOfT) {
+        if (StringUtils.isEmpty(module) || null == classOfT) {
+            return;
+        }
+        String normalizedModule = module.toUpperCase();
+        warmUpServices.computeIfAbsent(normalizedModule, key -> new CopyOnWriteArraySet<>()).add(classOfT);
+        List<ModuleDefinition> moduleDefinitions = new ArrayList<>();
+        for (ModuleDefinition moduleDefinition : routingTable.getModuleDefinitions().values()) {
+            if (normalizedModule.equals(moduleDefinition.getModule())) {
+                moduleDefinitions.add(moduleDefinition);
+            }
+        }
+        warmUp(moduleDefinitions);
+    }
+
+    @Override
+    public void setPreconnect(boolean preconnect) {
+        this.preconnect = preconnect;
+    }
+
+    @Override
+    public void setProxyCacheMaxWeight(long maxWeight) {
+        proxyCache.setMaxWeight(maxWeight);
+    }
+
+    @Override
+    public ProxyCacheStatistics getProxyCacheStatistics() {
+        return proxyCache.statistics();
+    }
 
-    private int scanPeriod = 10;
+    ProxyCache getProxyCache() {
+        return proxyCache;
+    }
 
     /**
-     * 远端接口存照
-     * <p>
-     * key ${RemoteServiceDefinition.service}-${RemoteServiceDefinition.flag}-${RemoteServiceDefinition.clazz}
-     * value RemoteServiceDefinition
+     * 估算代理的内存占用
+     * (单位 KB，每个方法的MethodHandler及解析的元数据约2KB)
+     *
+     * @param classOfT 接口的Class
+     * @return 权重
+     */
+    protected int weigh(Class<?> classOfT) {
+        return 1 + 2 * feignMethods(classOfT).size();
+    }
+
+    /**
+     * 代理写入缓存时占用的附加资源
+     *
+     * @param classOfT 接口的Class
+     * @param url      构造时使用的url
+     * @param client   发送请求的Client
+     * @return 代理被淘汰且不再可达后的释放动作 / null
      */
-    private final ConcurrentHashMap<String, RemoteServiceDefinition<?>> remoteServiceCaches = new ConcurrentHashMap<>();
+    protected Runnable acquireResources(Class<?> classOfT, String url, Client client) {
+        return null;
+    }
 
     /**
-     * 模块节点定义存照
-     * <p>
-     * key ${ModuleDefinition.service}-${ModuleDefinition.flag}
-     * value ModuleDefinition
+     * Feign为接口生成MethodHandler的方法
+     * (与Contract解析的范围一致：排除Object的方法、静态方法及默认方法)
+     *
+     * @param classOfT 接口的Class
+     * @return 方法
      */
-    private ConcurrentHashMap<String, ModuleDefinition> moduleClientDefinitions = new ConcurrentHashMap<>();
+    static List<Method> feignMethods(Class<?> classOfT) {
+        List<Method> methods = new ArrayList<>();
+        for (Method method : classOfT.getMethods()) {
+            if (method.getDeclaringClass() == Object.class || Modifier.isStatic(method.getModifiers()) || method.isDefault()) {
+                continue;
+            }
+            methods.add(method);
+        }
+        return methods;
+    }
 
     /**
-     * 自定义远端接口存照
-     * <p>
-     * key ${RemoteServiceDefinition.service}-${RemoteServiceDefinition.flag}-${RemoteServiceDefinition.clazz}-${encoder.class}-${decoder.class}-${errorDecoder.class}
-     * value RemoteServiceDefinition
+     * 在后台线程中为已注册的接口构造代理(并预先建立连接)
+     *
+     * @param moduleDefinitions 新出现或发生变化的module/flag
      */
-    private ConcurrentHashMap<String, RemoteServiceDefinition<?>> customRemoteServiceCaches = new ConcurrentHashMap<>();
+    private void warmUp(Collection<ModuleDefinition> moduleDefinitions) {
+        if (warmUpServices.isEmpty() || moduleDefinitions.isEmpty()) {
+            return;
+        }
+        List<ModuleDefinition> targets = new ArrayList<>();
+        for (ModuleDefinition moduleDefinition : moduleDefinitions) {
+            if (warmUpServices.containsKey(moduleDefinition.getModule())) {
+                targets.add(moduleDefinition);
+            }
+        }
+        if (targets.isEmpty()) {
+            return;
+        }
+        try {
+            warmUpExecutorService.execute(() -> runWarmUp(targets));
+        } catch (RejectedExecutionException e) {
+            logger.info("warm up executor stopped");
+        }
+    }
 
-    @PostConstruct
-    protected void initScheduleJob() {
-        scheduledExecutorService.scheduleAtFixedRate(() -> {
-            if (0 < scanPeriod) {
-                long currentTimeMillis = System.currentTimeMillis();
-                currentTimeMillis -= currentTimeMillis % 1000L;
-                if (0 == (currentTimeMillis / 1000L) % scanPeriod) {
-                    scanModules();
+    /**
+     * 在预热线程中构造代理并预先建立连接
+     */
+    private void runWarmUp(List<ModuleDefinition> targets) {
+        long start = System.currentTimeMillis();
+        for (ModuleDefinition moduleDefinition : targets) {
+            for (Class<?> classOfT : warmUpServices.getOrDefault(moduleDefinition.getModule(), Collections.emptySet())) {
+                try {
+                    getRemoteServiceInstance(moduleDefinition.getModule(), moduleDefinition.getFlag(), classOfT);
+                } catch (Exception e) {
+                    logger.warn("warm up failed,module:{},class:{}", moduleDefinition.getKey(), classOfT.getName(), e);
+                }
+            }
+            if (preconnect) {
+                for (NodeDefinition node : moduleDefinition.getNodes()) {
+                    try {
+                        remoteTransport.preconnect(moduleDefinition, node);
+                    } catch (Exception e) {
+                        logger.warn("preconnect failed,module:{},uri:{}", moduleDefinition.getKey(), node.getUri(), e);
+                    }
+                }
+            }
+        }
+        logger.info("warm up finished,cost:{}ms", System.currentTimeMillis() - start);
+    }
+
+    RemoteMetricsRecorder getMetricsRecorder(ModuleDefinition moduleDefinition, String methodKey) {
+        String method = null == methodKey ? "" : methodKey;
+        ModuleMetricsRecorders recorders = metricsRecorders.get(moduleDefinition.getKey());
+        RemoteMetricsRecorder recorder = null == recorders ? null : recorders.get(method);
+        if (null != recorder) {
+            return recorder;
+        }
+        synchronized (metricsRecorders) {
+            int index = method.indexOf('#');
+            return metricsRecorders.computeIfAbsent(moduleDefinition.getKey(),
+                    key -> new ModuleMetricsRecorders(moduleDefinition.getModule(), moduleDefinition.getFlag()))
+                    .computeIfAbsent(method, key -> metricsRegistry.recorder(moduleDefinition.getModule(),
+                            moduleDefinition.getFlag(), 0 > index ? "" : method.substring(0, index), method.substring(index + 1)));
+        }
+    }
+
+    /**
+     * 移除不能再调用的module/flag的指标记录器
+     * (网关可以转发的module/flag保留)
+     *
+     * @param table 新的路由表
+     */
+    private void releaseMetricsRecorders(RoutingTable table) {
+        synchronized (metricsRecorders) {
+            Iterator<ModuleMetricsRecorders> iterator = metricsRecorders.values().iterator();
+            while (iterator.hasNext()) {
+                ModuleMetricsRecorders recorders = iterator.next();
+                if (!table.isRoutable(recorders.module + "-" + recorders.flag)) {
+                    iterator.remove();
+                    metricsRegistry.remove(recorders.module, recorders.flag);
                 }
             }
-        }, 3 * 1000L, 1000L, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    ResponseCache getResponseCache(String moduleKey, Class<?> classOfT, Method method, RemoteCacheable cacheable) {
+        ConcurrentHashMap<Method, ResponseCache> caches = responseCaches.get(moduleKey);
+        ResponseCache responseCache = null == caches ? null : caches.get(method);
+        if (null != responseCache) {
+            return responseCache;
+        }
+        return responseCaches.computeIfAbsent(moduleKey, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, key -> new ResponseCache(moduleKey + "#" + Feign.configKey(classOfT, method),
+                        cacheable.timeUnit().toNanos(cacheable.ttl()), cacheable.maxSize()));
+    }
+
+    @Override
+    public List<ResponseCacheStatistics> getResponseCacheStatistics() {
+        List<ResponseCacheStatistics> statistics = new ArrayList<>();
+        for (ConcurrentHashMap<Method, ResponseCache> caches : responseCaches.values()) {
+            for (ResponseCache responseCache : caches.values()) {
+                statistics.add(responseCache.statistics());
+            }
+        }
+        return statistics;
     }
 
     /**
-     * 设置扫描周期
-     * <p>
-     * 单位 秒
-     * (默认 30s)
+     * module/flag下有节点下线时清空其结果缓存，module/flag已不在路由表中时移除其结果缓存
      *
-     * @param seconds 扫描间隔
+     * @param previous 扫描前的路由表
+     * @param current  扫描后的路由表
+     * @param changedModuleKeys 发生变化的module/flag
      */
+    private void invalidateResponseCaches(RoutingTable previous, RoutingTable current, Set<String> changedModuleKeys) {
+        for (String moduleKey : changedModuleKeys) {
+            ConcurrentHashMap<Method, ResponseCache> caches = responseCaches.get(moduleKey);
+            ModuleDefinition before = previous.get(moduleKey);
+            if (null == caches || null == before) {
+                continue;
+            }
+            ModuleDefinition after = current.get(moduleKey);
+            Set<String> uris = new HashSet<>();
+            if (null != after) {
+                for (NodeDefinition node : after.getNodes()) {
+                    uris.add(node.getUri());
+                }
+            }
+            for (NodeDefinition node : before.getNodes()) {
+                if (!uris.contains(node.getUri())) {
+                    caches.values().forEach(ResponseCache::invalidate);
+                    break;
+                }
+            }
+            if (null == after) {
+                responseCaches.remove(moduleKey, caches);
+            }
+        }
+    }
+
+    @PreDestroy
+    protected void destroy() {
+        scheduledExecutorService.shutdownNow();
+        warmUpExecutorService.shutdownNow();
+        synchronized (objectLock) {
+            if (null != scanFetchExecutorService) {
+                scanFetchExecutorService.shutdownNow();
+            }
+        }
+        remoteTransport.close();
+        if (defaultAsyncExecutor && null != asyncExecutor) {
+            asyncExecutor.shutdown();
+        }
+    }
+
+    RemoteTransport getRemoteTransport() {
+        return remoteTransport;
+    }
+
+    LoadBalancer getLoadBalancer() {
+        return loadBalancer;
+    }
+
+    ConsistentHashRouter getConsistentHashRouter() {
+        return consistentHashRouter;
+    }
+
+    Client getTransportClient() {
+        return transportClient;
+    }
+
     @Override
-    public void setScanPeriod(int seconds) {
-        this.scanPeriod = Math.abs(seconds);
+    public RoutingTable getRoutingTable() {
+        return routingTable;
+    }
+
+    /**
+     * 获取module/flag定义
+     * (没有可直接调用的节点时使用网关转发的定义)
+     *
+     * @param moduleKey ${module}-${flag}
+     * @param module    模块名称
+     * @param flag      flag
+     * @return 模块定义 / null
+     */
+    ModuleDefinition getModuleDefinition(String moduleKey, String module, String flag) {
+        RoutingTable table = routingTable;
+        ModuleDefinition moduleDefinition = table.get(moduleKey);
+        if (null != moduleDefinition) {
+            return moduleDefinition;
+        }
+        return table.getGatewayRoute(moduleKey, module, flag, defaultModule);
+    }
+
+    /**
+     * 发现客户端刷新本地注册信息后提前扫描
+     * <p>
+     * 心跳值的含义取决于发现客户端：Consul为注册信息的索引(未变化时不变)，
+     * Eureka为本地缓存的刷新计数(每次拉取都会变化，与注册信息是否变化无关)，
+     * 因此心跳只用于提前下一次扫描，扫描本身仍拉取全部服务的实例并逐个比较，只重建发生变化的module/flag；
+     * 扫描关闭(扫描周期为0)时忽略心跳，多次心跳合并为一次扫描，
+     * 距上一次扫描开始不足最短间隔时推迟，定时扫描会在此之前开始时不另行扫描
+     *
+     * @param event 心跳事件
+     */
+    @EventListener
+    public void onHeartbeat(HeartbeatEvent event) {
+        if (0 >= scanPeriod) {
+            return;
+        }
+        Object value = event.getValue();
+        if (Objects.equals(value, lastHeartbeat)) {
+            return;
+        }
+        lastHeartbeat = value;
+        long now = System.nanoTime();
+        lastHeartbeatNanos = now;
+        long delayMillis = Math.max(HEARTBEAT_DEBOUNCE_MILLIS,
+                HEARTBEAT_MIN_SCAN_INTERVAL_MILLIS - TimeUnit.NANOSECONDS.toMillis(now - lastScanStartNanos));
+        if (nextScanNanos - (now + TimeUnit.MILLISECONDS.toNanos(delayMillis)) <= 0) {
+            return;
+        }
+        if (!heartbeatScanPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduledExecutorService.schedule(() -> {
+                heartbeatScanPending.set(false);
+                /* 最近一次心跳之后已开始过扫描时不再重复 */
+                if (0 < scanPeriod && lastScanStartNanos - lastHeartbeatNanos < 0) {
+                    refreshModules();
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            heartbeatScanPending.set(false);
+        }
+    }
+
+    void refreshModules() {
+        try {
+            scanModules();
+        } catch (Exception e) {
+            logger.error("scan modules failed", e);
+        }
     }
 
     /**
      * 扫描注册在Eureka上面的模块服务
+     * <p>
+     * 并行拉取各服务的实例(跳过已知没有node.module元数据的服务)，
+     * 与上一次扫描的结果逐个服务比较，只重建发生变化的module/flag定义，
+     * 未变化的定义直接复用，最终以新的路由表整体替换
      */
     private void scanModules() {
-        Set<ModuleDefinition> moduleDefinitions = new HashSet<>();
-        List<String> services = discoveryClient.getServices();
-        /* 扫描Eureka的注册节点情况，获取相应的模块节点定义 */
-        Set<String> serviceURIs = new HashSet<>();
+        synchronized (objectLock) {
+            long start = System.nanoTime();
+            lastScanStartNanos = start;
+            List<String> services = discoveryClient.getServices();
+            if (null == services || services.isEmpty()) {
+                return;
+            }
+            scanSequence++;
+            proxyCache.releaseUnreachable();
+            unmarkedServices.keySet().retainAll(services);
+            List<String> fetching = new ArrayList<>(services.size());
+            for (String service : services) {
+                Long recheckAt = unmarkedServices.get(service);
+                if (null == recheckAt || recheckAt <= scanSequence) {
+                    fetching.add(service);
+                }
+            }
+            Map<String, List<ServiceInstance>> instances = fetchInstances(fetching);
+            try {
+                refreshRoutingTable(services, instances);
+                writeSnapshot();
+            } finally {
+                long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                maxScanDurationMillis = Math.max(maxScanDurationMillis, duration);
+                scanFailureCount += fetching.size() - instances.size();
+                scanStatistics = new ScanStatistics(scanSequence, duration, maxScanDurationMillis,
+                        services.size(), fetching.size(), services.size() - fetching.size(), scanFailureCount);
+            }
+        }
+    }
+
+    /**
+     * 拉取服务实例
+     * (仅在扫描锁内调用)
+     *
+     * @param services 需要拉取的服务
+     * @return key 服务名称 value 实例(超时或失败的服务不在其中)
+     */
+    private Map<String, List<ServiceInstance>> fetchInstances(List<String> services) {
+        Map<String, List<ServiceInstance>> instances = new HashMap<>();
+        if (1 >= scanParallelism || 1 >= services.size()) {
+            for (String service : services) {
+                try {
+                    List<ServiceInstance> serviceInstances = discoveryClient.getInstances(service);
+                    if (null != serviceInstances) {
+                        instances.put(service, serviceInstances);
+                    }
+                } catch (Exception e) {
+                    logger.warn("fetch instances failed,service:{}", service, e);
+                }
+            }
+            return instances;
+        }
+        if (null == scanFetchExecutorService) {
+            AtomicInteger sequence = new AtomicInteger();
+            scanFetchExecutorService = Executors.newFixedThreadPool(scanParallelism, runnable -> {
+                Thread thread = new Thread(runnable, "isomerism-feign-scan-fetch-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        Map<String, Future<List<ServiceInstance>>> futures = new LinkedHashMap<>();
+        for (String service : services) {
+            futures.put(service, scanFetchExecutorService.submit(() -> discoveryClient.getInstances(service)));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(scanTimeout);
+        for (Map.Entry<String, Future<List<ServiceInstance>>> future : futures.entrySet()) {
+            try {
+                List<ServiceInstance> serviceInstances = future.getValue().get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (null != serviceInstances) {
+                    instances.put(future.getKey(), serviceInstances);
+                }
+            } catch (TimeoutException e) {
+                future.getValue().cancel(true);
+                logger.warn("fetch instances timeout,service:{}", future.getKey());
+            } catch (ExecutionException e) {
+                logger.warn("fetch instances failed,service:{}", future.getKey(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.values().forEach(next -> next.cancel(true));
+                break;
+            }
+        }
+        return instances;
+    }
+
+    /**
+     * 由拉取的实例更新路由表
+     * (仅在扫描锁内调用)
+     *
+     * @param services  注册中心的全部服务
+     * @param instances 本次拉取的实例(未拉取的服务沿用上一次扫描的结果)
+     */
+    private void refreshRoutingTable(List<String> services, Map<String, List<ServiceInstance>> instances) {
+        /* 扫描Eureka的注册节点情况，收集发生变化的module/flag */
+        Set<String> changedModuleKeys = new HashSet<>();
         for (String service : services) {
-            List<ServiceInstance> instances = discoveryClient.getInstances(service);
-            for (ServiceInstance serviceInstance : instances) {
-                String nodeModule = serviceInstance.getMetadata().get(ModuleDefinition.FIELD_NODE_MODULE);
-                String nodePrjkey = serviceInstance.getMetadata().get(ModuleDefinition.FIELD_NODE_FLAG);
-                /* 三个字段不齐全不能通过这里进行实例化 */
-                if (StringUtils.isEmpty(nodeModule) || StringUtils.isEmpty(nodePrjkey)) {
+            List<ServiceInstance> serviceInstances = instances.get(service);
+            if (null == serviceInstances) {
+                continue;
+            }
+            Set<ServiceInstanceRecord> records = Collections.emptySet();
+            for (ServiceInstance serviceInstance : serviceInstances) {
+                ServiceInstanceRecord record = ServiceInstanceRecord.of(serviceInstance);
+                /* 两个字段不齐全不能通过这里进行实例化 */
+                if (null == record) {
                     continue;
                 }
-                boolean sameModule = defaultModule.equalsIgnoreCase(nodeModule);
-                ModuleDefinition moduleClientDefinition = new ModuleDefinition();
-                moduleClientDefinition.setFlag(nodePrjkey.toUpperCase());
-                moduleClientDefinition.setModule(nodeModule.toUpperCase());
-                moduleClientDefinition.setUri(String.valueOf(serviceInstance.getUri()));
-                moduleClientDefinition.setSameModule(sameModule);
-                moduleDefinitions.add(moduleClientDefinition);
-                serviceURIs.add(String.valueOf(serviceInstance.getUri()));
-            }
-        }
-        if (!moduleDefinitions.isEmpty()) {
-            synchronized (objectLock) {
-                this.moduleClientDefinitions.clear();
-                for (ModuleDefinition moduleDefinition : moduleDefinitions) {
-                    String definitionKey = moduleDefinition.getModule() + "-" + moduleDefinition.getPrjKey();
-                    this.moduleClientDefinitions.put(definitionKey, moduleDefinition);
+                if (records.isEmpty()) {
+                    records = new HashSet<>();
                 }
+                records.add(record);
+            }
+            if (records.isEmpty()) {
+                unmarkedServices.put(service, scanSequence + UNMARKED_RECHECK_SCANS);
+            } else {
+                unmarkedServices.remove(service);
+            }
+            Set<ServiceInstanceRecord> previous = serviceSnapshots.getOrDefault(service, Collections.emptySet());
+            if (records.equals(previous)) {
+                continue;
+            }
+            collectModuleKeys(previous, changedModuleKeys);
+            collectModuleKeys(records, changedModuleKeys);
+            if (records.isEmpty()) {
+                serviceSnapshots.remove(service);
+            } else {
+                serviceSnapshots.put(service, records);
             }
         }
-        cleanServiceInstances(serviceURIs);
+        Iterator<Map.Entry<String, Set<ServiceInstanceRecord>>> iterator = serviceSnapshots.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Set<ServiceInstanceRecord>> next = iterator.next();
+            if (!services.contains(next.getKey())) {
+                collectModuleKeys(next.getValue(), changedModuleKeys);
+                iterator.remove();
+            }
+        }
+        if (changedModuleKeys.isEmpty()) {
+            return;
+        }
+        rebuildRoutingTable(changedModuleKeys);
     }
 
-    protected void cleanServiceInstances(Set<String> serviceURIs) {
-        //检查已经初始化的模块实例(移除失效的uri)
-        if (!remoteServiceCaches.isEmpty()) {
-            remoteServiceCaches.entrySet().removeIf(next -> !serviceURIs.contains(next.getValue().getUri()));
+    /**
+     * 由各服务的实例重建发生变化的module/flag并替换路由表
+     * (仅在扫描锁内调用)
+     *
+     * @param changedModuleKeys 发生变化的module/flag
+     */
+    private void rebuildRoutingTable(Set<String> changedModuleKeys) {
+        /* 仅重建发生变化的module/flag */
+        Map<String, ModuleDefinition> moduleDefinitions = new HashMap<>(routingTable.getModuleDefinitions());
+        moduleDefinitions.keySet().removeAll(changedModuleKeys);
+        Map<String, ModuleDefinition> rebuilt = new HashMap<>();
+        for (Set<ServiceInstanceRecord> records : serviceSnapshots.values()) {
+            for (ServiceInstanceRecord record : records) {
+                String definitionKey = record.getModuleKey();
+                if (NodeType.GATEWAY == record.getNodeType() || !changedModuleKeys.contains(definitionKey)) {
+                    continue;
+                }
+                ModuleDefinition moduleClientDefinition = rebuilt.get(definitionKey);
+                if (null == moduleClientDefinition) {
+                    moduleClientDefinition = new ModuleDefinition();
+                    moduleClientDefinition.setFlag(record.getFlag());
+                    moduleClientDefinition.setModule(record.getModule());
+                    moduleClientDefinition.setUri(record.getUri());
+                    moduleClientDefinition.setSameModule(defaultModule.equalsIgnoreCase(record.getModule()));
+                    rebuilt.put(definitionKey, moduleClientDefinition);
+                }
+                /* 同一module/flag的多个实例全部保留，由负载均衡策略在调用时选择 */
+                NodeStatistics statistics = nodeStatistics.computeIfAbsent(record.getUri(), NodeStatistics::new);
+                moduleClientDefinition.getNodes().add(new NodeDefinition(record.getInstanceId(), record.getUri(), record.getZone(), statistics));
+            }
+        }
+        for (ModuleDefinition moduleDefinition : rebuilt.values()) {
+            moduleDefinition.setNodes(Collections.unmodifiableList(moduleDefinition.getNodes()));
+        }
+        moduleDefinitions.putAll(rebuilt);
+        List<GatewayDefinition> gateways = routingTable.getGateways();
+        if (changedModuleKeys.contains(ServiceInstanceRecord.GATEWAY_KEY)) {
+            gateways = buildGateways();
         }
-        if (!customRemoteServiceCaches.isEmpty()) {
-            customRemoteServiceCaches.entrySet().removeIf(next -> !serviceURIs.contains(next.getValue().getUri()));
+        RoutingTable previous = this.routingTable;
+        RoutingTable table = new RoutingTable(previous.getVersion() + 1, moduleDefinitions, gateways);
+        this.routingTable = table;
+        invalidateResponseCaches(previous, table, changedModuleKeys);
+        logger.info("routing table refreshed,version:{},changed:{}", table.getVersion(), changedModuleKeys);
+        nodeStatistics.keySet().retainAll(table.getServiceURIs());
+        try {
+            remoteTransport.onRoutingTableChanged(table);
+        } catch (Exception e) {
+            logger.warn("release transport resources failed,version:{}", table.getVersion(), e);
         }
+        try {
+            loadBalancer.onRoutingTableChanged(table);
+        } catch (Exception e) {
+            logger.warn("release load balancer state failed,version:{}", table.getVersion(), e);
+        }
+        releaseConcurrencyLimiters(table);
+        releaseMetricsRecorders(table);
+        releaseModuleSemaphores(table);
+        List<ModuleDefinition> changed = new ArrayList<>();
+        for (String moduleKey : changedModuleKeys) {
+            ModuleDefinition moduleDefinition = table.get(moduleKey);
+            if (null != moduleDefinition) {
+                changed.add(moduleDefinition);
+            }
+        }
+        warmUp(changed);
     }
 
-    @Override
-    public <T> T constructRemoteServiceInstance(String service, String flag, Class<T> classOfT, Decoder decoder, Encoder encoder) {
-        return constructRemoteServiceInstance(service, flag, classOfT, decoder, encoder, new ErrorDecoder.Default());
+    /**
+     * 由本地快照恢复路由表
+     * <p>
+     * 启动时及设置快照文件时调用，仅在尚未完成过扫描且尚未恢复过时使用，快照的写入时间超过最长有效时间时不使用；
+     * 之后的扫描与恢复的实例比较，只重建发生变化的module/flag
+     */
+    private void loadSnapshot() {
+        Path path = this.snapshotPath;
+        if (null == path) {
+            return;
+        }
+        synchronized (objectLock) {
+            if (0L != scanSequence || !serviceSnapshots.isEmpty()) {
+                return;
+            }
+            RoutingSnapshot snapshot;
+            try {
+                snapshot = RoutingSnapshot.read(path);
+            } catch (Exception e) {
+                logger.warn("read routing snapshot failed,path:{}", path, e);
+                return;
+            }
+            if (null == snapshot) {
+                logger.info("routing snapshot unavailable,path:{}", path);
+                return;
+            }
+            long age = System.currentTimeMillis() - snapshot.getWrittenAt();
+            if (TimeUnit.SECONDS.toMillis(snapshotMaxAge) < age) {
+                logger.warn("routing snapshot expired,path:{},age:{}ms", path, age);
+                return;
+            }
+            Set<String> changedModuleKeys = new HashSet<>();
+            for (Map.Entry<String, Set<ServiceInstanceRecord>> entry : snapshot.getServiceSnapshots().entrySet()) {
+                serviceSnapshots.put(entry.getKey(), entry.getValue());
+                collectModuleKeys(entry.getValue(), changedModuleKeys);
+            }
+            if (!changedModuleKeys.isEmpty()) {
+                rebuildRoutingTable(changedModuleKeys);
+            }
+            logger.info("routing table restored from snapshot,path:{},age:{}ms,modules:{}", path, age,
+                    routingTable.getModuleDefinitions().size());
+        }
     }
 
     /**
-     * 尝试构造实例
-     *
-     * @param service  对应的模块名称
-     * @param flag     flag
-     * @param classOfT 接口的Class
-     * @param <T>      接口的类
-     * @return 成功: RemoteServiceDefinition 失败 null
+     * 保存路由表快照
+     * (仅在扫描锁内调用)
      */
-    @SuppressWarnings("unchecked")
-    private <T> RemoteServiceDefinition<T> constructInstance(String service, String flag, Class<T> classOfT) {
-        /*
-         * 检查模块接口定义存在是否存在
-         */
-        String moduleCacheKey = service + "-" + flag;
-        ModuleDefinition moduleDefinition = moduleClientDefinitions.get(moduleCacheKey);
-        if (null == moduleDefinition) {
-            return null;
-        }
-        String serviceCacheKey = service + "-" + flag + classOfT.getName();
-        T remoteService = constructRemoteServiceInstance(service, flag, classOfT, new SpringDecoder(messageConverters), new SpringEncoder(messageConverters), new ErrorDecoder.Default());
-        if (null == remoteService) {
-            return null;
+    private void writeSnapshot() {
+        Path path = this.snapshotPath;
+        if (null == path) {
+            return;
         }
-        RemoteServiceDefinition<T> tRemoteServiceDefinition = RemoteServiceDefinition.buildCustomed(service, flag, classOfT, System.currentTimeMillis(), moduleDefinition.getUri(), remoteService);
-        /*
-         * 再次检查在初始化期间是否有其他实例生成
-         */
-        RemoteServiceDefinition<T> remoteServiceDefinition = (RemoteServiceDefinition<T>) remoteServiceCaches.get(serviceCacheKey);
-        if (null != remoteServiceDefinition) {
-            return remoteServiceDefinition;
+        try {
+            RoutingSnapshot.write(path, serviceSnapshots);
+        } catch (Exception e) {
+            logger.warn("write routing snapshot failed,path:{}", path, e);
         }
-        synchronized (remoteServiceCaches) {
-            remoteServiceDefinition = (RemoteServiceDefinition<T>) remoteServiceCaches.get(serviceCacheKey);
-            if (null != remoteServiceDefinition) {
-                return remoteServiceDefinition;
+    }
+
+    /**
+     * 由扫描记录构造网关节点
+     * (仅在扫描锁内调用)
+     */
+    private List<GatewayDefinition> buildGateways() {
+        List<GatewayDefinition> gateways = new ArrayList<>();
+        for (Set<ServiceInstanceRecord> records : serviceSnapshots.values()) {
+            for (ServiceInstanceRecord record : records) {
+                if (NodeType.GATEWAY != record.getNodeType()) {
+                    continue;
+                }
+                Set<String> modules = new HashSet<>();
+                if (!StringUtils.isEmpty(record.getGatewayModules())) {
+                    for (String module : record.getGatewayModules().split(",")) {
+                        if (!module.trim().isEmpty()) {
+                            modules.add(module.trim());
+                        }
+                    }
+                }
+                NodeStatistics statistics = nodeStatistics.computeIfAbsent(record.getUri(), NodeStatistics::new);
+                gateways.add(new GatewayDefinition(record.getModule(), Collections.unmodifiableSet(modules),
+                        new NodeDefinition(record.getInstanceId(), record.getUri(), record.getZone(), statistics)));
             }
-            remoteServiceCaches.put(serviceCacheKey, tRemoteServiceDefinition);
-            return tRemoteServiceDefinition;
+        }
+        return gateways;
+    }
+
+    private void collectModuleKeys(Set<ServiceInstanceRecord> records, Set<String> moduleKeys) {
+        for (ServiceInstanceRecord record : records) {
+            moduleKeys.add(record.getModuleKey());
         }
     }
 
-    private String getServiceCacheKey(String module, String flag, Class<?> classOfT) {
-        return module + "-" + flag + classOfT.getName();
+    @Override
+    public <T> T constructRemoteServiceInstance(String service, String flag, Class<T> classOfT, Decoder decoder, Encoder encoder) {
+        return constructRemoteServiceInstance(service, flag, classOfT, decoder, encoder, new ErrorDecoder.Default());
     }
 
     @Override
@@ -204,20 +1376,20 @@ public abstract class AbstractRemoteServiceFeignFactory
         if (StringUtils.isEmpty(module) || StringUtils.isEmpty(flag)) {
             return null;
         }
-        module = module.toUpperCase();
-        flag = flag.toUpperCase();
-        //检查远端接口存照是否存在对应的接口实例
-        String cacheKey = getServiceCacheKey(module, flag, classOfT);
-        RemoteServiceDefinition<?> remoteServiceDefinition = remoteServiceCaches.get(cacheKey);
-        if (null != remoteServiceDefinition) {
-            return (T) remoteServiceDefinition.getService();
+        //快速查找表命中则直接返回(不做大小写转换及key拼接)
+        ProxyCache.Entry entry = remoteServiceLookup.get(classOfT, module, flag);
+        if (null != entry) {
+            proxyCache.touch(entry);
+            return (T) entry.getDefinition().getService();
         }
-        //远端接口存照不存在，则尝试实例化
-        RemoteServiceDefinition<T> tRemoteServiceDefinition = constructInstance(module, flag, classOfT);
-        if (null != tRemoteServiceDefinition) {
-            return tRemoteServiceDefinition.getService();
+        //检查远端接口存照是否存在对应的接口实例，不存在则尝试实例化
+        entry = getProxyEntry(module.toUpperCase(), flag.toUpperCase(), classOfT,
+                new SpringDecoder(messageConverters), new SpringEncoder(messageConverters), new ErrorDecoder.Default());
+        if (null == entry) {
+            return null;
         }
-        return null;
+        remoteServiceLookup.put(classOfT, module, flag, entry);
+        return (T) entry.getDefinition().getService();
     }
 
     private void checkDefault() throws Exception {
@@ -239,10 +1411,100 @@ public abstract class AbstractRemoteServiceFeignFactory
         return getRemoteServiceInstance(module, defaultFlag, classOfT);
     }
 
+    @Override
+    public <T> T getAsyncRemoteServiceInstance(String module, String flag, Class<T> classOfT) {
+        if (!RemoteServiceInvocationHandler.isAsync(classOfT)) {
+            throw new IllegalArgumentException(classOfT.getName() + " declares no method returning CompletableFuture");
+        }
+        return getRemoteServiceInstance(module, flag, classOfT);
+    }
+
+    @Override
+    public <T, R> BroadcastResult<R> broadcast(String module, Class<T> classOfT, Function<? super T, ? extends R> invocation,
+                                               long timeout, TimeUnit unit) {
+        if (StringUtils.isEmpty(module)) {
+            throw new IllegalArgumentException("broadcast module is empty");
+        }
+        if (null == classOfT || null == invocation || null == unit) {
+            throw new IllegalArgumentException("broadcast classOfT, invocation and unit are required,module:" + module);
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        String normalizedModule = module.toUpperCase();
+        List<String> flags = new ArrayList<>();
+        for (ModuleDefinition moduleDefinition : routingTable.getModuleDefinitions().values()) {
+            if (normalizedModule.equals(moduleDefinition.getModule())) {
+                flags.add(moduleDefinition.getFlag());
+            }
+        }
+        Collections.sort(flags);
+        Map<String, R> results = new LinkedHashMap<>();
+        Map<String, Throwable> errors = new LinkedHashMap<>();
+        /* 各flag并行调用，最终耗时取决于最慢的flag(不超过截止时间) */
+        Executor executor = getAsyncExecutor();
+        Map<String, FutureTask<R>> tasks = new LinkedHashMap<>();
+        for (String flag : flags) {
+            FutureTask<R> task = new FutureTask<>(() -> {
+                T service = getRemoteServiceInstance(normalizedModule, flag, classOfT);
+                if (null == service) {
+                    throw new IllegalStateException("remote service unavailable,module:" + normalizedModule + ",flag:" + flag);
+                }
+                return invocation.apply(service);
+            });
+            try {
+                executor.execute(task);
+                tasks.put(flag, task);
+            } catch (RejectedExecutionException e) {
+                errors.put(flag, e);
+            }
+        }
+        boolean interrupted = false;
+        for (Map.Entry<String, FutureTask<R>> task : tasks.entrySet()) {
+            if (interrupted) {
+                task.getValue().cancel(true);
+                errors.put(task.getKey(), new InterruptedException("broadcast interrupted"));
+                continue;
+            }
+            try {
+                results.put(task.getKey(), task.getValue().get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                task.getValue().cancel(true);
+                errors.put(task.getKey(), new TimeoutException("broadcast deadline exceeded,module:" + normalizedModule + ",flag:" + task.getKey()));
+            } catch (ExecutionException e) {
+                errors.put(task.getKey(), e.getCause());
+            } catch (InterruptedException e) {
+                interrupted = true;
+                task.getValue().cancel(true);
+                errors.put(task.getKey(), e);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return new BroadcastResult<>(results, errors);
+    }
+
     protected <T> T constructInstance(Class<T> classOfT, Decoder decoder, Encoder encoder, ErrorDecoder errorDecoder, String url) {
+        return constructInstance(classOfT, decoder, encoder, errorDecoder, url, transportClient);
+    }
+
+    /**
+     * 构造远端代理
+     *
+     * @param classOfT     接口的Class
+     * @param decoder      解码器
+     * @param encoder      编码器
+     * @param errorDecoder 错误Decoder
+     * @param url          构造时使用的uri
+     * @param client       发送请求的Client
+     * @param <T>          接口的类
+     * @return proxy instance of T / null
+     */
+    protected <T> T constructInstance(Class<T> classOfT, Decoder decoder, Encoder encoder, ErrorDecoder errorDecoder, String url, Client client) {
         return Feign.builder()
-                .contract(new SpringMvcContract())
-                .decoder(null != decoder ? decoder : new SpringDecoder(messageConverters))
+                .client(client)
+                .retryer(retryer(client))
+                .contract(new RemoteServiceContract())
+                .decoder(new AsyncDecoder(null != decoder ? decoder : new SpringDecoder(messageConverters)))
                 .encoder(null != encoder ? encoder : new SpringEncoder(messageConverters))
                 .errorDecoder(errorDecoder)
                 .target(classOfT, url);
@@ -251,29 +1513,61 @@ public abstract class AbstractRemoteServiceFeignFactory
     @Override
     @SuppressWarnings("unchecked")
     public <T> T constructRemoteServiceInstance(String service, String flag, Class<T> classOfT, Decoder decoder, Encoder encoder, ErrorDecoder errorDecoder) {
+        ProxyCache.Entry entry = getProxyEntry(service, flag, classOfT, decoder, encoder, errorDecoder);
+        return null == entry ? null : (T) entry.getDefinition().getService();
+    }
+
+    /**
+     * 获取(或构造)代理缓存的条目
+     *
+     * @return 条目 / null(module/flag不存在)
+     */
+    private <T> ProxyCache.Entry getProxyEntry(String service, String flag, Class<T> classOfT, Decoder decoder, Encoder encoder, ErrorDecoder errorDecoder) {
         String moduleCacheKey = service + "-" + flag;
-        ModuleDefinition moduleDefinition = moduleClientDefinitions.get(moduleCacheKey);
-        if (null == moduleDefinition) {
-            return null;
-        }
         String instanceCacheKey = moduleCacheKey
-                + "-" + classOfT.getSimpleName()
-                + "-" + (null == encoder ? "" : decoder.getClass().getSimpleName())
+                + "-" + classOfT.getName()
+                + "-" + (null == decoder ? "" : decoder.getClass().getSimpleName())
                 + "-" + (null == encoder ? "" : encoder.getClass().getSimpleName())
                 + "-" + (null == errorDecoder ? "" : errorDecoder.getClass().getSimpleName());
-        RemoteServiceDefinition<?> remoteServiceDefinition = customRemoteServiceCaches.get(instanceCacheKey);
-        if (null != remoteServiceDefinition) {
+        ProxyCache.Entry entry = proxyCache.get(instanceCacheKey);
+        if (null != entry) {
             logger.info("fetch service from caches,cacheKey:{}", instanceCacheKey);
-            return (T) remoteServiceDefinition.getService();
+            return entry;
         }
-        T remoteService = constructInstance(classOfT, decoder, encoder, errorDecoder, moduleDefinition.getUri());
+        //模块定义不存在时不构造
+        ModuleDefinition moduleDefinition = getModuleDefinition(moduleCacheKey, service, flag);
+        if (null == moduleDefinition) {
+            return null;
+        }
+        /* 代理绑定固定的目标地址，节点由RemoteServiceClient在每次调用时从路由表解析 */
+        String url = RemoteServiceClient.targetUrl(service, flag);
+        RemoteServiceClient client = new RemoteServiceClient(this, service, flag, url);
+        T remoteService = constructInstance(classOfT, decoder, encoder, errorDecoder, url, client);
         if (null == remoteService) {
             return null;
         }
-        RemoteServiceDefinition<T> tRemoteServiceDefinition = RemoteServiceDefinition.buildCustomed(service, flag, classOfT, System.currentTimeMillis(), moduleDefinition.getUri(), remoteService);
-        customRemoteServiceCaches.put(instanceCacheKey, tRemoteServiceDefinition);
+        remoteService = RemoteServiceInvocationHandler.wrap(classOfT, remoteService, this, moduleCacheKey);
+        RemoteServiceDefinition<T> tRemoteServiceDefinition = RemoteServiceDefinition.buildCustomed(service, flag, classOfT, System.currentTimeMillis(), url, remoteService);
+        entry = proxyCache.putIfAbsent(instanceCacheKey, tRemoteServiceDefinition, weigh(classOfT), acquireResources(classOfT, url, client));
         logger.info("put service to caches,cacheKey:{}", instanceCacheKey);
-        return remoteService;
+        return entry;
+    }
+
+    /**
+     * module/flag下各方法的指标记录器
+     */
+    private static final class ModuleMetricsRecorders extends ConcurrentHashMap<String, RemoteMetricsRecorder> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String module;
+        private final String flag;
+
+        private ModuleMetricsRecorders(String module, String flag) {
+            this.module = module;
+            this.flag = flag;
+        }
+
     }
 
 }
@@ -0,0 +1,38 @@
+package com.page.isomerism.feign;
+
+import feign.FeignException;
+import feign.Response;
+import feign.codec.DecodeException;
+import feign.codec.Decoder;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步接口的Decoder
+ * <p>
+ * 接口方法声明为CompletableFuture&lt;T&gt;时按T解码，其余类型交由原Decoder处理
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+class AsyncDecoder implements Decoder {
+
+    private final Decoder delegate;
+
+    AsyncDecoder(Decoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException, DecodeException, FeignException {
+        if (type instanceof ParameterizedType
+                && CompletableFuture.class == ((ParameterizedType) type).getRawType()) {
+            type = ((ParameterizedType) type).getActualTypeArguments()[0];
+        }
+        return delegate.decode(response, type);
+    }
+
+}
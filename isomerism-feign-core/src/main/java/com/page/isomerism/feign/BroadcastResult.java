@@ -0,0 +1,57 @@
+package com.page.isomerism.feign;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 广播调用的结果
+ * <p>
+ * 按flag分别记录结果或异常，部分flag失败(或超过截止时间)不影响其他flag的结果
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class BroadcastResult<R> {
+
+    /**
+     * key flag
+     * value 调用结果
+     */
+    private final Map<String, R> results;
+    /**
+     * key flag
+     * value 调用异常(超过截止时间为TimeoutException)
+     */
+    private final Map<String, Throwable> errors;
+
+    public BroadcastResult(Map<String, R> results, Map<String, Throwable> errors) {
+        this.results = Collections.unmodifiableMap(results);
+        this.errors = Collections.unmodifiableMap(errors);
+    }
+
+    public Map<String, R> getResults() {
+        return results;
+    }
+
+    public Map<String, Throwable> getErrors() {
+        return errors;
+    }
+
+    /**
+     * 是否全部flag均调用成功
+     *
+     * @return true/false
+     */
+    public boolean isComplete() {
+        return errors.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BroadcastResult{" +
+                "results=" + results +
+                ", errors=" + errors +
+                '}';
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.page.isomerism.feign;
+
+/**
+ * module/flag的并发数超过当前上限时拒绝调用
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String moduleKey;
+    private final int limit;
+
+    public ConcurrencyLimitExceededException(String moduleKey, int limit) {
+        super("concurrency limit exceeded,module:" + moduleKey + ",limit:" + limit);
+        this.moduleKey = moduleKey;
+        this.limit = limit;
+    }
+
+    public String getModuleKey() {
+        return moduleKey;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.page.isomerism.feign;
+
+/**
+ * module/flag维度的并发限制
+ * <p>
+ * 每个module/flag一个实例，调用前获取许可，调用结束后带上耗时归还，
+ * 实现可依据耗时的变化动态调整允许的并发数
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public interface ConcurrencyLimiter {
+
+    /**
+     * 尝试获取许可
+     *
+     * @return 未超过当前并发上限时返回true
+     */
+    boolean tryAcquire();
+
+    /**
+     * 归还许可
+     *
+     * @param rttNanos 本次调用的耗时(纳秒)
+     * @param dropped  本次调用是否因过载失败(超时/连接异常/429/503)
+     */
+    void release(long rttNanos, boolean dropped);
+
+    /**
+     * @return 当前的并发上限
+     */
+    int getLimit();
+
+    /**
+     * @return 进行中的调用数
+     */
+    int getInFlight();
+
+}
@@ -0,0 +1,71 @@
+package com.page.isomerism.feign;
+
+/**
+ * 连接池统计
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class ConnectionPoolStatistics {
+
+    /**
+     * 节点的调用uri
+     */
+    private final String uri;
+    /**
+     * 使用中的连接数
+     */
+    private final int leased;
+    /**
+     * 等待连接的请求数
+     */
+    private final int pending;
+    /**
+     * 空闲的连接数
+     */
+    private final int available;
+    /**
+     * 最大连接数
+     */
+    private final int max;
+
+    public ConnectionPoolStatistics(String uri, int leased, int pending, int available, int max) {
+        this.uri = uri;
+        this.leased = leased;
+        this.pending = pending;
+        this.available = available;
+        this.max = max;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public int getLeased() {
+        return leased;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolStatistics{" +
+                "uri='" + uri + '\'' +
+                ", leased=" + leased +
+                ", pending=" + pending +
+                ", available=" + available +
+                ", max=" + max +
+                '}';
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.page.isomerism.feign;
+
+import java.util.List;
+
+/**
+ * 一致性哈希路由
+ * <p>
+ * 采用rendezvous hashing：对每个节点计算 hash(key, 节点标识) 并选择得分最高的节点，
+ * 节点下线时只有原先落在该节点上的key改变节点，节点上线时只有改为落在新节点上的key改变节点；
+ * 节点标识为instanceId(为空时为uri)。
+ * <p>
+ * 有界负载：节点进行中的请求数达到 ceil(loadFactor * (进行中请求总数 + 1) / 节点数) 时，
+ * 按得分从高到低顺延到下一个未满的节点，避免热点key压垮单个节点
+ * (进行中请求数为本进程的统计)
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+final class ConsistentHashRouter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * 负载上限系数
+     * (不大于0时不限制负载)
+     */
+    private volatile double loadFactor;
+
+    ConsistentHashRouter(double loadFactor) {
+        this.loadFactor = loadFactor;
+    }
+
+    double getLoadFactor() {
+        return loadFactor;
+    }
+
+    void setLoadFactor(double loadFactor) {
+        this.loadFactor = loadFactor;
+    }
+
+    /**
+     * 以key固定选择节点的负载均衡策略
+     * (用于一次调用内的重试及对冲)
+     *
+     * @param key 路由key
+     * @return 负载均衡策略
+     */
+    LoadBalancer forKey(String key) {
+        return (moduleDefinition, nodes) -> choose(key, nodes);
+    }
+
+    /**
+     * 选择key对应的节点
+     *
+     * @param key   路由key
+     * @param nodes 可选的节点(不为空)
+     * @return 选中的节点
+     */
+    NodeDefinition choose(String key, List<NodeDefinition> nodes) {
+        int size = nodes.size();
+        if (1 == size) {
+            return nodes.get(0);
+        }
+        long keyHash = hash(key);
+        long[] scores = new long[size];
+        int best = 0;
+        long totalActive = 0L;
+        for (int i = 0; i < size; i++) {
+            NodeDefinition node = nodes.get(i);
+            scores[i] = mix(keyHash ^ hash(null == node.getInstanceId() ? node.getUri() : node.getInstanceId()));
+            totalActive += node.getStatistics().getActiveRequests();
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        double loadFactor = this.loadFactor;
+        if (0 >= loadFactor) {
+            return nodes.get(best);
+        }
+        long capacity = (long) Math.ceil(loadFactor * (totalActive + 1) / size);
+        boolean[] visited = new boolean[size];
+        for (int candidate = best; ; ) {
+            if (nodes.get(candidate).getStatistics().getActiveRequests() < capacity) {
+                return nodes.get(candidate);
+            }
+            visited[candidate] = true;
+            candidate = -1;
+            for (int i = 0; i < size; i++) {
+                if (!visited[i] && (0 > candidate || scores[i] > scores[candidate])) {
+                    candidate = i;
+                }
+            }
+            /* 统计在比较过程中变化导致全部节点已满时仍使用得分最高的节点 */
+            if (0 > candidate) {
+                return nodes.get(best);
+            }
+        }
+    }
+
+    /**
+     * FNV-1a
+     */
+    private static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0, length = value.length(); i < length; i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * murmur3 fmix64
+     * (使key与节点标识的每一位都影响得分)
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+}
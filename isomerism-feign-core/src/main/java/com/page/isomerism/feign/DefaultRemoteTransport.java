@@ -0,0 +1,26 @@
+package com.page.isomerism.feign;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+
+/**
+ * 默认的传输层
+ * <p>
+ * 使用Feign默认的HttpURLConnection Client
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class DefaultRemoteTransport implements RemoteTransport {
+
+    private final Client client = new Client.Default(null, null);
+
+    @Override
+    public Response execute(Request request, Request.Options options, ModuleDefinition moduleDefinition, NodeDefinition node) throws IOException {
+        return client.execute(request, options);
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.page.isomerism.feign;
+
+import java.util.Set;
+
+/**
+ * 网关节点定义
+ * <p>
+ * 注册元数据中node.type为GATEWAY的实例，
+ * 用于转发没有可直接调用节点的module/flag的请求
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class GatewayDefinition {
+
+    /**
+     * 网关所在的模块
+     */
+    private final String module;
+    /**
+     * 可转发的模块(为空时可转发全部模块)
+     */
+    private final Set<String> modules;
+    /**
+     * 网关节点
+     */
+    private final NodeDefinition node;
+
+    public GatewayDefinition(String module, Set<String> modules, NodeDefinition node) {
+        this.module = module;
+        this.modules = modules;
+        this.node = node;
+    }
+
+    public String getModule() {
+        return module;
+    }
+
+    public Set<String> getModules() {
+        return modules;
+    }
+
+    public NodeDefinition getNode() {
+        return node;
+    }
+
+    /**
+     * @param module 目标模块(大写)
+     * @return 是否可转发到目标模块
+     */
+    public boolean canReach(String module) {
+        return modules.isEmpty() || modules.contains(module);
+    }
+
+}
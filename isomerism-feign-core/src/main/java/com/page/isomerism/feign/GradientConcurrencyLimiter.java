@@ -0,0 +1,185 @@
+package com.page.isomerism.feign;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 基于耗时梯度的自适应并发限制
+ * <p>
+ * 按采样窗口统计平均耗时(短期)，并维护其指数平滑值(长期)，
+ * 新上限 = 上限 * min(1, 容忍系数 * 长期耗时 / 短期耗时) + sqrt(上限)，
+ * 即耗时上升时收缩、耗时平稳时缓慢增长，出现过载失败时按比例下调
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class GradientConcurrencyLimiter implements ConcurrencyLimiter {
+
+    /**
+     * 采样窗口的最短时间
+     */
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    /**
+     * 采样窗口的最少样本数
+     */
+    private static final int WINDOW_MIN_SAMPLES = 10;
+    /**
+     * 长期耗时的平滑系数
+     */
+    private static final double LONG_RTT_SMOOTHING = 0.05;
+    /**
+     * 上限变化的平滑系数
+     */
+    private static final double LIMIT_SMOOTHING = 0.2;
+    /**
+     * 可容忍的耗时上升倍数
+     */
+    private static final double RTT_TOLERANCE = 1.5;
+    /**
+     * 过载失败时上限的下调比例
+     */
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    /**
+     * 纳秒时钟
+     */
+    private final LongSupplier clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private volatile int permits;
+    private double longRtt;
+
+    private final AtomicBoolean updating = new AtomicBoolean();
+    private volatile long windowStart;
+    private final LongAdder windowRtt = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+    private volatile boolean windowDropped;
+
+    public GradientConcurrencyLimiter() {
+        this(20, 1, 200);
+    }
+
+    /**
+     * @param initialLimit 初始并发上限
+     * @param minLimit     最小并发上限
+     * @param maxLimit     最大并发上限
+     */
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, System::nanoTime);
+    }
+
+    /**
+     * @param initialLimit 初始并发上限
+     * @param minLimit     最小并发上限
+     * @param maxLimit     最大并发上限
+     * @param clock        纳秒时钟
+     */
+    GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, LongSupplier clock) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.permits = (int) this.limit;
+        this.clock = clock;
+        this.windowStart = clock.getAsLong();
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        for (; ; ) {
+            int current = inFlight.get();
+            if (current >= permits) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                if (current + 1 > windowMaxInFlight.get()) {
+                    windowMaxInFlight.accumulateAndGet(current + 1, Math::max);
+                }
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void release(long rttNanos, boolean dropped) {
+        inFlight.decrementAndGet();
+        if (dropped) {
+            windowDropped = true;
+        } else {
+            windowRtt.add(rttNanos);
+            windowSamples.increment();
+        }
+        long now = clock.getAsLong();
+        if (now - windowStart < WINDOW_NANOS || (!windowDropped && windowSamples.sum() < WINDOW_MIN_SAMPLES)) {
+            return;
+        }
+        if (updating.compareAndSet(false, true)) {
+            try {
+                update(now);
+            } finally {
+                updating.set(false);
+            }
+        }
+    }
+
+    private void update(long now) {
+        long samples = windowSamples.sumThenReset();
+        long rtt = windowRtt.sumThenReset();
+        int maxInFlight = windowMaxInFlight.getAndSet(inFlight.get());
+        boolean dropped = windowDropped;
+        windowDropped = false;
+        windowStart = now;
+        double current = limit;
+        double next;
+        if (dropped) {
+            next = current * BACKOFF_RATIO;
+        } else {
+            if (0 == samples) {
+                return;
+            }
+            double shortRtt = (double) rtt / samples;
+            longRtt = 0 == longRtt ? shortRtt : longRtt * (1 - LONG_RTT_SMOOTHING) + shortRtt * LONG_RTT_SMOOTHING;
+            /* 负载下降后长期耗时明显偏高时加速回落 */
+            if (longRtt > shortRtt * 2) {
+                longRtt *= 0.95;
+            }
+            /* 实际并发远低于上限时不继续放大 */
+            if (maxInFlight < current / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRtt / shortRtt));
+            next = current * gradient + Math.sqrt(current);
+        }
+        next = current * (1 - LIMIT_SMOOTHING) + next * LIMIT_SMOOTHING;
+        next = Math.min(maxLimit, Math.max(minLimit, next));
+        limit = next;
+        permits = (int) next;
+    }
+
+    @Override
+    public int getLimit() {
+        return permits;
+    }
+
+    @Override
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public String toString() {
+        return "GradientConcurrencyLimiter{" +
+                "limit=" + permits +
+                ", inFlight=" + inFlight.get() +
+                ", minLimit=" + minLimit +
+                ", maxLimit=" + maxLimit +
+                '}';
+    }
+
+}
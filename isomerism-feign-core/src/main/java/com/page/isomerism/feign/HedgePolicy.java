@@ -0,0 +1,156 @@
+package com.page.isomerism.feign;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 对冲请求策略
+ * <p>
+ * 幂等方法的调用耗时超过该方法近期耗时的指定分位值后，
+ * 向同一module/flag的另一个节点再发送一次请求，取先返回的结果，
+ * 对冲次数受预算限制(不超过调用次数的指定比例)
+ * <p>
+ * 取得结果后中断另一个请求：Http2RemoteTransport及虚拟线程调用模式下随即中止并释放连接及并发许可；
+ * 平台线程上的阻塞IO(DefaultRemoteTransport、PooledRemoteTransport)无法中断，
+ * 该请求继续占用连接及并发许可直到返回或读超时，其响应直接关闭
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class HedgePolicy {
+
+    /**
+     * 可记录的最大耗时(微秒)
+     */
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    /**
+     * 触发对冲的耗时分位 (0-100)
+     */
+    private double percentile = 95D;
+    /**
+     * 触发对冲的最短等待时间
+     * (单位：毫秒)
+     */
+    private long minDelayMillis = 10L;
+    /**
+     * 对冲请求不超过调用次数的比例 (0-100)
+     */
+    private int budgetPercent = 10;
+    /**
+     * 预算最多累积的对冲次数
+     */
+    private int maxBurst = 10;
+    /**
+     * 计算分位值至少需要的样本数
+     */
+    private int minSamples = 20;
+    /**
+     * 分位值的刷新间隔
+     * (单位：毫秒)
+     */
+    private long refreshMillis = 1000L;
+
+    /**
+     * key ${ModuleDefinition.module}-${ModuleDefinition.flag}
+     * value 该module/flag下各方法(${接口的全限定名}#${方法签名})的统计
+     */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Tracker>> trackers = new ConcurrentHashMap<>();
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public void setMinDelayMillis(long minDelayMillis) {
+        this.minDelayMillis = minDelayMillis;
+    }
+
+    public void setBudgetPercent(int budgetPercent) {
+        this.budgetPercent = budgetPercent;
+    }
+
+    public void setMaxBurst(int maxBurst) {
+        this.maxBurst = maxBurst;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public void setRefreshMillis(long refreshMillis) {
+        this.refreshMillis = refreshMillis;
+    }
+
+    Tracker tracker(String moduleKey, String methodKey) {
+        String method = null == methodKey ? "" : methodKey;
+        ConcurrentHashMap<String, Tracker> methods = trackers.get(moduleKey);
+        if (null == methods) {
+            methods = trackers.computeIfAbsent(moduleKey, key -> new ConcurrentHashMap<>());
+        }
+        Tracker tracker = methods.get(method);
+        return null != tracker ? tracker : methods.computeIfAbsent(method, key -> new Tracker());
+    }
+
+    /**
+     * 单个module/flag/方法的耗时分位与对冲预算
+     */
+    final class Tracker {
+
+        private final Recorder latency = new Recorder(HIGHEST_TRACKABLE_MICROS, 2);
+        private Histogram interval;
+        private final AtomicLong nextRefresh = new AtomicLong(System.nanoTime());
+        /**
+         * 触发对冲的等待时间(纳秒)，样本不足时为-1
+         */
+        private volatile long delayNanos = -1L;
+        /**
+         * 对冲预算
+         */
+        private final RequestBudget budget = new RequestBudget();
+
+        void record(long latencyNanos) {
+            latency.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0L, latencyNanos / 1000L)));
+            long now = System.nanoTime();
+            long next = nextRefresh.get();
+            if (now - next >= 0 && nextRefresh.compareAndSet(next, now + TimeUnit.MILLISECONDS.toNanos(refreshMillis))) {
+                refresh();
+            }
+        }
+
+        private synchronized void refresh() {
+            interval = latency.getIntervalHistogram(interval);
+            if (interval.getTotalCount() < minSamples) {
+                return;
+            }
+            long micros = interval.getValueAtPercentile(percentile);
+            delayNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(minDelayMillis), TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+
+        /**
+         * @return 触发对冲的等待时间(纳秒)，样本不足时为-1
+         */
+        long delayNanos() {
+            return delayNanos;
+        }
+
+        /**
+         * 每次调用存入预算
+         */
+        void deposit() {
+            budget.deposit(budgetPercent, maxBurst);
+        }
+
+        /**
+         * @return 预算足够时扣除并返回true
+         */
+        boolean withdraw() {
+            return budget.withdraw();
+        }
+
+    }
+
+}
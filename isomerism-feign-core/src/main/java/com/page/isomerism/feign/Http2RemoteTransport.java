@@ -0,0 +1,453 @@
+package com.page.isomerism.feign;
+
+import feign.Request;
+import feign.Response;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.HttpDestination;
+import org.eclipse.jetty.client.MultiplexConnectionPool;
+import org.eclipse.jetty.client.Origin;
+import org.eclipse.jetty.client.api.Connection;
+import org.eclipse.jetty.client.api.Destination;
+import org.eclipse.jetty.client.util.BytesContentProvider;
+import org.eclipse.jetty.client.util.InputStreamResponseListener;
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http2.client.HTTP2Client;
+import org.eclipse.jetty.http2.client.http.HttpClientTransportOverHTTP2;
+import org.eclipse.jetty.http2.client.http.HttpDestinationOverHTTP2;
+import org.eclipse.jetty.io.ByteBufferPool;
+import org.eclipse.jetty.io.MappedByteBufferPool;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * 基于HTTP/2(h2c)的传输层
+ * <p>
+ * 使用Jetty HttpClient以prior knowledge方式直接建立明文HTTP/2连接，
+ * 同一节点的并发请求复用少量连接上的多个stream，高RTT链路上不再为每个进行中的请求单独建立连接；
+ * 支持按module/flag配置单节点最大连接数、单连接最大并发stream数及流控窗口
+ * (节点需支持h2c；需要依赖 org.eclipse.jetty.http2:http2-http-client-transport)
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class Http2RemoteTransport implements RemoteTransport {
+
+    private Logger logger = LoggerFactory.getLogger(Http2RemoteTransport.class);
+
+    /**
+     * HTTP/2不允许或由Jetty生成的请求头
+     */
+    private static final Set<String> EXCLUDED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        EXCLUDED_HEADERS.addAll(Arrays.asList("Host", "Content-Length", "Connection", "Keep-Alive",
+                "Proxy-Connection", "Transfer-Encoding", "Upgrade"));
+    }
+
+    /**
+     * 被替换的HttpClient检查进行中请求的间隔
+     * (单位：毫秒)
+     */
+    private static final long RETIRE_CHECK_MILLIS = 1000L;
+    /**
+     * 被替换的HttpClient等待进行中请求结束的最长时间，超过时直接停止
+     * (单位：毫秒)
+     */
+    private static final long RETIRE_MAX_WAIT_MILLIS = 60 * 1000L;
+
+    /**
+     * 各HttpClient共用的线程池、调度器及缓冲区
+     */
+    private final QueuedThreadPool executor;
+    private final Scheduler scheduler;
+    private final ByteBufferPool byteBufferPool;
+
+    private final long connectTimeoutMillis;
+    private final long idleTimeoutMillis;
+
+    /**
+     * 未单独配置的module/flag及直接按url构造的代理使用的配置
+     */
+    private final Settings defaultSettings;
+
+    /**
+     * 未单独配置的module/flag及直接按url构造的代理共用的HttpClient
+     */
+    private final TrackedClient defaultClient;
+
+    /**
+     * module/flag的配置
+     * <p>
+     * key ${ModuleDefinition.module}-${ModuleDefinition.flag}
+     * value 配置
+     */
+    private final ConcurrentHashMap<String, Settings> settings = new ConcurrentHashMap<>();
+
+    /**
+     * 单独配置的module/flag使用的HttpClient
+     * (流控窗口属于HTTP2Client的配置，因此每个单独配置的module/flag一个HttpClient)
+     * <p>
+     * key ${ModuleDefinition.module}-${ModuleDefinition.flag}
+     * value HttpClient
+     */
+    private final ConcurrentHashMap<String, TrackedClient> clients = new ConcurrentHashMap<>();
+
+    /**
+     * 配置变化后被替换、等待进行中请求结束后停止的HttpClient
+     */
+    private final Set<TrackedClient> retiring = ConcurrentHashMap.newKeySet();
+
+    public Http2RemoteTransport() {
+        this(2, 128, 16 * 1024 * 1024, 8 * 1024 * 1024, 10 * 1000L, 60 * 1000L);
+    }
+
+    /**
+     * @param defaultMaxConnectionsPerNode    单节点默认最大连接数
+     * @param defaultMaxConcurrentStreams     单连接默认最大并发stream数(不超过服务端声明的SETTINGS_MAX_CONCURRENT_STREAMS)
+     * @param defaultInitialSessionRecvWindow 默认连接级接收窗口(字节)
+     * @param defaultInitialStreamRecvWindow  默认stream级接收窗口(字节)
+     * @param connectTimeoutMillis            建立连接的超时时间
+     * @param idleTimeoutMillis               空闲连接回收时间
+     */
+    public Http2RemoteTransport(int defaultMaxConnectionsPerNode, int defaultMaxConcurrentStreams,
+                                int defaultInitialSessionRecvWindow, int defaultInitialStreamRecvWindow,
+                                long connectTimeoutMillis, long idleTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.defaultSettings = new Settings(defaultMaxConnectionsPerNode, defaultMaxConcurrentStreams,
+                defaultInitialSessionRecvWindow, defaultInitialStreamRecvWindow);
+        this.executor = new QueuedThreadPool();
+        this.executor.setName("isomerism-feign-h2");
+        this.executor.setDaemon(true);
+        this.scheduler = new ScheduledExecutorScheduler("isomerism-feign-h2-scheduler", true);
+        this.byteBufferPool = new MappedByteBufferPool();
+        try {
+            executor.start();
+            scheduler.start();
+        } catch (Exception e) {
+            throw new IllegalStateException("start http2 transport failed", e);
+        }
+        this.defaultClient = newClient(defaultSettings);
+    }
+
+    /**
+     * 设置module/flag下单节点的最大连接数
+     * (设置后该module/flag的新请求使用新建立的连接)
+     *
+     * @param module         模块名称
+     * @param flag           区分的flag
+     * @param maxConnections 最大连接数
+     */
+    public void setMaxConnectionsPerNode(String module, String flag, int maxConnections) {
+        configure(module, flag, current -> new Settings(maxConnections, current.maxConcurrentStreams,
+                current.initialSessionRecvWindow, current.initialStreamRecvWindow));
+    }
+
+    /**
+     * 设置module/flag下单连接的最大并发stream数
+     * <p>
+     * 取该值与服务端声明的SETTINGS_MAX_CONCURRENT_STREAMS中较小的一个，
+     * 连接上的stream数达到上限时建立新连接(不超过单节点最大连接数)，连接数也达到上限时请求排队
+     * (设置后该module/flag的新请求使用新建立的连接)
+     *
+     * @param module               模块名称
+     * @param flag                 区分的flag
+     * @param maxConcurrentStreams 最大并发stream数
+     */
+    public void setMaxConcurrentStreams(String module, String flag, int maxConcurrentStreams) {
+        configure(module, flag, current -> new Settings(current.maxConnectionsPerNode, maxConcurrentStreams,
+                current.initialSessionRecvWindow, current.initialStreamRecvWindow));
+    }
+
+    /**
+     * 设置module/flag的流控接收窗口
+     * <p>
+     * 高RTT链路上窗口不小于 带宽 * RTT 时响应体的传输才不会因等待WINDOW_UPDATE而停顿
+     * (设置后该module/flag的新请求使用新建立的连接)
+     *
+     * @param module                   模块名称
+     * @param flag                     区分的flag
+     * @param initialSessionRecvWindow 连接级接收窗口(字节)
+     * @param initialStreamRecvWindow  stream级接收窗口(字节)
+     */
+    public void setFlowControlWindow(String module, String flag, int initialSessionRecvWindow, int initialStreamRecvWindow) {
+        configure(module, flag, current -> new Settings(current.maxConnectionsPerNode, current.maxConcurrentStreams,
+                initialSessionRecvWindow, initialStreamRecvWindow));
+    }
+
+    /**
+     * 更新配置并以新的HttpClient替换原有的，
+     * 原有的HttpClient在其进行中的请求(包括响应体的接收)结束后停止
+     */
+    private synchronized void configure(String module, String flag, UnaryOperator<Settings> update) {
+        String key = module.toUpperCase() + "-" + flag.toUpperCase();
+        Settings updated = settings.compute(key, (k, current) -> update.apply(null == current ? defaultSettings : current));
+        TrackedClient previous = clients.put(key, newClient(updated));
+        if (null != previous) {
+            retire(previous, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RETIRE_MAX_WAIT_MILLIS));
+        }
+    }
+
+    private void retire(TrackedClient client, long deadline) {
+        retiring.add(client);
+        scheduler.schedule(() -> {
+            if (0 < client.inFlight.get() && System.nanoTime() - deadline < 0) {
+                retire(client, deadline);
+            } else if (retiring.remove(client)) {
+                stop(client.client);
+            }
+        }, RETIRE_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options, ModuleDefinition moduleDefinition, NodeDefinition node) throws IOException {
+        Request.Body body = request.requestBody();
+        byte[] content = null == body ? null : body.asBytes();
+        TrackedClient client = acquire(moduleDefinition);
+        org.eclipse.jetty.client.api.Request http2Request;
+        InputStreamResponseListener listener = new InputStreamResponseListener();
+        try {
+            http2Request = client.client.newRequest(request.url())
+                    .method(request.httpMethod().name())
+                    .followRedirects(options.isFollowRedirects())
+                    .idleTimeout(options.readTimeoutMillis(), TimeUnit.MILLISECONDS);
+            for (Map.Entry<String, Collection<String>> header : request.headers().entrySet()) {
+                if (!EXCLUDED_HEADERS.contains(header.getKey())) {
+                    for (String value : header.getValue()) {
+                        http2Request.header(header.getKey(), value);
+                    }
+                }
+            }
+            if (null != content) {
+                http2Request.content(new BytesContentProvider(content));
+            }
+            http2Request.onComplete(result -> client.inFlight.decrementAndGet());
+        } catch (RuntimeException e) {
+            client.inFlight.decrementAndGet();
+            throw e;
+        }
+        http2Request.send(listener);
+        org.eclipse.jetty.client.api.Response http2Response;
+        try {
+            http2Response = listener.get(options.connectTimeoutMillis() + options.readTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            http2Request.abort(e);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("http2 request interrupted");
+        } catch (TimeoutException e) {
+            http2Request.abort(e);
+            throw new SocketTimeoutException("http2 request timeout:" + request.url());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+        Map<String, Collection<String>> headers = new LinkedHashMap<>();
+        for (HttpField field : http2Response.getHeaders()) {
+            headers.computeIfAbsent(field.getName(), name -> new ArrayList<>(1)).add(field.getValue());
+        }
+        long length = http2Response.getHeaders().getLongField("Content-Length");
+        return Response.builder()
+                .status(http2Response.getStatus())
+                .reason(http2Response.getReason())
+                .headers(headers)
+                .body(listener.getInputStream(), 0 <= length && Integer.MAX_VALUE >= length ? (int) length : null)
+                .request(request)
+                .build();
+    }
+
+    /**
+     * 节点没有连接时建立一条连接并放入连接池
+     */
+    @Override
+    public void preconnect(ModuleDefinition moduleDefinition, NodeDefinition node) throws IOException {
+        URI uri = URI.create(node.getUri());
+        HttpDestination destination = (HttpDestination) clientOf(moduleDefinition).client
+                .getDestination(uri.getScheme(), uri.getHost(), uri.getPort());
+        MultiplexConnectionPool connectionPool = (MultiplexConnectionPool) destination.getConnectionPool();
+        if (0 < connectionPool.getConnectionCount() + connectionPool.getPendingCount()) {
+            return;
+        }
+        Connection connection = connectionPool.acquire();
+        if (null != connection) {
+            connectionPool.release(connection);
+        }
+    }
+
+    /**
+     * 获取module/flag当前的HttpClient并计入一个进行中的请求
+     * <p>
+     * 先计数再确认该HttpClient仍是当前的，期间被替换时撤销计数并重新获取，
+     * 被替换的HttpClient要么看到该请求的计数而等待其结束，要么不会被用于发送该请求
+     */
+    private TrackedClient acquire(ModuleDefinition moduleDefinition) {
+        while (true) {
+            TrackedClient client = clientOf(moduleDefinition);
+            client.inFlight.incrementAndGet();
+            if (client == defaultClient || client == clients.get(moduleDefinition.getKey())) {
+                return client;
+            }
+            client.inFlight.decrementAndGet();
+        }
+    }
+
+    private TrackedClient clientOf(ModuleDefinition moduleDefinition) {
+        if (null == moduleDefinition) {
+            return defaultClient;
+        }
+        Settings moduleSettings = settings.get(moduleDefinition.getKey());
+        if (null == moduleSettings) {
+            return defaultClient;
+        }
+        return clients.computeIfAbsent(moduleDefinition.getKey(), key -> newClient(moduleSettings));
+    }
+
+    private TrackedClient newClient(Settings clientSettings) {
+        HTTP2Client http2Client = new HTTP2Client();
+        http2Client.setInitialSessionRecvWindow(clientSettings.initialSessionRecvWindow);
+        http2Client.setInitialStreamRecvWindow(clientSettings.initialStreamRecvWindow);
+        HttpClientTransportOverHTTP2 transport = new HttpClientTransportOverHTTP2(http2Client) {
+            @Override
+            public HttpDestination newHttpDestination(Origin origin) {
+                return new HttpDestinationOverHTTP2(getHttpClient(), origin) {
+                    @Override
+                    public void setMaxRequestsPerConnection(int maxRequestsPerConnection) {
+                        /* 服务端声明的SETTINGS_MAX_CONCURRENT_STREAMS不超过本地配置时才采用 */
+                        super.setMaxRequestsPerConnection(Math.min(maxRequestsPerConnection, clientSettings.maxConcurrentStreams));
+                    }
+                };
+            }
+        };
+        transport.setConnectionPoolFactory(destination -> new MultiplexConnectionPool(destination,
+                clientSettings.maxConnectionsPerNode, destination, clientSettings.maxConcurrentStreams));
+        HttpClient client = new HttpClient(transport, null);
+        client.setExecutor(executor);
+        client.setScheduler(scheduler);
+        client.setByteBufferPool(byteBufferPool);
+        client.setConnectTimeout(connectTimeoutMillis);
+        client.setIdleTimeout(idleTimeoutMillis);
+        client.setMaxConnectionsPerDestination(clientSettings.maxConnectionsPerNode);
+        client.setUserAgentField(null);
+        /* 节点下线后其destination在连接全部关闭后移除 */
+        client.setRemoveIdleDestinations(true);
+        /* 与默认传输层一致，不自动解压响应 */
+        client.getContentDecoderFactories().clear();
+        try {
+            client.start();
+        } catch (Exception e) {
+            throw new IllegalStateException("start http2 client failed", e);
+        }
+        return new TrackedClient(client);
+    }
+
+    /**
+     * 各节点已建立的连接数
+     *
+     * @return key 节点uri value 连接数
+     */
+    public Map<String, Integer> getConnectionCounts() {
+        List<TrackedClient> all = new ArrayList<>(clients.values());
+        all.add(defaultClient);
+        all.addAll(retiring);
+        Map<String, Integer> counts = new HashMap<>();
+        for (TrackedClient client : all) {
+            for (Destination destination : client.client.getDestinations()) {
+                MultiplexConnectionPool connectionPool = (MultiplexConnectionPool) ((HttpDestination) destination).getConnectionPool();
+                counts.merge(destination.getScheme() + "://" + destination.getHost() + ":" + destination.getPort(),
+                        connectionPool.getConnectionCount(), Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @return 被替换、尚未停止的HttpClient数
+     */
+    int getRetiringCount() {
+        return retiring.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        Set<TrackedClient> all = new HashSet<>(clients.values());
+        clients.clear();
+        all.addAll(retiring);
+        retiring.clear();
+        all.add(defaultClient);
+        for (TrackedClient client : all) {
+            stop(client.client);
+        }
+        try {
+            scheduler.stop();
+            executor.stop();
+        } catch (Exception e) {
+            logger.warn("close http2 transport failed", e);
+        }
+    }
+
+    private void stop(HttpClient client) {
+        try {
+            client.stop();
+        } catch (Exception e) {
+            logger.warn("stop http2 client failed", e);
+        }
+    }
+
+    /**
+     * HttpClient及其进行中的请求数
+     * (请求数在响应体接收完成或请求失败后减少)
+     */
+    private static final class TrackedClient {
+
+        private final HttpClient client;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private TrackedClient(HttpClient client) {
+            this.client = client;
+        }
+
+    }
+
+    /**
+     * 一个HttpClient的配置
+     */
+    private static final class Settings {
+
+        private final int maxConnectionsPerNode;
+        private final int maxConcurrentStreams;
+        private final int initialSessionRecvWindow;
+        private final int initialStreamRecvWindow;
+
+        private Settings(int maxConnectionsPerNode, int maxConcurrentStreams, int initialSessionRecvWindow, int initialStreamRecvWindow) {
+            this.maxConnectionsPerNode = maxConnectionsPerNode;
+            this.maxConcurrentStreams = maxConcurrentStreams;
+            this.initialSessionRecvWindow = initialSessionRecvWindow;
+            this.initialStreamRecvWindow = initialStreamRecvWindow;
+        }
+
+    }
+
+}
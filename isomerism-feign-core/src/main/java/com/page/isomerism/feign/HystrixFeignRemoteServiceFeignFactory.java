@@ -1,6 +1,7 @@
 package com.page.isomerism.feign;
 
 import com.netflix.hystrix.*;
+import feign.Client;
 import feign.Feign;
 import feign.codec.Decoder;
 import feign.codec.Encoder;
@@ -9,12 +10,13 @@ import feign.hystrix.HystrixFeign;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.openfeign.support.SpringDecoder;
 import org.springframework.cloud.openfeign.support.SpringEncoder;
-import org.springframework.cloud.openfeign.support.SpringMvcContract;
 import org.springframework.stereotype.Service;
 
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 手动装配Feign Client的Bean
@@ -41,6 +43,11 @@ public final class HystrixFeignRemoteServiceFeignFactory
      * 并发请求数量
      */
     private int executionIsolationSemaphoreMaxConcurrentRequests = 30;
+    /**
+     * 启用并发限制(setConcurrencyLimiter)时Hystrix隔离允许的最大并发数
+     * (此时实际并发由各module/flag的ConcurrencyLimiter决定)
+     */
+    private int adaptiveMaxConcurrentRequests = 200;
     /**
      * 断路器打开的失败比例 (0-100)
      */
@@ -51,7 +58,20 @@ public final class HystrixFeignRemoteServiceFeignFactory
      */
     private int circuitBreakerSleepWindowInSeconds = 3;
 
-    private ConcurrentMap<String, Object> hystrixRemoteServiceCaches = new ConcurrentHashMap<>(16);
+    /**
+     * Hystrix command每个方法的状态(断路器、指标、事件流)的估算占用
+     * (单位 KB)
+     */
+    private static final int HYSTRIX_COMMAND_WEIGHT = 16;
+
+    /**
+     * 缓存中的代理对Hystrix command/线程池的引用计数
+     * (计数归零时释放对应的Hystrix状态)
+     * <p>
+     * key command:${commandKey} / threadPool:${threadPoolKey}
+     * value 引用计数
+     */
+    private final Map<String, Integer> hystrixReferences = new HashMap<>();
 
     /**
      * 設置默認的超時時間
@@ -73,6 +93,16 @@ public final class HystrixFeignRemoteServiceFeignFactory
         this.executionIsolationSemaphoreMaxConcurrentRequests = executionIsolationSemaphoreMaxConcurrentRequests;
     }
 
+    /**
+     * 设置启用并发限制时Hystrix隔离允许的最大并发数
+     *
+     * @param adaptiveMaxConcurrentRequests 最大并发数
+     */
+    @Override
+    public void setAdaptiveMaxConcurrentRequests(int adaptiveMaxConcurrentRequests) {
+        this.adaptiveMaxConcurrentRequests = adaptiveMaxConcurrentRequests;
+    }
+
     /**
      * 设置断路器打开的失败比例
      *
@@ -99,49 +129,137 @@ public final class HystrixFeignRemoteServiceFeignFactory
                 executionIsolationSemaphoreMaxConcurrentRequests, circuitBreakerErrorThresholdPercentage, circuitBreakerSleepWindowInSeconds);
     }
 
-    @SuppressWarnings("unchecked")
+    @Override
+    protected <T> T constructInstance(Class<T> classOfT, Decoder decoder, Encoder encoder, ErrorDecoder errorDecoder, String url, Client client) {
+        return constructInstance(classOfT, decoder, encoder, errorDecoder, url, client, executionTimeoutInSeconds,
+                executionIsolationSemaphoreMaxConcurrentRequests, circuitBreakerErrorThresholdPercentage, circuitBreakerSleepWindowInSeconds);
+    }
+
     @Override
     public <T> T constructInstance(Class<T> classOfT, Decoder decoder, Encoder encoder, ErrorDecoder errorDecoder, String url,
                                    int timeout, int concurrentRequests, int errorPrecentage, int coolingTime) {
-        String hystrixRemoteCacheKey = getHystrixServiceCacheKey(classOfT, decoder, encoder, errorDecoder, url,
+        return constructInstance(classOfT, decoder, encoder, errorDecoder, url, getTransportClient(),
+                timeout, concurrentRequests, errorPrecentage, coolingTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T constructInstance(Class<T> classOfT, Decoder decoder, Encoder encoder, ErrorDecoder errorDecoder, String url, Client client,
+                                    int timeout, int concurrentRequests, int errorPrecentage, int coolingTime) {
+        /* 负载均衡的代理由父类按module/flag缓存，这里只缓存直接按url构造的代理 */
+        if (client instanceof RemoteServiceClient) {
+            return buildInstance(classOfT, decoder, encoder, errorDecoder, url, client, timeout, concurrentRequests, errorPrecentage, coolingTime);
+        }
+        String hystrixRemoteCacheKey = getHystrixServiceCacheKey(classOfT, decoder, encoder, errorDecoder, url, client,
                 timeout, concurrentRequests, errorPrecentage, coolingTime);
-        Object object = hystrixRemoteServiceCaches.get(hystrixRemoteCacheKey);
-        if (null != object) {
-            return (T) object;
+        ProxyCache.Entry entry = getProxyCache().get(hystrixRemoteCacheKey);
+        if (null != entry) {
+            return (T) entry.getDefinition().getService();
+        }
+        T remoteService = buildInstance(classOfT, decoder, encoder, errorDecoder, url, client, timeout, concurrentRequests, errorPrecentage, coolingTime);
+        entry = getProxyCache().putIfAbsent(hystrixRemoteCacheKey,
+                RemoteServiceDefinition.buildCustomed(null, null, classOfT, System.currentTimeMillis(), url, remoteService),
+                weigh(classOfT), acquireResources(classOfT, url, client));
+        return (T) entry.getDefinition().getService();
+    }
+
+    private <T> T buildInstance(Class<T> classOfT, Decoder decoder, Encoder encoder, ErrorDecoder errorDecoder, String url, Client client,
+                                int timeout, int concurrentRequests, int errorPrecentage, int coolingTime) {
+        /* 启用自适应并发限制时放开静态的信号量/线程池上限，由ConcurrencyLimiter按module/flag控制 */
+        boolean adaptive = isConcurrencyLimited() && client instanceof RemoteServiceClient;
+        int maxConcurrentRequests = adaptive ? Math.max(concurrentRequests, adaptiveMaxConcurrentRequests) : concurrentRequests;
+        /* 虚拟线程调用模式下在调用方线程上执行(信号量隔离)，并发由各module/flag的信号量限制 */
+        boolean semaphoreIsolation = isVirtualThreads() && client instanceof RemoteServiceClient;
+        if (semaphoreIsolation) {
+            maxConcurrentRequests = Math.max(maxConcurrentRequests, getMaxConcurrentRequestsPerModule());
+        }
+        int threadPoolSize = adaptive ? maxConcurrentRequests : 30;
+        HystrixCommandProperties.ExecutionIsolationStrategy isolationStrategy = semaphoreIsolation
+                ? HystrixCommandProperties.ExecutionIsolationStrategy.SEMAPHORE
+                : HystrixCommandProperties.ExecutionIsolationStrategy.THREAD;
+        int isolationMaxConcurrentRequests = maxConcurrentRequests;
+        return HystrixFeign.builder()
+                .setterFactory((target, method) -> {
+                    String groupKey = target.name();
+                    String commandKey = commandKey(client, target.type(), method);
+                    return HystrixCommand.Setter
+                            .withGroupKey(HystrixCommandGroupKey.Factory.asKey(groupKey))
+                            .andCommandKey(HystrixCommandKey.Factory.asKey(commandKey))
+                            .andCommandPropertiesDefaults(
+                                    HystrixCommandProperties.Setter()
+                                            .withExecutionTimeoutEnabled(true)
+                                            .withExecutionTimeoutInMilliseconds(timeout * 1000)
+                                            .withExecutionIsolationStrategy(isolationStrategy)
+                                            .withExecutionIsolationSemaphoreMaxConcurrentRequests(isolationMaxConcurrentRequests)
+                                            .withCircuitBreakerEnabled(true)
+                                            .withCircuitBreakerErrorThresholdPercentage(errorPrecentage)
+                                            .withCircuitBreakerSleepWindowInMilliseconds(coolingTime * 1000)
+                            ).andThreadPoolPropertiesDefaults(
+                                    HystrixThreadPoolProperties.Setter()
+                                            .withCoreSize(Math.min(30, threadPoolSize))
+                                            .withMaximumSize(threadPoolSize)
+                                            .withAllowMaximumSizeToDivergeFromCoreSize(true)
+                            );
+                })
+                .client(client)
+                .retryer(retryer(client))
+                .contract(new RemoteServiceContract())
+                .decoder(new AsyncDecoder(null != decoder ? decoder : new SpringDecoder(messageConverters)))
+                .encoder(null != encoder ? encoder : new SpringEncoder(messageConverters))
+                .errorDecoder(errorDecoder)
+                .target(classOfT, url);
+    }
+
+    /**
+     * command key
+     * (负载均衡的代理按module/flag区分，各flag的断路器及指标互不影响)
+     */
+    private static String commandKey(Client client, Class<?> type, Method method) {
+        String configKey = Feign.configKey(type, method);
+        return client instanceof RemoteServiceClient ? ((RemoteServiceClient) client).getModuleKey() + "#" + configKey : configKey;
+    }
+
+    @Override
+    protected int weigh(Class<?> classOfT) {
+        return super.weigh(classOfT) + HYSTRIX_COMMAND_WEIGHT * feignMethods(classOfT).size();
+    }
+
+    /**
+     * 记录代理使用的command及线程池(线程池key即groupKey，为构造时的url)，
+     * 代理被淘汰且不再可达后，不再被其他代理使用的command及线程池随之释放
+     * (被淘汰但仍被调用方持有的代理继续使用原有的断路器及线程池)
+     */
+    @Override
+    protected Runnable acquireResources(Class<?> classOfT, String url, Client client) {
+        List<String> keys = new ArrayList<>();
+        for (Method method : feignMethods(classOfT)) {
+            keys.add("command:" + commandKey(client, classOfT, method));
         }
-        T remoteService =
-                HystrixFeign.builder()
-                        .setterFactory((target, method) -> {
-                            String groupKey = target.name();
-                            String commandKey = Feign.configKey(target.type(), method);
-                            return HystrixCommand.Setter
-                                    .withGroupKey(HystrixCommandGroupKey.Factory.asKey(groupKey))
-                                    .andCommandKey(HystrixCommandKey.Factory.asKey(commandKey))
-                                    .andCommandPropertiesDefaults(
-                                            HystrixCommandProperties.Setter()
-                                                    .withExecutionTimeoutEnabled(true)
-                                                    .withExecutionTimeoutInMilliseconds(timeout * 1000)
-                                                    .withExecutionIsolationSemaphoreMaxConcurrentRequests(concurrentRequests)
-                                                    .withCircuitBreakerEnabled(true)
-                                                    .withCircuitBreakerErrorThresholdPercentage(errorPrecentage)
-                                                    .withCircuitBreakerSleepWindowInMilliseconds(coolingTime * 1000)
-                                    ).andThreadPoolPropertiesDefaults(
-                                            HystrixThreadPoolProperties.Setter()
-                                                    .withCoreSize(30)
-                                                    .withMaximumSize(30)
-                                                    .withAllowMaximumSizeToDivergeFromCoreSize(true)
-                                    );
-                        })
-                        .contract(new SpringMvcContract())
-                        .decoder(null != decoder ? decoder : new SpringDecoder(messageConverters))
-                        .encoder(null != encoder ? encoder : new SpringEncoder(messageConverters))
-                        .errorDecoder(errorDecoder)
-                        .target(classOfT, url);
-        hystrixRemoteServiceCaches.put(hystrixRemoteCacheKey, remoteService);
-        return remoteService;
+        keys.add("threadPool:" + url);
+        synchronized (hystrixReferences) {
+            for (String key : keys) {
+                hystrixReferences.merge(key, 1, Integer::sum);
+            }
+        }
+        return () -> {
+            List<String> released = new ArrayList<>();
+            synchronized (hystrixReferences) {
+                for (String key : keys) {
+                    if (null == hystrixReferences.computeIfPresent(key, (k, count) -> 1 == count ? null : count - 1)) {
+                        released.add(key);
+                    }
+                }
+            }
+            for (String key : released) {
+                if (key.startsWith("command:")) {
+                    HystrixResources.releaseCommand(key.substring("command:".length()));
+                } else {
+                    HystrixResources.releaseThreadPool(key.substring("threadPool:".length()));
+                }
+            }
+        };
     }
 
-    private String getHystrixServiceCacheKey(Class<?> classOfT, Decoder decoder, Encoder encoder, ErrorDecoder errorDecoder, String url,
+    private String getHystrixServiceCacheKey(Class<?> classOfT, Decoder decoder, Encoder encoder, ErrorDecoder errorDecoder, String url, Client client,
                                              int timeout, int concurrentRequests, int errorPrecentage, int coolingTime) {
         return classOfT.getName() + "丨" +
                 (null == decoder ? SpringDecoder.class.getSimpleName() : decoder.getClass().getSimpleName()) + "丨" +
@@ -151,15 +269,8 @@ public final class HystrixFeignRemoteServiceFeignFactory
                 timeout + "丨" +
                 concurrentRequests + "丨" +
                 errorPrecentage + "丨" +
-                coolingTime;
-    }
-
-
-    @Override
-    protected void cleanServiceInstances(Set<String> serviceURIs) {
-        super.cleanServiceInstances(serviceURIs);
-        //移除已经失效的实例缓存
-        hystrixRemoteServiceCaches.entrySet().removeIf(next -> !serviceURIs.contains(next.getKey().split("丨")[4]));
+                coolingTime + "丨" +
+                client.getClass().getSimpleName();
     }
 
 }
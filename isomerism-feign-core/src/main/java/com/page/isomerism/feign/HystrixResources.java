@@ -0,0 +1,136 @@
+package com.page.isomerism.feign;
+
+import com.netflix.hystrix.HystrixThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 释放Hystrix按command/线程池key保存的全局状态
+ * <p>
+ * Hystrix的断路器、指标、配置、事件流及线程池均以key保存在各自的静态表中且只提供整体reset，
+ * 这里通过反射按key移除(并退订事件流、关闭线程池)；
+ * Hystrix版本不同导致找不到对应的表时跳过该表
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+final class HystrixResources {
+
+    private static final Logger logger = LoggerFactory.getLogger(HystrixResources.class);
+
+    /**
+     * 以command key保存状态的静态表
+     */
+    private static final List<Registry> COMMAND_REGISTRIES = new ArrayList<>();
+    /**
+     * 以线程池key保存状态的静态表
+     */
+    private static final List<Registry> THREAD_POOL_REGISTRIES = new ArrayList<>();
+
+    static {
+        register(COMMAND_REGISTRIES, "com.netflix.hystrix.HystrixCircuitBreaker$Factory", "circuitBreakersByCommand", null);
+        register(COMMAND_REGISTRIES, "com.netflix.hystrix.HystrixCommandMetrics", "metrics", "unsubscribeAll");
+        register(COMMAND_REGISTRIES, "com.netflix.hystrix.strategy.properties.HystrixPropertiesFactory", "commandProperties", null);
+        register(COMMAND_REGISTRIES, "com.netflix.hystrix.metric.HystrixCommandStartStream", "streams", null);
+        register(COMMAND_REGISTRIES, "com.netflix.hystrix.metric.HystrixCommandCompletionStream", "streams", null);
+        register(COMMAND_REGISTRIES, "com.netflix.hystrix.metric.consumer.HealthCountsStream", "streams", "unsubscribe");
+        register(COMMAND_REGISTRIES, "com.netflix.hystrix.metric.consumer.RollingCommandEventCounterStream", "streams", "unsubscribe");
+        register(COMMAND_REGISTRIES, "com.netflix.hystrix.metric.consumer.CumulativeCommandEventCounterStream", "streams", "unsubscribe");
+        register(COMMAND_REGISTRIES, "com.netflix.hystrix.metric.consumer.RollingCommandLatencyDistributionStream", "streams", "unsubscribe");
+        register(COMMAND_REGISTRIES, "com.netflix.hystrix.metric.consumer.RollingCommandUserLatencyDistributionStream", "streams", "unsubscribe");
+        register(COMMAND_REGISTRIES, "com.netflix.hystrix.metric.consumer.RollingCommandMaxConcurrencyStream", "streams", "unsubscribe");
+        register(THREAD_POOL_REGISTRIES, "com.netflix.hystrix.HystrixThreadPool$Factory", "threadPools", null);
+        register(THREAD_POOL_REGISTRIES, "com.netflix.hystrix.HystrixThreadPoolMetrics", "metrics", null);
+        register(THREAD_POOL_REGISTRIES, "com.netflix.hystrix.strategy.properties.HystrixPropertiesFactory", "threadPoolProperties", null);
+        register(THREAD_POOL_REGISTRIES, "com.netflix.hystrix.metric.HystrixThreadPoolStartStream", "streams", null);
+        register(THREAD_POOL_REGISTRIES, "com.netflix.hystrix.metric.HystrixThreadPoolCompletionStream", "streams", null);
+        register(THREAD_POOL_REGISTRIES, "com.netflix.hystrix.metric.consumer.RollingThreadPoolEventCounterStream", "streams", "unsubscribe");
+        register(THREAD_POOL_REGISTRIES, "com.netflix.hystrix.metric.consumer.CumulativeThreadPoolEventCounterStream", "streams", "unsubscribe");
+        register(THREAD_POOL_REGISTRIES, "com.netflix.hystrix.metric.consumer.RollingThreadPoolMaxConcurrencyStream", "streams", "unsubscribe");
+    }
+
+    private HystrixResources() {
+    }
+
+    /**
+     * 释放command的断路器、指标、配置及事件流
+     *
+     * @param commandKey command key
+     */
+    static void releaseCommand(String commandKey) {
+        for (Registry registry : COMMAND_REGISTRIES) {
+            registry.remove(commandKey);
+        }
+    }
+
+    /**
+     * 关闭线程池并释放其指标、配置及事件流
+     *
+     * @param threadPoolKey 线程池key
+     */
+    static void releaseThreadPool(String threadPoolKey) {
+        for (Registry registry : THREAD_POOL_REGISTRIES) {
+            Object removed = registry.remove(threadPoolKey);
+            if (removed instanceof HystrixThreadPool) {
+                ((HystrixThreadPool) removed).getExecutor().shutdown();
+            }
+        }
+    }
+
+    private static void register(List<Registry> registries, String className, String fieldName, String closeMethodName) {
+        try {
+            Class<?> type = Class.forName(className, false, HystrixResources.class.getClassLoader());
+            Field field = type.getDeclaredField(fieldName);
+            field.setAccessible(true);
+            Method closeMethod = null;
+            if (null != closeMethodName) {
+                for (Class<?> current = type; null != current && null == closeMethod; current = current.getSuperclass()) {
+                    for (Method method : current.getDeclaredMethods()) {
+                        if (closeMethodName.equals(method.getName()) && 0 == method.getParameterCount()) {
+                            method.setAccessible(true);
+                            closeMethod = method;
+                            break;
+                        }
+                    }
+                }
+            }
+            registries.add(new Registry(type.getName() + "." + fieldName, field, closeMethod));
+        } catch (Exception | LinkageError e) {
+            logger.warn("hystrix registry unavailable,registry:{}.{}", className, fieldName);
+        }
+    }
+
+    private static final class Registry {
+
+        private final String name;
+        private final Field field;
+        private final Method closeMethod;
+
+        private Registry(String name, Field field, Method closeMethod) {
+            this.name = name;
+            this.field = field;
+            this.closeMethod = closeMethod;
+        }
+
+        private Object remove(String key) {
+            try {
+                Object removed = ((Map<?, ?>) field.get(null)).remove(key);
+                if (null != removed && null != closeMethod) {
+                    closeMethod.invoke(removed);
+                }
+                return removed;
+            } catch (Exception e) {
+                logger.warn("release hystrix resource failed,registry:{},key:{}", name, key, e);
+                return null;
+            }
+        }
+
+    }
+
+}
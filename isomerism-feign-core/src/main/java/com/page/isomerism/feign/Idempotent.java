@@ -0,0 +1,31 @@
+package com.page.isomerism.feign;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明远端方法是幂等的
+ * <p>
+ * 标注在远端接口或其方法上(方法上的标注优先)。
+ * GET/HEAD/OPTIONS请求默认视为幂等，其他请求需显式标注后才会被对冲请求
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Idempotent {
+
+    /**
+     * 是否幂等
+     * (用于在接口标注时排除个别方法)
+     *
+     * @return true/false
+     */
+    boolean value() default true;
+
+}
@@ -0,0 +1,126 @@
+package com.page.isomerism.feign;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 内存中的远端调用指标
+ * <p>
+ * 耗时使用HdrHistogram的Recorder记录(写入无锁)，计数使用LongAdder，
+ * 通过getSnapshots按区间导出
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class InMemoryRemoteMetricsRegistry implements RemoteMetricsRegistry {
+
+    /**
+     * 可记录的最大耗时(微秒)
+     */
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    /**
+     * key ${module}-${flag}-${interfaceName}#${method}
+     */
+    private final ConcurrentHashMap<String, MethodMetrics> metrics = new ConcurrentHashMap<>();
+
+    @Override
+    public RemoteMetricsRecorder recorder(String module, String flag, String interfaceName, String method) {
+        return metrics.computeIfAbsent(module + "-" + flag + "-" + interfaceName + "#" + method,
+                key -> new MethodMetrics(module, flag, interfaceName, method));
+    }
+
+    @Override
+    public void remove(String module, String flag) {
+        metrics.values().removeIf(methodMetrics -> methodMetrics.module.equals(module) && methodMetrics.flag.equals(flag));
+    }
+
+    /**
+     * 导出自上一次导出以来的指标
+     *
+     * @return 各module/flag/接口/方法的指标快照
+     */
+    public List<RemoteMetricsSnapshot> getSnapshots() {
+        List<RemoteMetricsSnapshot> snapshots = new ArrayList<>(metrics.size());
+        for (MethodMetrics methodMetrics : metrics.values()) {
+            snapshots.add(methodMetrics.snapshot());
+        }
+        return snapshots;
+    }
+
+    private static final class MethodMetrics implements RemoteMetricsRecorder {
+
+        private final String module;
+        private final String flag;
+        private final String interfaceName;
+        private final String method;
+
+        private final Recorder latency = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder inFlight = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder additionalAttempts = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+        private final LongAdder bytesIn = new LongAdder();
+        private Histogram interval;
+
+        private MethodMetrics(String module, String flag, String interfaceName, String method) {
+            this.module = module;
+            this.flag = flag;
+            this.interfaceName = interfaceName;
+            this.method = method;
+        }
+
+        @Override
+        public void onStart() {
+            inFlight.increment();
+        }
+
+        @Override
+        public void onAdditionalAttempt() {
+            additionalAttempts.increment();
+        }
+
+        @Override
+        public void onComplete(long latencyNanos, int status, long bytesOut, long bytesIn, boolean error) {
+            inFlight.decrement();
+            latency.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0L, latencyNanos / 1000L)));
+            if (error) {
+                errors.increment();
+            }
+            if (0 < bytesOut) {
+                this.bytesOut.add(bytesOut);
+            }
+            if (0 < bytesIn) {
+                this.bytesIn.add(bytesIn);
+            }
+        }
+
+        private synchronized RemoteMetricsSnapshot snapshot() {
+            interval = latency.getIntervalHistogram(interval);
+            RemoteMetricsSnapshot snapshot = new RemoteMetricsSnapshot();
+            snapshot.setModule(module);
+            snapshot.setFlag(flag);
+            snapshot.setInterfaceName(interfaceName);
+            snapshot.setMethod(method);
+            snapshot.setCount(interval.getTotalCount());
+            snapshot.setErrors(errors.sumThenReset());
+            snapshot.setAdditionalAttempts(additionalAttempts.sumThenReset());
+            snapshot.setInFlight(inFlight.sum());
+            snapshot.setBytesOut(bytesOut.sum());
+            snapshot.setBytesIn(bytesIn.sum());
+            snapshot.setP50(interval.getValueAtPercentile(50));
+            snapshot.setP99(interval.getValueAtPercentile(99));
+            snapshot.setP999(interval.getValueAtPercentile(99.9));
+            snapshot.setMax(interval.getMaxValue());
+            return snapshot;
+        }
+
+    }
+
+}
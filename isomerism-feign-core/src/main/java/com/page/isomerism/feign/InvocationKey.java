@@ -0,0 +1,49 @@
+package com.page.isomerism.feign;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * 一次调用的标识
+ * <p>
+ * 由方法及参数组成，参数按deepEquals比较
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+final class InvocationKey {
+
+    private final Method method;
+    private final Object[] args;
+    private final int hash;
+
+    InvocationKey(Method method, Object[] args) {
+        this.method = method;
+        this.args = null == args ? new Object[0] : args;
+        this.hash = 31 * method.hashCode() + Arrays.deepHashCode(this.args);
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        InvocationKey that = (InvocationKey) o;
+        return hash == that.hash &&
+                method.equals(that.method) &&
+                Arrays.deepEquals(args, that.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.page.isomerism.feign;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 最少进行中请求的负载均衡策略
+ * <p>
+ * 采用power-of-two-choices：随机取两个节点，选择进行中请求较少的一个，
+ * 避免所有调用方同时涌向同一个"最空闲"节点
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class LeastRequestLoadBalancer implements LoadBalancer {
+
+    @Override
+    public NodeDefinition choose(ModuleDefinition moduleDefinition, List<NodeDefinition> nodes) {
+        int size = nodes.size();
+        if (1 == size) {
+            return nodes.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        NodeDefinition a = nodes.get(first);
+        NodeDefinition b = nodes.get(second);
+        return a.getStatistics().getActiveRequests() <= b.getStatistics().getActiveRequests() ? a : b;
+    }
+
+}
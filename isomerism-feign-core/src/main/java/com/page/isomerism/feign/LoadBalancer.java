@@ -0,0 +1,32 @@
+package com.page.isomerism.feign;
+
+import java.util.List;
+
+/**
+ * 负载均衡策略
+ * <p>
+ * 在同一module/flag的多个节点之间为每次调用选择目标节点
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public interface LoadBalancer {
+
+    /**
+     * 选择本次调用的节点
+     *
+     * @param moduleDefinition 模块定义
+     * @param nodes            可选的节点(不为空)
+     * @return 选中的节点
+     */
+    NodeDefinition choose(ModuleDefinition moduleDefinition, List<NodeDefinition> nodes);
+
+    /**
+     * 路由表替换后释放已不在路由表中的module/flag的状态 (默认不做任何处理)
+     *
+     * @param routingTable 新的路由表
+     */
+    default void onRoutingTableChanged(RoutingTable routingTable) {
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.page.isomerism.feign;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 就近优先的负载均衡策略
+ * <p>
+ * 优先在与调用方相同区域(元数据zone)的节点中由委托策略选择，
+ * 同区域可用节点比例过低(节点被摘除)或已饱和(平均进行中请求数达到上限)时，
+ * 才在该module/flag的全部可用节点中选择
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class LocalityAwareLoadBalancer implements LoadBalancer {
+
+    /**
+     * 调用方所在区域
+     */
+    private final String zone;
+    /**
+     * 实际选择节点的策略
+     */
+    private final LoadBalancer delegate;
+    /**
+     * 同区域可用节点低于该比例时放开到全部节点 (0-100)
+     */
+    private int minHealthyPercent = 70;
+    /**
+     * 同区域节点平均进行中请求数达到该值时视为饱和
+     */
+    private int saturationActiveRequests = 50;
+
+    /**
+     * 同区域节点的划分
+     * <p>
+     * key ${ModuleDefinition.module}-${ModuleDefinition.flag}
+     * value 划分结果(模块定义变化后重新计算，module/flag不能再调用后移除)
+     */
+    private final ConcurrentHashMap<String, Partition> partitions = new ConcurrentHashMap<>();
+
+    public LocalityAwareLoadBalancer(String zone) {
+        this(zone, new RoundRobinLoadBalancer());
+    }
+
+    public LocalityAwareLoadBalancer(String zone, LoadBalancer delegate) {
+        this.zone = zone;
+        this.delegate = delegate;
+    }
+
+    public void setMinHealthyPercent(int minHealthyPercent) {
+        this.minHealthyPercent = minHealthyPercent;
+    }
+
+    public void setSaturationActiveRequests(int saturationActiveRequests) {
+        this.saturationActiveRequests = saturationActiveRequests;
+    }
+
+    @Override
+    public NodeDefinition choose(ModuleDefinition moduleDefinition, List<NodeDefinition> nodes) {
+        List<NodeDefinition> local = partition(moduleDefinition).local;
+        if (local.isEmpty() || local.size() == moduleDefinition.getNodes().size()) {
+            return delegate.choose(moduleDefinition, nodes);
+        }
+        List<NodeDefinition> healthy = local;
+        /* 传入的节点列表已去掉被摘除的节点 */
+        if (nodes != moduleDefinition.getNodes()) {
+            healthy = new ArrayList<>(local.size());
+            for (NodeDefinition node : local) {
+                if (nodes.contains(node)) {
+                    healthy.add(node);
+                }
+            }
+        }
+        if (healthy.isEmpty() || healthy.size() * 100 < local.size() * minHealthyPercent || saturated(healthy)) {
+            return delegate.choose(moduleDefinition, nodes);
+        }
+        return delegate.choose(moduleDefinition, healthy);
+    }
+
+    @Override
+    public void onRoutingTableChanged(RoutingTable routingTable) {
+        partitions.keySet().removeIf(moduleKey -> !routingTable.isRoutable(moduleKey));
+        delegate.onRoutingTableChanged(routingTable);
+    }
+
+    private boolean saturated(List<NodeDefinition> nodes) {
+        long activeRequests = 0L;
+        for (NodeDefinition node : nodes) {
+            activeRequests += node.getStatistics().getActiveRequests();
+        }
+        return activeRequests >= (long) saturationActiveRequests * nodes.size();
+    }
+
+    private Partition partition(ModuleDefinition moduleDefinition) {
+        Partition partition = partitions.get(moduleDefinition.getKey());
+        if (null != partition && partition.moduleDefinition == moduleDefinition) {
+            return partition;
+        }
+        List<NodeDefinition> local = new ArrayList<>();
+        if (null != zone) {
+            for (NodeDefinition node : moduleDefinition.getNodes()) {
+                if (zone.equalsIgnoreCase(node.getZone())) {
+                    local.add(node);
+                }
+            }
+        }
+        partition = new Partition(moduleDefinition, Collections.unmodifiableList(local));
+        partitions.put(moduleDefinition.getKey(), partition);
+        return partition;
+    }
+
+    private static final class Partition {
+
+        private final ModuleDefinition moduleDefinition;
+        private final List<NodeDefinition> local;
+
+        private Partition(ModuleDefinition moduleDefinition, List<NodeDefinition> local) {
+            this.moduleDefinition = moduleDefinition;
+            this.local = local;
+        }
+
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.page.isomerism.feign;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -14,6 +16,18 @@ public class ModuleDefinition {
      */
     public final static String FIELD_NODE_MODULE = "node.module";
     public final static String FIELD_NODE_FLAG = "node.flag";
+    /**
+     * 节点所在区域在元数据中的字段名称(与Eureka的zone元数据一致)
+     */
+    public final static String FIELD_NODE_ZONE = "zone";
+    /**
+     * 节点类型(NodeType)在元数据中的字段名称
+     */
+    public final static String FIELD_NODE_TYPE = "node.type";
+    /**
+     * 网关节点可转发的模块在元数据中的字段名称(逗号分隔，未声明时可转发全部模块)
+     */
+    public final static String FIELD_GATEWAY_MODULES = "node.gateway.modules";
 
     /**
      * 注册的模块名称
@@ -25,12 +39,22 @@ public class ModuleDefinition {
     private String flag;
     /**
      * 服务的调用uri
+     * (首个节点的uri)
      */
     private String uri;
+    /**
+     * 同一module/flag下的全部节点
+     */
+    private List<NodeDefinition> nodes = new ArrayList<>();
     /**
      * 是否为相同模块服务
      */
     private boolean sameModule = false;
+    /**
+     * 是否经由网关节点转发
+     * (该module/flag没有可直接调用的节点时由网关节点构造)
+     */
+    private boolean gateway = false;
 
     public String getModule() {
         return module;
@@ -60,6 +84,31 @@ public class ModuleDefinition {
         this.sameModule = sameModule;
     }
 
+    public boolean isGateway() {
+        return gateway;
+    }
+
+    public void setGateway(boolean gateway) {
+        this.gateway = gateway;
+    }
+
+    public List<NodeDefinition> getNodes() {
+        return nodes;
+    }
+
+    public void setNodes(List<NodeDefinition> nodes) {
+        this.nodes = nodes;
+    }
+
+    /**
+     * 模块定义的存照key
+     *
+     * @return ${module}-${flag}
+     */
+    public String getKey() {
+        return module + "-" + flag;
+    }
+
     public String getFlag() {
         return flag;
     }
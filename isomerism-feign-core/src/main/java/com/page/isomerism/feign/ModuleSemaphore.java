@@ -0,0 +1,44 @@
+package com.page.isomerism.feign;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * module/flag的并发信号量
+ * <p>
+ * 调整最大并发调用数时在原信号量上增减许可而不替换信号量，
+ * 调整前获取的许可照常归还；缩小时已占用的许可超出新上限的部分随归还抵消
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+final class ModuleSemaphore extends Semaphore {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 当前的许可总数
+     */
+    private int permits;
+
+    ModuleSemaphore(int permits) {
+        super(permits);
+        this.permits = permits;
+    }
+
+    /**
+     * 调整许可总数
+     * (调用方负责同步)
+     *
+     * @param permits 新的许可总数
+     */
+    void resize(int permits) {
+        int delta = permits - this.permits;
+        this.permits = permits;
+        if (0 < delta) {
+            release(delta);
+        } else if (0 > delta) {
+            reducePermits(-delta);
+        }
+    }
+
+}
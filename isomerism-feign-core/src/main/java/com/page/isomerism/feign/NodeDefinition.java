@@ -0,0 +1,94 @@
+package com.page.isomerism.feign;
+
+import java.util.Objects;
+
+/**
+ * 节点定义
+ * <p>
+ * 对应模块在某个flag下的单个注册实例
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class NodeDefinition {
+
+    /**
+     * 注册的实例id
+     */
+    private String instanceId;
+    /**
+     * 节点的调用uri
+     */
+    private String uri;
+    /**
+     * 节点所在区域
+     * (元数据中没有zone时为null)
+     */
+    private String zone;
+    /**
+     * 节点运行时统计
+     */
+    private NodeStatistics statistics;
+
+    public NodeDefinition(String instanceId, String uri, NodeStatistics statistics) {
+        this(instanceId, uri, null, statistics);
+    }
+
+    public NodeDefinition(String instanceId, String uri, String zone, NodeStatistics statistics) {
+        this.instanceId = instanceId;
+        this.uri = uri;
+        this.zone = zone;
+        this.statistics = statistics;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public void setZone(String zone) {
+        this.zone = zone;
+    }
+
+    public NodeStatistics getStatistics() {
+        return statistics;
+    }
+
+    public void setStatistics(NodeStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        NodeDefinition that = (NodeDefinition) o;
+        return Objects.equals(instanceId, that.instanceId) &&
+                Objects.equals(uri, that.uri);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(instanceId, uri);
+    }
+
+}
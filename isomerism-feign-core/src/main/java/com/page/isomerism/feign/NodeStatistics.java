@@ -0,0 +1,175 @@
+package com.page.isomerism.feign;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 节点运行时统计
+ * <p>
+ * 以节点uri为维度，跨越多次扫描保留，供负载均衡策略读取
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class NodeStatistics {
+
+    /**
+     * 节点的调用uri
+     */
+    private final String uri;
+    /**
+     * 正在进行中的请求数量
+     */
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    /**
+     * 累计请求数量
+     */
+    private final AtomicLong totalRequests = new AtomicLong();
+
+    /**
+     * 当前探测窗口的统计(OutlierDetector使用)
+     */
+    private final LongAdder windowRequests = new LongAdder();
+    private final LongAdder windowFailures = new LongAdder();
+    private final LongAdder windowLatency = new LongAdder();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    /**
+     * 连续失败次数
+     */
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    /**
+     * 上一个探测窗口的请求数/失败比例/平均耗时(纳秒)
+     */
+    private volatile long lastRequests;
+    private volatile double lastFailureRate;
+    private volatile double lastMeanLatency;
+    /**
+     * 摘除截止时间(System.nanoTime)，0表示未被摘除
+     */
+    private volatile long ejectedUntil;
+    /**
+     * 累计摘除次数(决定下一次摘除的时长)
+     */
+    private final AtomicInteger ejectionCount = new AtomicInteger();
+
+    public NodeStatistics(String uri) {
+        this.uri = uri;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public int getActiveRequests() {
+        return activeRequests.get();
+    }
+
+    public long getTotalRequests() {
+        return totalRequests.get();
+    }
+
+    /**
+     * 请求开始
+     */
+    public void incrementActiveRequests() {
+        activeRequests.incrementAndGet();
+        totalRequests.incrementAndGet();
+    }
+
+    /**
+     * 请求结束
+     */
+    public void decrementActiveRequests() {
+        activeRequests.decrementAndGet();
+    }
+
+    public long getLastRequests() {
+        return lastRequests;
+    }
+
+    public double getLastFailureRate() {
+        return lastFailureRate;
+    }
+
+    public double getLastMeanLatency() {
+        return lastMeanLatency;
+    }
+
+    public int getEjectionCount() {
+        return ejectionCount.get();
+    }
+
+    long getEjectedUntil() {
+        return ejectedUntil;
+    }
+
+    /**
+     * @param now System.nanoTime
+     * @return 是否处于摘除期
+     */
+    public boolean isEjected(long now) {
+        long until = ejectedUntil;
+        return 0 != until && now - until < 0;
+    }
+
+    /**
+     * 记录一次调用结果
+     *
+     * @return 连续失败次数
+     */
+    int recordResult(long latencyNanos, boolean failed) {
+        windowRequests.increment();
+        windowLatency.add(latencyNanos);
+        if (failed) {
+            windowFailures.increment();
+            return consecutiveFailures.incrementAndGet();
+        }
+        consecutiveFailures.set(0);
+        return 0;
+    }
+
+    /**
+     * 探测窗口到期时滚动窗口(仅一个线程成功)
+     *
+     * @return 是否由当前线程完成滚动
+     */
+    boolean rollWindow(long now, long intervalNanos) {
+        long start = windowStart.get();
+        if (now - start < intervalNanos || !windowStart.compareAndSet(start, now)) {
+            return false;
+        }
+        long requests = windowRequests.sumThenReset();
+        long failures = windowFailures.sumThenReset();
+        long latency = windowLatency.sumThenReset();
+        lastRequests = requests;
+        lastFailureRate = 0 == requests ? 0D : (double) failures / requests;
+        lastMeanLatency = 0 == requests ? 0D : (double) latency / requests;
+        return true;
+    }
+
+    /**
+     * 摘除节点
+     *
+     * @param now           System.nanoTime
+     * @param baseNanos     首次摘除的时长
+     * @param maxNanos      最长摘除时长
+     * @return 本次摘除的时长
+     */
+    long eject(long now, long baseNanos, long maxNanos) {
+        int count = ejectionCount.incrementAndGet();
+        long duration = baseNanos << Math.min(count - 1, 20);
+        duration = 0 < duration ? Math.min(duration, maxNanos) : maxNanos;
+        ejectedUntil = now + duration;
+        consecutiveFailures.set(0);
+        return duration;
+    }
+
+    /**
+     * 恢复后长期健康时逐步降低摘除次数
+     */
+    void decayEjectionCount() {
+        ejectionCount.updateAndGet(count -> 0 < count ? count - 1 : 0);
+    }
+
+}
@@ -34,4 +34,19 @@ public enum NodeType {
     public String getName() {
         return name;
     }
+
+    /**
+     * 由元数据中的值解析节点类型
+     *
+     * @param flag 元数据中的值
+     * @return 节点类型(未声明或无法识别时为NODE)
+     */
+    public static NodeType of(String flag) {
+        for (NodeType nodeType : values()) {
+            if (nodeType.flag.equalsIgnoreCase(flag)) {
+                return nodeType;
+            }
+        }
+        return NODE;
+    }
 }
\ No newline at end of file
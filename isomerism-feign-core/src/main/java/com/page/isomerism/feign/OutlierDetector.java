@@ -0,0 +1,197 @@
+package com.page.isomerism.feign;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 被动的异常节点探测
+ * <p>
+ * 根据调用结果统计各节点的连续失败、失败比例及平均耗时，
+ * 将异常节点临时摘除，摘除时长按次数指数增长(到期后自动恢复)，
+ * 同一module/flag下被摘除的节点比例不超过上限
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class OutlierDetector {
+
+    private Logger logger = LoggerFactory.getLogger(OutlierDetector.class);
+
+    /**
+     * 连续失败多少次摘除
+     */
+    private int consecutiveFailures = 5;
+    /**
+     * 探测窗口内失败比例达到多少摘除 (0-100)
+     */
+    private int failurePercentage = 50;
+    /**
+     * 探测窗口内至少多少请求才按比例/耗时判断
+     */
+    private int minimumRequests = 10;
+    /**
+     * 平均耗时超过同module/flag其他节点平均耗时的多少倍摘除
+     */
+    private double latencyFactor = 3.0D;
+    /**
+     * 探测窗口
+     * (单位：毫秒)
+     */
+    private long intervalMillis = 10 * 1000L;
+    /**
+     * 首次摘除的时长
+     * (单位：毫秒)
+     */
+    private long baseEjectionMillis = 30 * 1000L;
+    /**
+     * 最长摘除时长
+     * (单位：毫秒)
+     */
+    private long maxEjectionMillis = 300 * 1000L;
+    /**
+     * 同一module/flag下最多摘除的节点比例 (0-100)
+     */
+    private int maxEjectionPercent = 50;
+
+    public void setConsecutiveFailures(int consecutiveFailures) {
+        this.consecutiveFailures = consecutiveFailures;
+    }
+
+    public void setFailurePercentage(int failurePercentage) {
+        this.failurePercentage = failurePercentage;
+    }
+
+    public void setMinimumRequests(int minimumRequests) {
+        this.minimumRequests = minimumRequests;
+    }
+
+    public void setLatencyFactor(double latencyFactor) {
+        this.latencyFactor = latencyFactor;
+    }
+
+    public void setIntervalMillis(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    public void setBaseEjectionMillis(long baseEjectionMillis) {
+        this.baseEjectionMillis = baseEjectionMillis;
+    }
+
+    public void setMaxEjectionMillis(long maxEjectionMillis) {
+        this.maxEjectionMillis = maxEjectionMillis;
+    }
+
+    public void setMaxEjectionPercent(int maxEjectionPercent) {
+        this.maxEjectionPercent = maxEjectionPercent;
+    }
+
+    /**
+     * 可参与负载均衡的节点
+     * (没有节点被摘除时直接返回原列表；全部不可用时返回原列表)
+     *
+     * @param moduleDefinition 模块定义
+     * @return 节点列表
+     */
+    List<NodeDefinition> available(ModuleDefinition moduleDefinition) {
+        List<NodeDefinition> nodes = moduleDefinition.getNodes();
+        long now = System.nanoTime();
+        int ejected = 0;
+        for (NodeDefinition node : nodes) {
+            if (node.getStatistics().isEjected(now)) {
+                ejected++;
+            }
+        }
+        if (0 == ejected || ejected == nodes.size()) {
+            return nodes;
+        }
+        List<NodeDefinition> available = new ArrayList<>(nodes.size() - ejected);
+        for (NodeDefinition node : nodes) {
+            if (!node.getStatistics().isEjected(now)) {
+                available.add(node);
+            }
+        }
+        return available;
+    }
+
+    /**
+     * 记录调用结果并判断是否摘除节点
+     *
+     * @param moduleDefinition 模块定义
+     * @param node             节点
+     * @param latencyNanos     耗时(纳秒)
+     * @param failed           是否失败(异常或5xx)
+     */
+    void onResult(ModuleDefinition moduleDefinition, NodeDefinition node, long latencyNanos, boolean failed) {
+        NodeStatistics statistics = node.getStatistics();
+        long now = System.nanoTime();
+        int failures = statistics.recordResult(latencyNanos, failed);
+        if (failed && failures >= consecutiveFailures) {
+            eject(moduleDefinition, node, now, "consecutive failures " + failures);
+            return;
+        }
+        if (!statistics.rollWindow(now, TimeUnit.MILLISECONDS.toNanos(intervalMillis))) {
+            return;
+        }
+        if (statistics.getLastRequests() < minimumRequests) {
+            return;
+        }
+        if (statistics.getLastFailureRate() * 100 >= failurePercentage) {
+            eject(moduleDefinition, node, now, "failure rate " + statistics.getLastFailureRate());
+            return;
+        }
+        double peerLatency = peerMeanLatency(moduleDefinition, node);
+        if (0 < peerLatency && statistics.getLastMeanLatency() > peerLatency * latencyFactor) {
+            eject(moduleDefinition, node, now, "mean latency " + (long) (statistics.getLastMeanLatency() / 1000) + "us");
+            return;
+        }
+        /* 恢复后一个完整摘除周期内保持健康，逐步降低下一次摘除的时长 */
+        if (0 < statistics.getEjectionCount() && 0 != statistics.getEjectedUntil()
+                && now - statistics.getEjectedUntil() > TimeUnit.MILLISECONDS.toNanos(maxEjectionMillis)) {
+            statistics.decayEjectionCount();
+        }
+    }
+
+    /**
+     * 同module/flag下其他未摘除节点上一个窗口的平均耗时
+     */
+    private double peerMeanLatency(ModuleDefinition moduleDefinition, NodeDefinition node) {
+        long now = System.nanoTime();
+        double total = 0D;
+        int count = 0;
+        for (NodeDefinition peer : moduleDefinition.getNodes()) {
+            NodeStatistics statistics = peer.getStatistics();
+            if (peer == node || statistics.isEjected(now) || statistics.getLastRequests() < minimumRequests) {
+                continue;
+            }
+            total += statistics.getLastMeanLatency();
+            count++;
+        }
+        return 0 == count ? 0D : total / count;
+    }
+
+    private synchronized void eject(ModuleDefinition moduleDefinition, NodeDefinition node, long now, String reason) {
+        NodeStatistics statistics = node.getStatistics();
+        if (statistics.isEjected(now)) {
+            return;
+        }
+        List<NodeDefinition> nodes = moduleDefinition.getNodes();
+        int ejected = 1;
+        for (NodeDefinition peer : nodes) {
+            if (peer != node && peer.getStatistics().isEjected(now)) {
+                ejected++;
+            }
+        }
+        if (ejected * 100 > maxEjectionPercent * nodes.size()) {
+            return;
+        }
+        long duration = statistics.eject(now, TimeUnit.MILLISECONDS.toNanos(baseEjectionMillis),
+                TimeUnit.MILLISECONDS.toNanos(maxEjectionMillis));
+        logger.warn("node ejected,module:{},uri:{},reason:{},duration:{}ms", moduleDefinition.getKey(), node.getUri(),
+                reason, TimeUnit.NANOSECONDS.toMillis(duration));
+    }
+
+}
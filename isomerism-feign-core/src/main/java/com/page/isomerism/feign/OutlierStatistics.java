@@ -0,0 +1,96 @@
+package com.page.isomerism.feign;
+
+/**
+ * 节点的异常探测状态
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class OutlierStatistics {
+
+    /**
+     * ${module}-${flag}
+     */
+    private final String moduleKey;
+    private final String instanceId;
+    private final String uri;
+    /**
+     * 是否处于摘除期
+     */
+    private final boolean ejected;
+    /**
+     * 剩余的摘除时长(毫秒)
+     */
+    private final long remainingEjectionMillis;
+    /**
+     * 累计摘除次数
+     */
+    private final int ejectionCount;
+    /**
+     * 上一个探测窗口的失败比例 (0-1)
+     */
+    private final double failureRate;
+    /**
+     * 上一个探测窗口的平均耗时(微秒)
+     */
+    private final long meanLatencyMicros;
+
+    public OutlierStatistics(String moduleKey, String instanceId, String uri, boolean ejected, long remainingEjectionMillis,
+                             int ejectionCount, double failureRate, long meanLatencyMicros) {
+        this.moduleKey = moduleKey;
+        this.instanceId = instanceId;
+        this.uri = uri;
+        this.ejected = ejected;
+        this.remainingEjectionMillis = remainingEjectionMillis;
+        this.ejectionCount = ejectionCount;
+        this.failureRate = failureRate;
+        this.meanLatencyMicros = meanLatencyMicros;
+    }
+
+    public String getModuleKey() {
+        return moduleKey;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public boolean isEjected() {
+        return ejected;
+    }
+
+    public long getRemainingEjectionMillis() {
+        return remainingEjectionMillis;
+    }
+
+    public int getEjectionCount() {
+        return ejectionCount;
+    }
+
+    public double getFailureRate() {
+        return failureRate;
+    }
+
+    public long getMeanLatencyMicros() {
+        return meanLatencyMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "OutlierStatistics{" +
+                "moduleKey='" + moduleKey + '\'' +
+                ", instanceId='" + instanceId + '\'' +
+                ", uri='" + uri + '\'' +
+                ", ejected=" + ejected +
+                ", remainingEjectionMillis=" + remainingEjectionMillis +
+                ", ejectionCount=" + ejectionCount +
+                ", failureRate=" + failureRate +
+                ", meanLatencyMicros=" + meanLatencyMicros +
+                '}';
+    }
+
+}
@@ -0,0 +1,314 @@
+package com.page.isomerism.feign;
+
+import feign.Request;
+import feign.Response;
+import feign.httpclient.ApacheHttpClient;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于连接池的传输层
+ * <p>
+ * 使用Apache HttpClient，每个目标节点一个有界连接池，
+ * 支持keep-alive复用、空闲连接回收以及按module/flag配置单节点最大连接数
+ * (需要依赖 io.github.openfeign:feign-httpclient)
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class PooledRemoteTransport implements RemoteTransport {
+
+    private Logger logger = LoggerFactory.getLogger(PooledRemoteTransport.class);
+
+    /**
+     * 预热建立连接的超时时间
+     */
+    private static final int PRECONNECT_TIMEOUT_MILLIS = 5 * 1000;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final ApacheHttpClient client;
+
+    /**
+     * 单节点默认最大连接数
+     */
+    private final int defaultMaxConnectionsPerNode;
+
+    /**
+     * 连接保持的最长时间
+     */
+    private final long keepAliveMillis;
+
+    /**
+     * 单节点最大连接数配置
+     * <p>
+     * key ${ModuleDefinition.module}-${ModuleDefinition.flag}
+     * value 最大连接数
+     */
+    private final ConcurrentHashMap<String, Integer> maxConnectionsPerNode = new ConcurrentHashMap<>();
+
+    /**
+     * 已配置过的节点连接池
+     * (节点不在路由表中后移除，连接管理器中该节点的上限随之移除)
+     * <p>
+     * key ${NodeDefinition.uri}
+     * value 节点连接池
+     */
+    private final ConcurrentHashMap<String, NodeRoute> routes = new ConcurrentHashMap<>();
+
+    public PooledRemoteTransport() {
+        this(500, 50, 30 * 1000L, 60 * 1000L);
+    }
+
+    /**
+     * @param maxConnections               全部节点的最大连接数
+     * @param defaultMaxConnectionsPerNode 单节点默认最大连接数
+     * @param keepAliveMillis              连接保持的最长时间(服务端未声明时使用)
+     * @param idleTimeoutMillis            空闲连接回收时间
+     */
+    public PooledRemoteTransport(int maxConnections, int defaultMaxConnectionsPerNode, long keepAliveMillis, long idleTimeoutMillis) {
+        this.defaultMaxConnectionsPerNode = defaultMaxConnectionsPerNode;
+        this.keepAliveMillis = keepAliveMillis;
+        this.connectionManager = new PoolingHttpClientConnectionManager();
+        this.connectionManager.setMaxTotal(maxConnections);
+        this.connectionManager.setDefaultMaxPerRoute(defaultMaxConnectionsPerNode);
+        this.connectionManager.setValidateAfterInactivity(2000);
+        this.httpClient = HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> {
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return 0 < keepAlive ? Math.min(keepAlive, keepAliveMillis) : keepAliveMillis;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS)
+                .disableCookieManagement()
+                .build();
+        this.client = new ApacheHttpClient(httpClient);
+    }
+
+    /**
+     * 设置module/flag下单节点的最大连接数
+     * (只调整该module/flag下节点的连接池；多个module/flag共用的节点(如网关)取其中最大的配置)
+     *
+     * @param module         模块名称
+     * @param flag           区分的flag
+     * @param maxConnections 最大连接数
+     */
+    public void setMaxConnectionsPerNode(String module, String flag, int maxConnections) {
+        String moduleKey = module.toUpperCase() + "-" + flag.toUpperCase();
+        synchronized (routes) {
+            maxConnectionsPerNode.put(moduleKey, maxConnections);
+            for (NodeRoute nodeRoute : routes.values()) {
+                if (nodeRoute.moduleKeys.contains(moduleKey)) {
+                    applyMaxPerRoute(nodeRoute);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options, ModuleDefinition moduleDefinition, NodeDefinition node) throws IOException {
+        if (null != moduleDefinition && null != node) {
+            NodeRoute nodeRoute = routes.get(node.getUri());
+            if (null == nodeRoute || !nodeRoute.moduleKeys.contains(moduleDefinition.getKey())) {
+                configureRoute(moduleDefinition, node);
+            }
+        }
+        return client.execute(request, options);
+    }
+
+    /**
+     * 节点连接池中没有可用连接时建立一条连接并放回连接池
+     */
+    @Override
+    public void preconnect(ModuleDefinition moduleDefinition, NodeDefinition node) throws IOException {
+        NodeRoute nodeRoute = routes.get(node.getUri());
+        if (null == nodeRoute || !nodeRoute.moduleKeys.contains(moduleDefinition.getKey())) {
+            configureRoute(moduleDefinition, node);
+            nodeRoute = routes.get(node.getUri());
+        }
+        if (null == nodeRoute || 0 < connectionManager.getStats(nodeRoute.route).getAvailable()) {
+            return;
+        }
+        HttpRoute route = nodeRoute.route;
+        ConnectionRequest connectionRequest = connectionManager.requestConnection(route, null);
+        HttpClientConnection connection;
+        try {
+            connection = connectionRequest.get(PRECONNECT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("preconnect interrupted:" + node.getUri(), e);
+        } catch (ExecutionException e) {
+            throw new IOException("preconnect failed:" + node.getUri(), e);
+        }
+        try {
+            if (!connection.isOpen()) {
+                HttpClientContext context = HttpClientContext.create();
+                connectionManager.connect(connection, route, PRECONNECT_TIMEOUT_MILLIS, context);
+                connectionManager.routeComplete(connection, route, context);
+            }
+        } finally {
+            connectionManager.releaseConnection(connection, null, keepAliveMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 记录使用节点的module/flag并重新计算节点连接池的上限
+     */
+    private void configureRoute(ModuleDefinition moduleDefinition, NodeDefinition node) {
+        synchronized (routes) {
+            NodeRoute nodeRoute = routes.computeIfAbsent(node.getUri(), uri -> new NodeRoute(toRoute(uri)));
+            if (nodeRoute.moduleKeys.add(moduleDefinition.getKey())) {
+                applyMaxPerRoute(nodeRoute);
+            }
+        }
+    }
+
+    /**
+     * 节点连接池的上限取使用该节点的各module/flag的配置(未单独配置时为默认上限)中最大的一个，
+     * 等于默认上限时不在连接管理器中为节点保存配置
+     * (在routes锁内调用)
+     */
+    private void applyMaxPerRoute(NodeRoute nodeRoute) {
+        int max = 0;
+        for (String moduleKey : nodeRoute.moduleKeys) {
+            max = Math.max(max, maxConnectionsPerNode.getOrDefault(moduleKey, defaultMaxConnectionsPerNode));
+        }
+        if (0 < max && defaultMaxConnectionsPerNode != max) {
+            connectionManager.setMaxPerRoute(nodeRoute.route, max);
+            nodeRoute.limited = true;
+        } else if (nodeRoute.limited) {
+            resetMaxPerRoute(nodeRoute.route);
+            nodeRoute.limited = false;
+        }
+    }
+
+    /**
+     * 移除连接管理器中节点的上限
+     * (较早版本的httpcore不支持移除，改为设置为默认上限)
+     */
+    private void resetMaxPerRoute(HttpRoute route) {
+        try {
+            connectionManager.setMaxPerRoute(route, -1);
+        } catch (IllegalArgumentException e) {
+            connectionManager.setMaxPerRoute(route, defaultMaxConnectionsPerNode);
+        }
+    }
+
+    /**
+     * 移除已不在路由表中的节点及不能再调用的module/flag
+     * (节点的空闲连接由空闲回收关闭，连接池随之释放)
+     */
+    @Override
+    public void onRoutingTableChanged(RoutingTable routingTable) {
+        synchronized (routes) {
+            Iterator<Map.Entry<String, NodeRoute>> iterator = routes.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, NodeRoute> entry = iterator.next();
+                NodeRoute nodeRoute = entry.getValue();
+                if (!routingTable.getServiceURIs().contains(entry.getKey())) {
+                    iterator.remove();
+                    if (nodeRoute.limited) {
+                        resetMaxPerRoute(nodeRoute.route);
+                    }
+                } else if (nodeRoute.moduleKeys.removeIf(moduleKey -> !routingTable.isRoutable(moduleKey))) {
+                    applyMaxPerRoute(nodeRoute);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param uri 节点uri
+     * @return 连接管理器中节点连接池的上限
+     */
+    int getMaxPerRoute(String uri) {
+        return connectionManager.getMaxPerRoute(toRoute(uri));
+    }
+
+    private HttpRoute toRoute(String uri) {
+        HttpHost host = HttpHost.create(uri);
+        boolean secure = "https".equalsIgnoreCase(host.getSchemeName());
+        if (0 >= host.getPort()) {
+            host = new HttpHost(host.getHostName(), secure ? 443 : 80, host.getSchemeName());
+        }
+        return new HttpRoute(host, null, secure);
+    }
+
+    /**
+     * 各节点连接池的统计
+     *
+     * @return key 节点uri value 统计
+     */
+    public Map<String, ConnectionPoolStatistics> getPoolStatistics() {
+        Map<String, ConnectionPoolStatistics> statistics = new HashMap<>();
+        for (Map.Entry<String, NodeRoute> entry : routes.entrySet()) {
+            PoolStats stats = connectionManager.getStats(entry.getValue().route);
+            statistics.put(entry.getKey(), new ConnectionPoolStatistics(entry.getKey(),
+                    stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax()));
+        }
+        return statistics;
+    }
+
+    /**
+     * 全部节点连接池的汇总统计
+     *
+     * @return 统计
+     */
+    public ConnectionPoolStatistics getTotalStatistics() {
+        PoolStats stats = connectionManager.getTotalStats();
+        return new ConnectionPoolStatistics("*", stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax());
+    }
+
+    @Override
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            logger.warn("close pooled transport failed", e);
+        }
+    }
+
+    /**
+     * 节点连接池
+     */
+    private static final class NodeRoute {
+
+        /**
+         * 使用该节点的module/flag
+         * (${ModuleDefinition.module}-${ModuleDefinition.flag})
+         */
+        private final Set<String> moduleKeys = ConcurrentHashMap.newKeySet();
+        private final HttpRoute route;
+        /**
+         * 是否在连接管理器中为节点设置了上限
+         * (在routes锁内访问)
+         */
+        private boolean limited;
+
+        private NodeRoute(HttpRoute route) {
+            this.route = route;
+        }
+
+    }
+
+}
@@ -0,0 +1,252 @@
+package com.page.isomerism.feign;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 远端代理缓存
+ * <p>
+ * 按估算的内存占用(权重)限制总量，超出上限时淘汰最久未访问的代理(近似LRU)：
+ * 每次写入推进一次时钟，读取命中时把条目的访问时钟更新为当前时钟(时钟未变化时不写)，
+ * 淘汰时按访问时钟从旧到新移除并通知淘汰监听。
+ * 被淘汰的代理仍可继续调用，再次获取时重新构造；
+ * 因此条目的资源释放动作在被淘汰的代理不再可达(被GC回收)后才执行
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+final class ProxyCache {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    /**
+     * 淘汰时的通知(在锁外执行) / null
+     */
+    private final Consumer<Entry> evictionListener;
+    /**
+     * 已淘汰、等待代理不可达后释放资源的条目
+     */
+    private final Set<PendingRelease> pendingReleases = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<Object> releaseQueue = new ReferenceQueue<>();
+
+    private volatile long maxWeight;
+    private volatile long clock;
+    private long weight;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    ProxyCache(long maxWeight) {
+        this(maxWeight, null);
+    }
+
+    /**
+     * @param maxWeight        权重上限(小于等于0时不限制)
+     * @param evictionListener 淘汰时的通知 / null
+     */
+    ProxyCache(long maxWeight, Consumer<Entry> evictionListener) {
+        this.maxWeight = maxWeight;
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * 读取代理
+     *
+     * @param key 缓存key
+     * @return 条目 / null
+     */
+    Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (null == entry) {
+            missCount.increment();
+            return null;
+        }
+        touch(entry);
+        return entry;
+    }
+
+    /**
+     * 记录一次由外部快速查找表命中的访问
+     *
+     * @param entry 条目
+     */
+    void touch(Entry entry) {
+        hitCount.increment();
+        long now = clock;
+        if (entry.accessed != now) {
+            entry.accessed = now;
+        }
+    }
+
+    /**
+     * 写入代理
+     * (已存在同key的代理时保留已有的，并释放新构造的代理的资源)
+     *
+     * @param key        缓存key
+     * @param definition 代理定义
+     * @param weight     估算的内存占用
+     * @param release    淘汰时的资源释放动作 / null
+     * @return 缓存中的条目
+     */
+    Entry putIfAbsent(String key, RemoteServiceDefinition<?> definition, int weight, Runnable release) {
+        releaseUnreachable();
+        Entry entry = new Entry(key, definition, Math.max(1, weight), release);
+        Entry previous;
+        List<Entry> evicted;
+        synchronized (this) {
+            previous = entries.putIfAbsent(key, entry);
+            if (null == previous) {
+                entry.accessed = ++clock;
+                this.weight += entry.weight;
+            }
+            evicted = evict(entry);
+        }
+        if (null != previous) {
+            entry.release();
+            return previous;
+        }
+        onEvicted(evicted);
+        return entry;
+    }
+
+    void setMaxWeight(long maxWeight) {
+        releaseUnreachable();
+        List<Entry> evicted;
+        synchronized (this) {
+            this.maxWeight = maxWeight;
+            evicted = evict(null);
+        }
+        onEvicted(evicted);
+    }
+
+    /**
+     * 执行已淘汰且代理不再可达的条目的资源释放动作
+     */
+    void releaseUnreachable() {
+        Reference<?> reference;
+        while (null != (reference = releaseQueue.poll())) {
+            PendingRelease pending = (PendingRelease) reference;
+            if (pendingReleases.remove(pending)) {
+                pending.release.run();
+            }
+        }
+    }
+
+    private void onEvicted(List<Entry> evicted) {
+        for (Entry entry : evicted) {
+            if (null != evictionListener) {
+                evictionListener.accept(entry);
+            }
+            if (null == entry.release) {
+                continue;
+            }
+            Object referent = referentOf(entry.definition.getService());
+            if (null == referent) {
+                entry.release();
+            } else {
+                pendingReleases.add(new PendingRelease(referent, entry.release, releaseQueue));
+            }
+        }
+    }
+
+    /**
+     * 代理可被调用即可达的对象
+     * (JDK代理取其InvocationHandler，调用期间始终可达)
+     */
+    private static Object referentOf(Object service) {
+        return null != service && Proxy.isProxyClass(service.getClass()) ? Proxy.getInvocationHandler(service) : service;
+    }
+
+    /**
+     * 按访问时钟从旧到新淘汰，直到总权重不超过上限
+     * (仅在锁内调用，不淘汰刚写入的条目)
+     */
+    private List<Entry> evict(Entry retained) {
+        if (0 >= maxWeight || weight <= maxWeight) {
+            return new ArrayList<>(0);
+        }
+        List<Entry> candidates = new ArrayList<>(entries.values());
+        candidates.sort(Comparator.comparingLong(entry -> entry.accessed));
+        List<Entry> evicted = new ArrayList<>();
+        for (Entry entry : candidates) {
+            if (weight <= maxWeight) {
+                break;
+            }
+            if (entry == retained) {
+                continue;
+            }
+            entries.remove(entry.key, entry);
+            entry.evicted = true;
+            weight -= entry.weight;
+            evictionCount.increment();
+            evicted.add(entry);
+        }
+        return evicted;
+    }
+
+    ProxyCacheStatistics statistics() {
+        releaseUnreachable();
+        long currentWeight;
+        synchronized (this) {
+            currentWeight = weight;
+        }
+        return new ProxyCacheStatistics(entries.size(), currentWeight, maxWeight,
+                hitCount.sum(), missCount.sum(), evictionCount.sum());
+    }
+
+    static final class Entry {
+
+        private final String key;
+        private final RemoteServiceDefinition<?> definition;
+        private final int weight;
+        private final Runnable release;
+        private volatile long accessed;
+        private volatile boolean evicted;
+
+        private Entry(String key, RemoteServiceDefinition<?> definition, int weight, Runnable release) {
+            this.key = key;
+            this.definition = definition;
+            this.weight = weight;
+            this.release = release;
+        }
+
+        RemoteServiceDefinition<?> getDefinition() {
+            return definition;
+        }
+
+        boolean isEvicted() {
+            return evicted;
+        }
+
+        private void release() {
+            if (null != release) {
+                release.run();
+            }
+        }
+
+    }
+
+    /**
+     * 被淘汰的代理不可达后入队，持有资源释放动作(不引用代理本身)
+     */
+    private static final class PendingRelease extends PhantomReference<Object> {
+
+        private final Runnable release;
+
+        private PendingRelease(Object referent, Runnable release, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.release = release;
+        }
+
+    }
+
+}
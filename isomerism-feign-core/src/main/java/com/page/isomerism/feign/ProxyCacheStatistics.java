@@ -0,0 +1,81 @@
+package com.page.isomerism.feign;
+
+/**
+ * 远端代理缓存统计
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class ProxyCacheStatistics {
+
+    /**
+     * 当前缓存的代理数
+     */
+    private final int size;
+    /**
+     * 当前的总权重(估算的内存占用，单位KB)
+     */
+    private final long weight;
+    /**
+     * 总权重上限
+     */
+    private final long maxWeight;
+    /**
+     * 命中次数
+     */
+    private final long hitCount;
+    /**
+     * 未命中次数
+     */
+    private final long missCount;
+    /**
+     * 淘汰次数
+     */
+    private final long evictionCount;
+
+    public ProxyCacheStatistics(int size, long weight, long maxWeight, long hitCount, long missCount, long evictionCount) {
+        this.size = size;
+        this.weight = weight;
+        this.maxWeight = maxWeight;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getWeight() {
+        return weight;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ProxyCacheStatistics{" +
+                "size=" + size +
+                ", weight=" + weight +
+                ", maxWeight=" + maxWeight +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                '}';
+    }
+
+}
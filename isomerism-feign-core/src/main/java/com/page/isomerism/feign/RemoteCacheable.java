@@ -0,0 +1,46 @@
+package com.page.isomerism.feign;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在客户端缓存远端方法的返回结果
+ * <p>
+ * 标注在远端接口的方法上，按module/flag/方法/参数缓存非null的返回结果。
+ * 缓存容量有上限(按最近最少使用淘汰)，超过存活时间的结果不再返回，
+ * 扫描发现module/flag下有节点下线时清空该module/flag的缓存
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RemoteCacheable {
+
+    /**
+     * 存活时间
+     *
+     * @return 存活时间
+     */
+    long ttl();
+
+    /**
+     * 存活时间的单位
+     *
+     * @return 单位
+     */
+    TimeUnit timeUnit() default TimeUnit.SECONDS;
+
+    /**
+     * 每个module/flag下该方法最多缓存的结果数
+     *
+     * @return 最大数量
+     */
+    int maxSize() default 1024;
+
+}
@@ -0,0 +1,37 @@
+package com.page.isomerism.feign;
+
+/**
+ * 单个module/flag/接口/方法的指标记录
+ * <p>
+ * 每次逻辑调用记录一次(重试及对冲的请求不单独计为调用)，
+ * 在调用线程上同步调用，实现需无锁且尽量不分配对象
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public interface RemoteMetricsRecorder {
+
+    /**
+     * 调用开始
+     */
+    void onStart();
+
+    /**
+     * 调用中发出了一次附加请求(重试或对冲)
+     * (默认不做任何处理)
+     */
+    default void onAdditionalAttempt() {
+    }
+
+    /**
+     * 调用结束
+     *
+     * @param latencyNanos 耗时(纳秒，包括重试及对冲，至收到最终响应的响应头)
+     * @param status       最终响应的状态码(异常时为0)
+     * @param bytesOut     请求体字节数
+     * @param bytesIn      最终响应的响应体字节数(未知时为0)
+     * @param error        最终是否失败(异常或5xx，被重试或对冲挽回的失败不计)
+     */
+    void onComplete(long latencyNanos, int status, long bytesOut, long bytesIn, boolean error);
+
+}
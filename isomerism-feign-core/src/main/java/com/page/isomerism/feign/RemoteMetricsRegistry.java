@@ -0,0 +1,35 @@
+package com.page.isomerism.feign;
+
+/**
+ * 远端调用指标的注册中心
+ * <p>
+ * factory对每个module/flag/接口/方法只获取一次记录器并缓存，
+ * 可替换为对接Micrometer等监控系统的实现
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public interface RemoteMetricsRegistry {
+
+    /**
+     * 获取记录器
+     *
+     * @param module        模块名称
+     * @param flag          区分的flag
+     * @param interfaceName 声明方法的接口的全限定名
+     * @param method        方法名称(含参数类型)
+     * @return 记录器
+     */
+    RemoteMetricsRecorder recorder(String module, String flag, String interfaceName, String method);
+
+    /**
+     * 移除module/flag的全部记录器
+     * (module/flag不能再调用后由factory调用，默认不做处理)
+     *
+     * @param module 模块名称
+     * @param flag   区分的flag
+     */
+    default void remove(String module, String flag) {
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.page.isomerism.feign;
+
+/**
+ * 远端调用指标快照
+ * <p>
+ * 耗时单位为微秒，耗时分位及调用/失败次数为自上一次快照以来的区间值
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class RemoteMetricsSnapshot {
+
+    private String module;
+    private String flag;
+    private String interfaceName;
+    private String method;
+    /**
+     * 区间内完成的调用次数
+     */
+    private long count;
+    /**
+     * 区间内失败的调用次数
+     */
+    private long errors;
+    /**
+     * 区间内的附加请求(重试及对冲)次数
+     */
+    private long additionalAttempts;
+    /**
+     * 进行中的调用数
+     */
+    private long inFlight;
+    /**
+     * 累计请求体字节数
+     */
+    private long bytesOut;
+    /**
+     * 累计响应体字节数
+     */
+    private long bytesIn;
+    private long p50;
+    private long p99;
+    private long p999;
+    private long max;
+
+    public String getModule() {
+        return module;
+    }
+
+    public void setModule(String module) {
+        this.module = module;
+    }
+
+    public String getFlag() {
+        return flag;
+    }
+
+    public void setFlag(String flag) {
+        this.flag = flag;
+    }
+
+    public String getInterfaceName() {
+        return interfaceName;
+    }
+
+    public void setInterfaceName(String interfaceName) {
+        this.interfaceName = interfaceName;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public void setErrors(long errors) {
+        this.errors = errors;
+    }
+
+    public long getAdditionalAttempts() {
+        return additionalAttempts;
+    }
+
+    public void setAdditionalAttempts(long additionalAttempts) {
+        this.additionalAttempts = additionalAttempts;
+    }
+
+    public long getInFlight() {
+        return inFlight;
+    }
+
+    public void setInFlight(long inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    public void setBytesOut(long bytesOut) {
+        this.bytesOut = bytesOut;
+    }
+
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    public void setBytesIn(long bytesIn) {
+        this.bytesIn = bytesIn;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public void setP50(long p50) {
+        this.p50 = p50;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public void setP99(long p99) {
+        this.p99 = p99;
+    }
+
+    public long getP999() {
+        return p999;
+    }
+
+    public void setP999(long p999) {
+        this.p999 = p999;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public void setMax(long max) {
+        this.max = max;
+    }
+
+    @Override
+    public String toString() {
+        return "RemoteMetricsSnapshot{" +
+                "module='" + module + '\'' +
+                ", flag='" + flag + '\'' +
+                ", interfaceName='" + interfaceName + '\'' +
+                ", method='" + method + '\'' +
+                ", count=" + count +
+                ", errors=" + errors +
+                ", additionalAttempts=" + additionalAttempts +
+                ", inFlight=" + inFlight +
+                ", bytesOut=" + bytesOut +
+                ", bytesIn=" + bytesIn +
+                ", p50=" + p50 +
+                ", p99=" + p99 +
+                ", p999=" + p999 +
+                ", max=" + max +
+                '}';
+    }
+
+}
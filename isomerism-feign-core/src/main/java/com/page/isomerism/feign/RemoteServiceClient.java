@@ -0,0 +1,383 @@
+package com.page.isomerism.feign;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 负载均衡的Feign Client
+ * <p>
+ * 每个远端代理绑定一个实例，代理以固定的目标地址(targetUrl)构造，
+ * 每次调用时从当前路由表解析module/flag的节点，并将请求地址改写为选中节点的uri，
+ * 因此节点上下线只替换路由表，不需要重建代理；
+ * 请求声明了路由key时按一致性哈希选择节点，声明了目标实例时只发往该节点
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+class RemoteServiceClient implements Client {
+
+    private final AbstractRemoteServiceFeignFactory factory;
+    private final String module;
+    private final String flag;
+    /**
+     * ${ModuleDefinition.module}-${ModuleDefinition.flag}
+     */
+    private final String moduleKey;
+    /**
+     * 代理构造时使用的目标地址
+     */
+    private final String url;
+
+    RemoteServiceClient(AbstractRemoteServiceFeignFactory factory, String module, String flag, String url) {
+        this.factory = factory;
+        this.module = module;
+        this.flag = flag;
+        this.moduleKey = module + "-" + flag;
+        this.url = url;
+    }
+
+    String getModuleKey() {
+        return moduleKey;
+    }
+
+    /**
+     * 代理构造时使用的目标地址
+     * (仅作为请求地址的前缀，不对应任何节点)
+     *
+     * @param module 模块名称
+     * @param flag   flag
+     * @return http://${module}-${flag}
+     */
+    static String targetUrl(String module, String flag) {
+        return "http://" + module + "-" + flag;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        String requestUrl = request.url();
+        if (!requestUrl.startsWith(url)) {
+            return factory.getRemoteTransport().execute(RemoteServiceContract.route(request, requestUrl, null), options, null, null);
+        }
+        ModuleDefinition moduleDefinition = factory.getModuleDefinition(moduleKey, module, flag);
+        if (null == moduleDefinition || moduleDefinition.getNodes().isEmpty()) {
+            throw new IOException("no node available,module:" + moduleKey);
+        }
+        Semaphore semaphore = factory.getModuleSemaphore(moduleKey);
+        if (null == semaphore) {
+            return execute(request, requestUrl, options, moduleDefinition);
+        }
+        /* 虚拟线程调用模式下按module/flag限制并发，等待时间不超过读超时 */
+        try {
+            if (!semaphore.tryAcquire(options.readTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ConcurrencyLimitExceededException(moduleKey, factory.getMaxConcurrentRequestsPerModule());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("acquire module permit interrupted");
+        }
+        try {
+            return execute(request, requestUrl, options, moduleDefinition);
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    /**
+     * 一次逻辑调用(包括其中的重试及对冲)只记录一次指标，
+     * 耗时为整个调用的耗时，状态码及是否失败取最终的结果
+     */
+    private Response execute(Request request, String requestUrl, Request.Options options, ModuleDefinition moduleDefinition) throws IOException {
+        String methodKey = RemoteServiceContract.methodOf(request);
+        RemoteMetricsRecorder recorder = factory.getMetricsRecorder(moduleDefinition, methodKey);
+        recorder.onStart();
+        long start = System.nanoTime();
+        int status = 0;
+        long bytesIn = 0L;
+        try {
+            Response response = dispatch(request, requestUrl.substring(url.length()), options, moduleDefinition, methodKey, recorder);
+            status = response.status();
+            if (null != response.body() && null != response.body().length()) {
+                bytesIn = response.body().length();
+            }
+            return response;
+        } finally {
+            Request.Body body = request.requestBody();
+            recorder.onComplete(System.nanoTime() - start, status, null == body ? 0L : body.length(), bytesIn,
+                    0 == status || 500 <= status);
+        }
+    }
+
+    private Response dispatch(Request request, String path, Request.Options options, ModuleDefinition moduleDefinition,
+                              String methodKey, RemoteMetricsRecorder recorder) throws IOException {
+        String targetInstance = moduleDefinition.isGateway() ? null : RemoteServiceContract.targetInstanceOf(request);
+        if (null != targetInstance) {
+            return send(request, path, options, moduleDefinition, target(moduleDefinition, targetInstance));
+        }
+        OutlierDetector outlierDetector = factory.getOutlierDetector();
+        List<NodeDefinition> nodes = null == outlierDetector ? moduleDefinition.getNodes() : outlierDetector.available(moduleDefinition);
+        boolean idempotent = RemoteServiceContract.isIdempotent(request);
+        RetryPolicy retryPolicy = factory.getRetryPolicy();
+        String routingKey = RemoteServiceContract.routingKeyOf(request);
+        LoadBalancer loadBalancer = null == routingKey ? factory.getLoadBalancer() : factory.getConsistentHashRouter().forKey(routingKey);
+        if (null == retryPolicy || 1 >= retryPolicy.getMaxAttempts()) {
+            return attempt(request, path, options, moduleDefinition, nodes, loadBalancer, loadBalancer.choose(moduleDefinition, nodes),
+                    methodKey, recorder, idempotent);
+        }
+        RequestBudget budget = retryPolicy.budget(moduleDefinition.getKey());
+        retryPolicy.deposit(budget);
+        List<NodeDefinition> candidates = nodes;
+        long backoff = 0L;
+        for (int attempt = 1; ; attempt++) {
+            boolean last = attempt >= retryPolicy.getMaxAttempts();
+            NodeDefinition node = loadBalancer.choose(moduleDefinition, candidates);
+            if (1 < attempt) {
+                recorder.onAdditionalAttempt();
+            }
+            try {
+                Response response = attempt(request, path, options, moduleDefinition, candidates, loadBalancer, node,
+                        methodKey, recorder, idempotent);
+                if (last || !retryPolicy.isRetryable(response.status(), idempotent) || !budget.withdraw()) {
+                    return response;
+                }
+                response.close();
+            } catch (IOException e) {
+                if (last || !retryPolicy.isRetryable(e, idempotent) || !budget.withdraw()) {
+                    throw e;
+                }
+            }
+            backoff = retryPolicy.backoff(backoff);
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("retry interrupted");
+            }
+            /* 重试发往其他节点(只剩失败的节点时仍使用全部节点) */
+            candidates = exclude(candidates, node, nodes);
+        }
+    }
+
+    /**
+     * 定向调用的目标节点
+     * (不经过异常节点剔除，节点不在路由表中时失败)
+     */
+    private NodeDefinition target(ModuleDefinition moduleDefinition, String instanceId) throws IOException {
+        for (NodeDefinition node : moduleDefinition.getNodes()) {
+            if (instanceId.equals(node.getInstanceId())) {
+                return node;
+            }
+        }
+        throw new IOException("instance not available,module:" + moduleKey + ",instance:" + instanceId);
+    }
+
+    /**
+     * 向选中的节点发送一次请求(必要时对冲)
+     */
+    private Response attempt(Request request, String path, Request.Options options, ModuleDefinition moduleDefinition,
+                             List<NodeDefinition> nodes, LoadBalancer loadBalancer, NodeDefinition node, String methodKey,
+                             RemoteMetricsRecorder recorder, boolean idempotent) throws IOException {
+        HedgePolicy hedgePolicy = factory.getHedgePolicy();
+        if (null != hedgePolicy && idempotent && 1 < nodes.size()) {
+            return hedge(hedgePolicy.tracker(moduleDefinition.getKey(), methodKey), request, path, options,
+                    moduleDefinition, nodes, loadBalancer, node, recorder);
+        }
+        return send(request, path, options, moduleDefinition, node);
+    }
+
+    private static List<NodeDefinition> exclude(List<NodeDefinition> candidates, NodeDefinition failed, List<NodeDefinition> nodes) {
+        List<NodeDefinition> remaining = new ArrayList<>(candidates.size());
+        for (NodeDefinition node : candidates) {
+            if (node != failed) {
+                remaining.add(node);
+            }
+        }
+        return remaining.isEmpty() ? nodes : remaining;
+    }
+
+    /**
+     * 向指定节点发送请求
+     * (被取消的对冲请求不计入节点的失败统计)
+     */
+    private Response send(Request request, String path, Request.Options options, ModuleDefinition moduleDefinition,
+                          NodeDefinition node) throws IOException {
+        Request routed = RemoteServiceContract.route(request, node.getUri() + path, moduleDefinition);
+        ConcurrencyLimiter limiter = factory.getConcurrencyLimiter(moduleDefinition);
+        if (null != limiter && !limiter.tryAcquire()) {
+            throw new ConcurrencyLimitExceededException(moduleKey, limiter.getLimit());
+        }
+        OutlierDetector outlierDetector = factory.getOutlierDetector();
+        NodeStatistics statistics = node.getStatistics();
+        statistics.incrementActiveRequests();
+        long start = System.nanoTime();
+        int status = 0;
+        try {
+            Response response = factory.getRemoteTransport().execute(routed, options, moduleDefinition, node);
+            status = response.status();
+            return response;
+        } finally {
+            long latency = System.nanoTime() - start;
+            boolean cancelled = 0 == status && Thread.currentThread().isInterrupted();
+            statistics.decrementActiveRequests();
+            if (null != limiter) {
+                limiter.release(latency, !cancelled && (0 == status || 429 == status || 503 == status));
+            }
+            if (null != outlierDetector && !cancelled) {
+                outlierDetector.onResult(moduleDefinition, node, latency, 0 == status || 500 <= status);
+            }
+        }
+    }
+
+    /**
+     * 对冲请求
+     * <p>
+     * 首个请求超过该方法近期耗时的分位值仍未返回时(且预算足够)，向另一个节点再发送一次，
+     * 取先返回的响应，另一个请求被中断(未开始的不再发送)，晚返回的响应直接关闭
+     */
+    private Response hedge(HedgePolicy.Tracker tracker, Request request, String path, Request.Options options,
+                           ModuleDefinition moduleDefinition, List<NodeDefinition> nodes, LoadBalancer loadBalancer,
+                           NodeDefinition primary, RemoteMetricsRecorder recorder) throws IOException {
+        tracker.deposit();
+        long delayNanos = tracker.delayNanos();
+        HedgedCall call = new HedgedCall(tracker);
+        Executor executor = factory.getAsyncExecutor();
+        /* 样本不足或执行器已满时不对冲 */
+        if (0 > delayNanos || !call.submit(executor, () -> send(request, path, options, moduleDefinition, primary))) {
+            long start = System.nanoTime();
+            Response response = send(request, path, options, moduleDefinition, primary);
+            tracker.record(System.nanoTime() - start);
+            return response;
+        }
+        try {
+            Response response = call.await(delayNanos);
+            if (null != response) {
+                return response;
+            }
+            if (tracker.withdraw()) {
+                List<NodeDefinition> others = new ArrayList<>(nodes.size() - 1);
+                for (NodeDefinition node : nodes) {
+                    if (node != primary) {
+                        others.add(node);
+                    }
+                }
+                NodeDefinition secondary = loadBalancer.choose(moduleDefinition, others);
+                if (call.submit(executor, () -> send(request, path, options, moduleDefinition, secondary))) {
+                    recorder.onAdditionalAttempt();
+                }
+            }
+            return call.await(-1L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("hedged request interrupted");
+        } finally {
+            call.cancel();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Attempt {
+
+        Response send() throws IOException;
+
+    }
+
+    /**
+     * 一次对冲调用中的全部请求
+     */
+    private static final class HedgedCall {
+
+        private final HedgePolicy.Tracker tracker;
+        private final CompletableFuture<Response> result = new CompletableFuture<>();
+        /**
+         * 尚未失败的请求数(全部失败时以最后一个异常结束)
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+        private final List<Future<?>> attempts = new ArrayList<>(2);
+
+        private HedgedCall(HedgePolicy.Tracker tracker) {
+            this.tracker = tracker;
+        }
+
+        private boolean submit(Executor executor, Attempt attempt) {
+            pending.incrementAndGet();
+            FutureTask<Void> task = new FutureTask<>(() -> run(attempt), null);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                pending.decrementAndGet();
+                return false;
+            }
+            attempts.add(task);
+            return true;
+        }
+
+        private void run(Attempt attempt) {
+            long start = System.nanoTime();
+            Response response;
+            try {
+                response = attempt.send();
+            } catch (Throwable t) {
+                if (0 == pending.decrementAndGet()) {
+                    result.completeExceptionally(t);
+                }
+                return;
+            }
+            tracker.record(System.nanoTime() - start);
+            if (!result.complete(response)) {
+                response.close();
+            }
+        }
+
+        /**
+         * @param timeoutNanos 等待时间，小于0时一直等待
+         * @return 响应 / null(等待超时)
+         */
+        private Response await(long timeoutNanos) throws IOException, InterruptedException {
+            try {
+                return 0 > timeoutNanos ? result.get() : result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                return null;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+
+        /**
+         * 中断尚未结束的请求
+         * (Http2RemoteTransport及虚拟线程上的阻塞IO随即中止并释放连接及并发许可，
+         * 平台线程上的阻塞IO无法中断，直到返回或读超时)
+         */
+        private void cancel() {
+            for (Future<?> attempt : attempts) {
+                attempt.cancel(true);
+            }
+        }
+
+    }
+
+}
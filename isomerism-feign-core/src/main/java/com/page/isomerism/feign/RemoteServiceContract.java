@@ -0,0 +1,201 @@
+package com.page.isomerism.feign;
+
+import feign.MethodMetadata;
+import feign.Request;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 远端接口的Contract
+ * <p>
+ * 在SpringMvcContract的基础上为每个方法的请求模板加入方法标识头，
+ * 使Client能够按接口方法统计；
+ * 标注了RoutingKey、TargetInstance的参数同样以请求头传给Client，这些头在请求发出前移除
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+class RemoteServiceContract extends SpringMvcContract {
+
+    /**
+     * 方法标识头 (值为声明方法的接口的全限定名及方法签名，如 com.example.UserService#getUser(long))
+     */
+    static final String HEADER_METHOD = "X-Isomerism-Method";
+    /**
+     * 幂等标识头(方法或接口标注了Idempotent)
+     */
+    static final String HEADER_IDEMPOTENT = "X-Isomerism-Idempotent";
+    /**
+     * 经由网关转发时目标module/flag的请求头
+     */
+    static final String HEADER_TARGET_MODULE = "X-Isomerism-Module";
+    static final String HEADER_TARGET_FLAG = "X-Isomerism-Flag";
+    /**
+     * 一致性哈希路由的key(参数标注RoutingKey)
+     */
+    static final String HEADER_ROUTING_KEY = "X-Isomerism-Routing-Key";
+    /**
+     * 作为路由key的请求头名称(接口或方法标注RoutingKey)
+     */
+    static final String HEADER_ROUTING_HEADER = "X-Isomerism-Routing-Header";
+    /**
+     * 定向调用的目标instanceId(参数标注TargetInstance)
+     * (经由网关转发时保留)
+     */
+    static final String HEADER_TARGET_INSTANCE = "X-Isomerism-Instance";
+
+    private static final String PARAM_ROUTING_KEY = "isomerismRoutingKey";
+    private static final String PARAM_TARGET_INSTANCE = "isomerismTargetInstance";
+
+    @Override
+    public MethodMetadata parseAndValidateMetadata(Class<?> targetType, Method method) {
+        MethodMetadata metadata = super.parseAndValidateMetadata(targetType, method);
+        String configKey = metadata.configKey();
+        metadata.template().header(HEADER_METHOD, method.getDeclaringClass().getName() + configKey.substring(configKey.indexOf('#')));
+        Idempotent idempotent = method.getAnnotation(Idempotent.class);
+        if (null == idempotent) {
+            idempotent = targetType.getAnnotation(Idempotent.class);
+        }
+        if (null != idempotent && idempotent.value()) {
+            metadata.template().header(HEADER_IDEMPOTENT, "true");
+        }
+        if (!metadata.template().headers().containsKey(HEADER_ROUTING_KEY)) {
+            RoutingKey routingKey = method.getAnnotation(RoutingKey.class);
+            if (null == routingKey) {
+                routingKey = targetType.getAnnotation(RoutingKey.class);
+            }
+            if (null != routingKey && !routingKey.header().isEmpty()) {
+                metadata.template().header(HEADER_ROUTING_HEADER, routingKey.header());
+            }
+        }
+        return metadata;
+    }
+
+    @Override
+    protected boolean processAnnotationsOnParameter(MethodMetadata data, Annotation[] annotations, int paramIndex) {
+        boolean isHttpAnnotation = super.processAnnotationsOnParameter(data, annotations, paramIndex);
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof RoutingKey) {
+                nameParam(data, PARAM_ROUTING_KEY, paramIndex);
+                data.template().header(HEADER_ROUTING_KEY, "{" + PARAM_ROUTING_KEY + "}");
+                isHttpAnnotation = true;
+            } else if (annotation instanceof TargetInstance) {
+                nameParam(data, PARAM_TARGET_INSTANCE, paramIndex);
+                data.template().header(HEADER_TARGET_INSTANCE, "{" + PARAM_TARGET_INSTANCE + "}");
+                isHttpAnnotation = true;
+            }
+        }
+        return isHttpAnnotation;
+    }
+
+    /**
+     * 请求是否幂等
+     * (GET/HEAD/OPTIONS或标注了Idempotent)
+     *
+     * @param request 请求
+     * @return true/false
+     */
+    static boolean isIdempotent(Request request) {
+        switch (request.httpMethod()) {
+            case GET:
+            case HEAD:
+            case OPTIONS:
+                return true;
+            default:
+                return request.headers().containsKey(HEADER_IDEMPOTENT);
+        }
+    }
+
+    /**
+     * 读取请求的方法标识
+     *
+     * @param request 请求
+     * @return ${接口的全限定名}#${方法签名} / null
+     */
+    static String methodOf(Request request) {
+        Collection<String> values = request.headers().get(HEADER_METHOD);
+        return null == values || values.isEmpty() ? null : values.iterator().next();
+    }
+
+    /**
+     * 读取请求的一致性哈希路由key
+     *
+     * @param request 请求
+     * @return key / null(未声明或值为空)
+     */
+    static String routingKeyOf(Request request) {
+        String routingKey = headerOf(request, HEADER_ROUTING_KEY);
+        if (null == routingKey) {
+            String header = headerOf(request, HEADER_ROUTING_HEADER);
+            if (null != header) {
+                routingKey = headerOf(request, header);
+            }
+        }
+        return routingKey;
+    }
+
+    /**
+     * 读取请求定向调用的目标instanceId
+     *
+     * @param request 请求
+     * @return instanceId / null(未声明或值为空)
+     */
+    static String targetInstanceOf(Request request) {
+        return headerOf(request, HEADER_TARGET_INSTANCE);
+    }
+
+    private static String headerOf(Request request, String name) {
+        Map<String, Collection<String>> headers = request.headers();
+        Collection<String> values = headers.get(name);
+        if (null == values) {
+            for (Map.Entry<String, Collection<String>> entry : headers.entrySet()) {
+                if (name.equalsIgnoreCase(entry.getKey())) {
+                    values = entry.getValue();
+                    break;
+                }
+            }
+        }
+        if (null == values || values.isEmpty()) {
+            return null;
+        }
+        String value = values.iterator().next();
+        return null == value || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * 以新地址重建请求并移除方法标识头
+     * (经由网关转发时加入目标module/flag的请求头)
+     *
+     * @param request          请求
+     * @param url              请求地址
+     * @param moduleDefinition 目标模块定义(可为null)
+     * @return 实际发出的请求
+     */
+    static Request route(Request request, String url, ModuleDefinition moduleDefinition) {
+        Map<String, Collection<String>> headers = request.headers();
+        boolean gateway = null != moduleDefinition && moduleDefinition.isGateway();
+        if (headers.containsKey(HEADER_METHOD) || gateway) {
+            headers = new LinkedHashMap<>(headers);
+            headers.remove(HEADER_METHOD);
+            headers.remove(HEADER_IDEMPOTENT);
+            headers.remove(HEADER_ROUTING_KEY);
+            headers.remove(HEADER_ROUTING_HEADER);
+            if (gateway) {
+                headers.put(HEADER_TARGET_MODULE, Collections.singletonList(moduleDefinition.getModule()));
+                headers.put(HEADER_TARGET_FLAG, Collections.singletonList(moduleDefinition.getFlag()));
+            } else {
+                headers.remove(HEADER_TARGET_INSTANCE);
+            }
+        } else if (url.equals(request.url())) {
+            return request;
+        }
+        return Request.create(request.httpMethod(), url, headers, request.requestBody());
+    }
+
+}
@@ -4,6 +4,13 @@ import feign.codec.Decoder;
 import feign.codec.Encoder;
 import feign.codec.ErrorDecoder;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 /**
  * RemoteServiceFeignFactory
  *
@@ -29,6 +36,83 @@ public interface RemoteServiceFeignFactory {
      */
     void setScanPeriod(int seconds);
 
+    /**
+     * 设置扫描周期的随机抖动比例
+     * (默认 20，即每次扫描间隔在周期的80%-120%之间随机，避免同一集群的实例同时扫描注册中心)
+     *
+     * @param scanJitterPercent 抖动比例 (0-100)
+     */
+    void setScanJitterPercent(int scanJitterPercent);
+
+    /**
+     * 设置并行拉取服务实例的线程数
+     * (默认 4，1 为逐个拉取)
+     *
+     * @param scanParallelism 线程数
+     */
+    void setScanParallelism(int scanParallelism);
+
+    /**
+     * 设置一次扫描中拉取服务实例的超时时间
+     * (单位 秒，默认 5，超时的服务沿用上一次扫描的结果)
+     *
+     * @param seconds 超时时间
+     */
+    void setScanTimeout(int seconds);
+
+    /**
+     * 设置路由表快照文件
+     * <p>
+     * 每次扫描完成后将各服务的实例写入该文件，启动时在首次扫描之前由其恢复路由表，
+     * 首次扫描完成之前或启动时注册中心不可用也能获取代理并调用；
+     * 尚未完成过扫描时设置即由该文件恢复路由表
+     * (默认 null 不保存快照，最长有效时间需在此之前设置)
+     *
+     * @param snapshotPath 快照文件路径
+     */
+    void setSnapshotPath(String snapshotPath);
+
+    /**
+     * 设置快照的最长有效时间
+     * (单位 秒，默认 600，写入时间超过该值的快照启动时不使用)
+     *
+     * @param seconds 最长有效时间
+     */
+    void setSnapshotMaxAge(int seconds);
+
+    /**
+     * 获取发现扫描的统计
+     *
+     * @return 扫描统计
+     */
+    ScanStatistics getScanStatistics();
+
+    /**
+     * 设置同一module/flag多节点间的负载均衡策略
+     * (默认 RoundRobinLoadBalancer)
+     *
+     * @param loadBalancer 负载均衡策略
+     */
+    void setLoadBalancer(LoadBalancer loadBalancer);
+
+    /**
+     * 设置一致性哈希路由(远端方法声明了RoutingKey)的负载上限系数
+     * <p>
+     * 节点进行中的请求数达到平均值的loadFactor倍时，该节点上的key顺延到下一个节点
+     * (默认 1.25，不大于0时不限制)
+     *
+     * @param loadFactor 负载上限系数
+     */
+    void setConsistentHashLoadFactor(double loadFactor);
+
+    /**
+     * 设置发送请求的传输层
+     * (默认 DefaultRemoteTransport,可替换为带连接池的PooledRemoteTransport或HTTP/2的Http2RemoteTransport)
+     *
+     * @param remoteTransport 传输层
+     */
+    void setRemoteTransport(RemoteTransport remoteTransport);
+
     /**
      * 获取接口的实现远端
      * (该实现屏蔽异常，无法获得远端实现代理将返回null)
@@ -55,6 +139,192 @@ public interface RemoteServiceFeignFactory {
      */
     <T> T getRemoteServiceInstance(String module, Class<T> classOfT) throws Exception;
 
+    /**
+     * 获取接口的异步实现远端
+     * (接口方法声明返回CompletableFuture&lt;T&gt;，调用在独立的有界执行器上进行)
+     * (module/flag的解析及代理缓存与getRemoteServiceInstance一致)
+     *
+     * @param module   模块名称
+     * @param flag     区分的flag
+     * @param classOfT 远端接口Class
+     * @param <T>      接口类型
+     * @return 远端接口的代理实例
+     * @throws IllegalArgumentException 接口中不存在返回CompletableFuture的方法
+     */
+    <T> T getAsyncRemoteServiceInstance(String module, String flag, Class<T> classOfT);
+
+    /**
+     * 在模块的全部flag上并行调用同一接口
+     * <p>
+     * flag取自当前路由表中该模块可直接调用的module/flag，各flag的调用在异步执行器上并行进行，
+     * 共用一个截止时间：超过截止时间仍未返回的flag记为TimeoutException，
+     * 单个flag的异常只记录在该flag下，不影响其他flag的结果
+     * (如 factory.broadcast("user", UserService.class, service -&gt; service.getUser(1), 2, TimeUnit.SECONDS))
+     *
+     * @param module     模块名称
+     * @param classOfT   远端接口Class
+     * @param invocation 对每个flag的代理进行的调用
+     * @param timeout    截止时间
+     * @param unit       截止时间的单位
+     * @param <T>        接口类型
+     * @param <R>        结果类型
+     * @return 按flag记录的结果及异常
+     * @throws IllegalArgumentException module为空，或classOfT、invocation、unit为null
+     */
+    <T, R> BroadcastResult<R> broadcast(String module, Class<T> classOfT, Function<? super T, ? extends R> invocation,
+                                        long timeout, TimeUnit unit);
+
+    /**
+     * 设置异步调用的执行器
+     * (默认 有界线程池，线程数为CPU核数*8且不少于16)
+     *
+     * @param asyncExecutor 执行器
+     */
+    void setAsyncExecutor(ExecutorService asyncExecutor);
+
+    /**
+     * 设置虚拟线程调用模式
+     * <p>
+     * 启用后异步调用(及对冲请求)在虚拟线程上执行(需Java 21及以上的运行时，否则仍使用默认的有界线程池)；
+     * 同步调用不会切换到虚拟线程，仍在调用方线程上执行(HystrixFeign改为信号量隔离，不再占用Hystrix线程池)，
+     * 调用方本身为虚拟线程时阻塞IO才不占用平台线程，
+     * 各module/flag的并发调用数由信号量限制，等待超过读超时时间抛出ConcurrencyLimitExceededException
+     * (默认 false；需在获取代理之前设置，已通过setAsyncExecutor设置的执行器保持不变)
+     *
+     * @param virtualThreads 是否启用
+     */
+    void setVirtualThreads(boolean virtualThreads);
+
+    /**
+     * 设置虚拟线程调用模式下每个module/flag的最大并发调用数
+     * (默认 1000；可随时调整，进行中的调用不受影响)
+     *
+     * @param maxConcurrentRequestsPerModule 最大并发调用数
+     */
+    void setMaxConcurrentRequestsPerModule(int maxConcurrentRequestsPerModule);
+
+    /**
+     * 获取结果缓存(RemoteCacheable)的统计
+     *
+     * @return 各module/flag各方法的缓存统计
+     */
+    List<ResponseCacheStatistics> getResponseCacheStatistics();
+
+    /**
+     * 设置调用指标的注册中心
+     * (默认 InMemoryRemoteMetricsRegistry)
+     *
+     * @param metricsRegistry 指标注册中心
+     */
+    void setMetricsRegistry(RemoteMetricsRegistry metricsRegistry);
+
+    /**
+     * 获取调用指标的注册中心
+     *
+     * @return 指标注册中心
+     */
+    RemoteMetricsRegistry getMetricsRegistry();
+
+    /**
+     * 设置module/flag的并发限制
+     * <p>
+     * 每个module/flag由supplier构造一个限制实例，超过上限的调用直接抛出ConcurrencyLimitExceededException
+     * (默认 null 不限制，如 GradientConcurrencyLimiter::new)
+     *
+     * @param concurrencyLimiterSupplier 并发限制的构造方式
+     */
+    void setConcurrencyLimiter(Supplier<ConcurrencyLimiter> concurrencyLimiterSupplier);
+
+    /**
+     * 获取各module/flag当前的并发上限
+     *
+     * @return key ${module}-${flag} value 并发上限
+     */
+    Map<String, Integer> getConcurrencyLimits();
+
+    /**
+     * 设置异常节点探测
+     * <p>
+     * 按调用结果统计各节点的连续失败、失败比例及耗时，临时摘除异常节点(指数退避后恢复)
+     * (默认 null 不探测)
+     *
+     * @param outlierDetector 异常节点探测
+     */
+    void setOutlierDetector(OutlierDetector outlierDetector);
+
+    /**
+     * 获取各module/flag下节点的异常探测状态
+     *
+     * @return 节点状态
+     */
+    List<OutlierStatistics> getOutlierStatistics();
+
+    /**
+     * 设置重试策略
+     * <p>
+     * 仅重试连接失败及幂等方法的IO异常/502/503/504，重试发往其他节点，
+     * 间隔为decorrelated jitter退避，每个module/flag的重试次数受预算限制
+     * (默认 最多3次尝试，重试不超过调用次数的10%；null 不重试)
+     *
+     * @param retryPolicy 重试策略
+     */
+    void setRetryPolicy(RetryPolicy retryPolicy);
+
+    /**
+     * 设置对冲请求策略
+     * <p>
+     * 幂等方法(GET/HEAD/OPTIONS或标注Idempotent)耗时超过近期分位值时向另一个节点再发送一次请求，取先返回的结果
+     * (默认 null 不对冲)
+     *
+     * @param hedgePolicy 对冲请求策略
+     */
+    void setHedgePolicy(HedgePolicy hedgePolicy);
+
+    /**
+     * 获取当前的路由表
+     * (不可变，扫描发现变化时整体替换并递增版本号)
+     *
+     * @return 路由表
+     */
+    RoutingTable getRoutingTable();
+
+    /**
+     * 注册需要预热的远端接口
+     * <p>
+     * 扫描发现该模块新的flag(或节点变化)时，在后台线程中预先构造代理，
+     * 注册时已存在的flag立即预热
+     *
+     * @param module   模块名称
+     * @param classOfT 接口的Class
+     */
+    void registerRemoteService(String module, Class<?> classOfT);
+
+    /**
+     * 设置预热时是否预先建立到节点的连接
+     * (默认 false，仅PooledRemoteTransport、Http2RemoteTransport等复用连接的传输层生效)
+     *
+     * @param preconnect 是否预先建立连接
+     */
+    void setPreconnect(boolean preconnect);
+
+    /**
+     * 设置代理缓存的权重上限
+     * <p>
+     * 权重为估算的内存占用(单位KB，Feign代理每个方法约2KB，Hystrix代理每个方法另加约16KB的command状态)，
+     * 超出上限时淘汰最久未访问的代理；被淘汰的代理仍可调用，再次获取时重新构造，不再可达后释放其Hystrix状态
+     * (默认 65536，即64MB；0 不限制)
+     *
+     * @param maxWeight 权重上限
+     */
+    void setProxyCacheMaxWeight(long maxWeight);
+
+    /**
+     * 获取代理缓存的统计
+     *
+     * @return 代理缓存统计
+     */
+    ProxyCacheStatistics getProxyCacheStatistics();
+
     /**
      * 构造远程实现代理
      *
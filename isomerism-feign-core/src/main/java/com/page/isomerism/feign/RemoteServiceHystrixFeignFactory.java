@@ -27,6 +27,14 @@ public interface RemoteServiceHystrixFeignFactory
      */
     void setExecutionIsolationSemaphoreMaxConcurrentRequests(int executionIsolationSemaphoreMaxConcurrentRequests);
 
+    /**
+     * 设置启用并发限制(setConcurrencyLimiter)时Hystrix隔离允许的最大并发数
+     * (默认 200，须在首次构造代理前设置)
+     *
+     * @param adaptiveMaxConcurrentRequests 最大并发数
+     */
+    void setAdaptiveMaxConcurrentRequests(int adaptiveMaxConcurrentRequests);
+
     /**
      * 设置断路器打开的失败比例
      *
@@ -0,0 +1,241 @@
+package com.page.isomerism.feign;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 远端代理的外层InvocationHandler
+ * <p>
+ * 包装Feign构造的代理：标注了RemoteCacheable的方法优先读取结果缓存，
+ * 标注了SingleFlight的方法合并并发的相同调用，
+ * 返回CompletableFuture的方法在异步执行器上调用，
+ * 其余方法直接交由Feign的InvocationHandler同步调用
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+class RemoteServiceInvocationHandler implements InvocationHandler {
+
+    private final Object target;
+    private final InvocationHandler delegate;
+    private final AbstractRemoteServiceFeignFactory factory;
+    private final Class<?> classOfT;
+    /**
+     * ${module}-${flag}
+     */
+    private final String moduleKey;
+    private final Map<Method, MethodSettings> methodSettings;
+
+    /**
+     * 进行中的合并调用
+     */
+    private final ConcurrentHashMap<InvocationKey, CompletableFuture<Object>> inFlightCalls = new ConcurrentHashMap<>();
+
+    private RemoteServiceInvocationHandler(Object target, AbstractRemoteServiceFeignFactory factory, Class<?> classOfT,
+                                           String moduleKey, Map<Method, MethodSettings> methodSettings) {
+        this.target = target;
+        this.delegate = Proxy.getInvocationHandler(target);
+        this.factory = factory;
+        this.classOfT = classOfT;
+        this.moduleKey = moduleKey;
+        this.methodSettings = methodSettings;
+    }
+
+    /**
+     * 包装Feign构造的代理
+     * (接口中不存在需要包装的方法时原样返回)
+     *
+     * @param classOfT  接口的Class
+     * @param target    Feign构造的代理
+     * @param factory   factory
+     * @param moduleKey ${module}-${flag}
+     * @param <T>       接口的类
+     * @return 代理
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T wrap(Class<T> classOfT, T target, AbstractRemoteServiceFeignFactory factory, String moduleKey) {
+        Map<Method, MethodSettings> methodSettings = new HashMap<>();
+        for (Method method : classOfT.getMethods()) {
+            MethodSettings settings = MethodSettings.of(classOfT, method);
+            if (null != settings) {
+                methodSettings.put(method, settings);
+            }
+        }
+        if (methodSettings.isEmpty()) {
+            return target;
+        }
+        return (T) Proxy.newProxyInstance(classOfT.getClassLoader(), new Class<?>[]{classOfT},
+                new RemoteServiceInvocationHandler(target, factory, classOfT, moduleKey, methodSettings));
+    }
+
+    /**
+     * 接口是否存在返回CompletableFuture的方法
+     *
+     * @param classOfT 接口的Class
+     * @return true/false
+     */
+    static boolean isAsync(Class<?> classOfT) {
+        for (Method method : classOfT.getMethods()) {
+            if (isAsync(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAsync(Method method) {
+        return CompletableFuture.class == method.getReturnType();
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        MethodSettings settings = methodSettings.get(method);
+        if (null == settings) {
+            return delegate.invoke(target, method, args);
+        }
+        if (null != settings.cacheable) {
+            return invokeCached(settings, method, args);
+        }
+        return invokeRemote(settings, method, args);
+    }
+
+    /**
+     * 结果缓存每次调用时从factory获取
+     * (module/flag整体下线时factory移除其缓存，重新上线后使用新的缓存)
+     */
+    private Object invokeCached(MethodSettings settings, Method method, Object[] args) throws Throwable {
+        ResponseCache responseCache = factory.getResponseCache(moduleKey, classOfT, method, settings.cacheable);
+        InvocationKey key = new InvocationKey(method, args);
+        Object cached = responseCache.get(key);
+        if (null != cached) {
+            return settings.async ? CompletableFuture.completedFuture(cached) : cached;
+        }
+        Object result = invokeRemote(settings, method, args);
+        if (settings.async) {
+            return ((CompletableFuture<?>) result).thenApply(value -> {
+                responseCache.put(key, value);
+                return value;
+            });
+        }
+        responseCache.put(key, result);
+        return result;
+    }
+
+    private Object invokeRemote(MethodSettings settings, Method method, Object[] args) throws Throwable {
+        if (settings.async) {
+            if (settings.singleFlight) {
+                return invokeAsyncSingleFlight(method, args);
+            }
+            return invokeAsync(method, args);
+        }
+        if (settings.singleFlight) {
+            return invokeSingleFlight(method, args);
+        }
+        return delegate.invoke(target, method, args);
+    }
+
+    private Object invokeSingleFlight(Method method, Object[] args) throws Throwable {
+        InvocationKey key = new InvocationKey(method, args);
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = inFlightCalls.putIfAbsent(key, call);
+        if (null != inFlight) {
+            try {
+                return inFlight.get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        }
+        try {
+            Object result = delegate.invoke(target, method, args);
+            call.complete(result);
+            return result;
+        } catch (Throwable t) {
+            call.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlightCalls.remove(key, call);
+        }
+    }
+
+    private CompletableFuture<Object> invokeAsyncSingleFlight(Method method, Object[] args) {
+        InvocationKey key = new InvocationKey(method, args);
+        CompletableFuture<Object> inFlight = inFlightCalls.get(key);
+        if (null == inFlight) {
+            CompletableFuture<Object> call = new CompletableFuture<>();
+            inFlight = inFlightCalls.putIfAbsent(key, call);
+            if (null == inFlight) {
+                inFlight = call;
+                invokeAsync(method, args).whenComplete((result, throwable) -> {
+                    inFlightCalls.remove(key, call);
+                    if (null != throwable) {
+                        call.completeExceptionally(throwable);
+                    } else {
+                        call.complete(result);
+                    }
+                });
+            }
+        }
+        /* 返回独立的future，避免调用方complete/cancel影响其他调用方 */
+        return inFlight.thenApply(result -> result);
+    }
+
+    private CompletableFuture<Object> invokeAsync(Method method, Object[] args) {
+        Executor executor = factory.getAsyncExecutor();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return delegate.invoke(target, method, args);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new CompletionException(t);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * 方法的调用设置
+     */
+    private static final class MethodSettings {
+
+        private boolean async;
+        private boolean singleFlight;
+        private RemoteCacheable cacheable;
+
+        /**
+         * 解析方法的调用设置
+         *
+         * @return 设置 / null(无需包装)
+         */
+        private static MethodSettings of(Class<?> classOfT, Method method) {
+            MethodSettings settings = new MethodSettings();
+            settings.async = isAsync(method);
+            SingleFlight singleFlight = method.getAnnotation(SingleFlight.class);
+            if (null == singleFlight) {
+                singleFlight = classOfT.getAnnotation(SingleFlight.class);
+            }
+            settings.singleFlight = null != singleFlight && singleFlight.value();
+            settings.cacheable = method.getAnnotation(RemoteCacheable.class);
+            if (!settings.async && !settings.singleFlight && null == settings.cacheable) {
+                return null;
+            }
+            return settings;
+        }
+
+    }
+
+}
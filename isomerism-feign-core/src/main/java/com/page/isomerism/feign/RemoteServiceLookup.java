@@ -0,0 +1,90 @@
+package com.page.isomerism.feign;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 远端代理的快速查找表
+ * <p>
+ * 以接口Class经ClassValue索引到各自的表，表内以调用方传入的module、flag原值逐级查找，
+ * 命中时不做大小写转换也不拼接key，因此不产生任何对象分配。
+ * 表中记录的是代理缓存的条目，条目被淘汰后视为失效并回落到常规构造流程，
+ * 同时由代理缓存的淘汰通知从表中移除
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+final class RemoteServiceLookup {
+
+    private final ClassValue<ConcurrentHashMap<String, ConcurrentHashMap<String, ProxyCache.Entry>>> tables =
+            new ClassValue<ConcurrentHashMap<String, ConcurrentHashMap<String, ProxyCache.Entry>>>() {
+                @Override
+                protected ConcurrentHashMap<String, ConcurrentHashMap<String, ProxyCache.Entry>> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    /**
+     * 查找已构造的代理
+     *
+     * @param classOfT 接口的Class
+     * @param module   调用方传入的模块名称
+     * @param flag     调用方传入的flag
+     * @return 代理缓存的条目 / null
+     */
+    ProxyCache.Entry get(Class<?> classOfT, String module, String flag) {
+        ConcurrentHashMap<String, ProxyCache.Entry> flags = tables.get(classOfT).get(module);
+        if (null == flags) {
+            return null;
+        }
+        ProxyCache.Entry entry = flags.get(flag);
+        if (null == entry || entry.isEvicted()) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * 记录代理
+     *
+     * @param classOfT 接口的Class
+     * @param module   调用方传入的模块名称
+     * @param flag     调用方传入的flag
+     * @param entry    代理缓存的条目
+     */
+    void put(Class<?> classOfT, String module, String flag, ProxyCache.Entry entry) {
+        tables.get(classOfT)
+                .computeIfAbsent(module, key -> new ConcurrentHashMap<>())
+                .put(flag, entry);
+    }
+
+    /**
+     * 移除被淘汰的条目
+     * (同一条目可能以module、flag的不同大小写记录多次)
+     *
+     * @param entry 代理缓存的条目
+     */
+    void remove(ProxyCache.Entry entry) {
+        ConcurrentHashMap<String, ConcurrentHashMap<String, ProxyCache.Entry>> table = tables.get(entry.getDefinition().getClazz());
+        for (Map.Entry<String, ConcurrentHashMap<String, ProxyCache.Entry>> module : table.entrySet()) {
+            ConcurrentHashMap<String, ProxyCache.Entry> flags = module.getValue();
+            flags.values().removeIf(recorded -> recorded == entry);
+            if (flags.isEmpty()) {
+                table.remove(module.getKey(), flags);
+            }
+        }
+    }
+
+    /**
+     * @param classOfT 接口的Class
+     * @return 表中记录的条目数
+     */
+    int size(Class<?> classOfT) {
+        int size = 0;
+        for (ConcurrentHashMap<String, ProxyCache.Entry> flags : tables.get(classOfT).values()) {
+            size += flags.size();
+        }
+        return size;
+    }
+
+}
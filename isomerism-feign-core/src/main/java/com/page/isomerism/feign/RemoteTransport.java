@@ -0,0 +1,56 @@
+package com.page.isomerism.feign;
+
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+
+/**
+ * 远端调用的传输层
+ * <p>
+ * 负责将已选定节点的请求真正发送出去，可按module/flag及节点做连接管理
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public interface RemoteTransport {
+
+    /**
+     * 发送请求
+     *
+     * @param request          已改写为目标节点地址的请求
+     * @param options          请求选项
+     * @param moduleDefinition 目标模块定义(直接按url构造的代理为null)
+     * @param node             目标节点(直接按url构造的代理为null)
+     * @return 响应
+     * @throws IOException IOException
+     */
+    Response execute(Request request, Request.Options options, ModuleDefinition moduleDefinition, NodeDefinition node) throws IOException;
+
+    /**
+     * 预先建立到节点的连接(预热)
+     * (默认不做任何处理)
+     *
+     * @param moduleDefinition 目标模块定义
+     * @param node             目标节点
+     * @throws IOException IOException
+     */
+    default void preconnect(ModuleDefinition moduleDefinition, NodeDefinition node) throws IOException {
+    }
+
+    /**
+     * 路由表替换后释放已不在路由表中的节点的资源
+     * (默认不做任何处理)
+     *
+     * @param routingTable 替换后的路由表
+     */
+    default void onRoutingTableChanged(RoutingTable routingTable) {
+    }
+
+    /**
+     * 释放传输层持有的资源
+     */
+    default void close() {
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.page.isomerism.feign;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 附加请求(重试/对冲)的预算
+ * <p>
+ * 每次调用按比例存入额度，每次附加请求消耗一个单位，
+ * 使附加请求不超过调用次数的指定比例，额度累积有上限
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+final class RequestBudget {
+
+    /**
+     * 一次附加请求消耗的额度
+     */
+    private static final long UNIT = 100L;
+
+    private final AtomicLong balance = new AtomicLong();
+
+    /**
+     * 每次调用存入额度
+     *
+     * @param percent  附加请求不超过调用次数的比例 (0-100)
+     * @param maxBurst 最多累积的附加请求次数
+     */
+    void deposit(int percent, int maxBurst) {
+        long max = maxBurst * UNIT;
+        if (balance.get() < max) {
+            balance.updateAndGet(current -> current < max ? Math.min(max, current + percent) : current);
+        }
+    }
+
+    /**
+     * @return 额度足够时扣除并返回true
+     */
+    boolean withdraw() {
+        for (; ; ) {
+            long current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - UNIT)) {
+                return true;
+            }
+        }
+    }
+
+}
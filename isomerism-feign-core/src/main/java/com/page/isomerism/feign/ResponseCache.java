@@ -0,0 +1,134 @@
+package com.page.isomerism.feign;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 远端方法的结果缓存
+ * <p>
+ * 按key的hash分段，每段为按访问顺序排列的LinkedHashMap，
+ * 超出容量时淘汰最近最少使用的结果，过期的结果在读取时移除
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+class ResponseCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final String name;
+    private final long ttlNanos;
+    private final Segment[] segments;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    ResponseCache(String name, long ttlNanos, int maxSize) {
+        this.name = name;
+        this.ttlNanos = ttlNanos;
+        int segmentCount = Math.max(1, Math.min(SEGMENTS, maxSize));
+        int capacity = Math.max(1, maxSize / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(capacity);
+        }
+    }
+
+    /**
+     * 读取缓存的结果
+     *
+     * @param key 调用标识
+     * @return 结果 / null(未命中或已过期)
+     */
+    Object get(InvocationKey key) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            Entry entry = segment.get(key);
+            if (null == entry) {
+                missCount.increment();
+                return null;
+            }
+            if (System.nanoTime() - entry.expireAt >= 0) {
+                segment.remove(key);
+                evictionCount.increment();
+                missCount.increment();
+                return null;
+            }
+            hitCount.increment();
+            return entry.value;
+        }
+    }
+
+    void put(InvocationKey key, Object value) {
+        if (null == value) {
+            return;
+        }
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, new Entry(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    void invalidate() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    ResponseCacheStatistics statistics() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new ResponseCacheStatistics(name, size, hitCount.sum(), missCount.sum(), evictionCount.sum());
+    }
+
+    private Segment segmentFor(InvocationKey key) {
+        int hash = key.hashCode();
+        return segments[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % segments.length];
+    }
+
+    private final class Segment extends LinkedHashMap<InvocationKey, ResponseCache.Entry> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<InvocationKey, ResponseCache.Entry> eldest) {
+            if (size() > capacity) {
+                evictionCount.increment();
+                return true;
+            }
+            return false;
+        }
+
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long expireAt;
+
+        private Entry(Object value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+    }
+
+}
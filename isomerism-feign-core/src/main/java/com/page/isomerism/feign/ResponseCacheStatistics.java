@@ -0,0 +1,71 @@
+package com.page.isomerism.feign;
+
+/**
+ * 结果缓存统计
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class ResponseCacheStatistics {
+
+    /**
+     * 缓存名称 ${module}-${flag}#${方法的configKey}
+     */
+    private final String name;
+    /**
+     * 当前缓存的结果数
+     */
+    private final int size;
+    /**
+     * 命中次数
+     */
+    private final long hitCount;
+    /**
+     * 未命中次数
+     */
+    private final long missCount;
+    /**
+     * 淘汰次数(包括容量淘汰与过期移除)
+     */
+    private final long evictionCount;
+
+    public ResponseCacheStatistics(String name, int size, long hitCount, long missCount, long evictionCount) {
+        this.name = name;
+        this.size = size;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseCacheStatistics{" +
+                "name='" + name + '\'' +
+                ", size=" + size +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                '}';
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.page.isomerism.feign;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 重试策略
+ * <p>
+ * 仅重试安全的失败：连接未建立的异常(任何方法)，以及幂等方法的IO异常和502/503/504响应；
+ * 读超时默认不重试(慢节点的每次重试都要等满读超时)，调用被中断(如Hystrix超时)时不重试；
+ * 重试发往与失败节点不同的节点，间隔采用decorrelated jitter退避，
+ * 每个module/flag的重试次数不超过调用次数的指定比例
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class RetryPolicy {
+
+    /**
+     * HttpClient的连接超时异常
+     * (feign-httpclient为可选依赖，按类名判断)
+     */
+    private static final String CONNECT_TIMEOUT_EXCEPTION = "org.apache.http.conn.ConnectTimeoutException";
+
+    /**
+     * 最多尝试的次数(包括首次)
+     */
+    private int maxAttempts = 3;
+    /**
+     * 重试不超过调用次数的比例 (0-100)
+     */
+    private int budgetPercent = 10;
+    /**
+     * 预算最多累积的重试次数
+     */
+    private int maxBurst = 10;
+    /**
+     * 退避的基础间隔
+     * (单位：毫秒)
+     */
+    private long baseBackoffMillis = 25L;
+    /**
+     * 退避的最长间隔
+     * (单位：毫秒)
+     */
+    private long maxBackoffMillis = 1000L;
+    /**
+     * 幂等方法读超时后是否重试
+     */
+    private boolean retryReadTimeouts = false;
+
+    /**
+     * key ${ModuleDefinition.module}-${ModuleDefinition.flag}
+     * value 重试预算
+     */
+    private final ConcurrentHashMap<String, RequestBudget> budgets = new ConcurrentHashMap<>();
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public void setBudgetPercent(int budgetPercent) {
+        this.budgetPercent = budgetPercent;
+    }
+
+    public void setMaxBurst(int maxBurst) {
+        this.maxBurst = maxBurst;
+    }
+
+    public void setBaseBackoffMillis(long baseBackoffMillis) {
+        this.baseBackoffMillis = baseBackoffMillis;
+    }
+
+    public void setMaxBackoffMillis(long maxBackoffMillis) {
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public void setRetryReadTimeouts(boolean retryReadTimeouts) {
+        this.retryReadTimeouts = retryReadTimeouts;
+    }
+
+    int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    RequestBudget budget(String moduleKey) {
+        RequestBudget budget = budgets.get(moduleKey);
+        return null != budget ? budget : budgets.computeIfAbsent(moduleKey, key -> new RequestBudget());
+    }
+
+    void deposit(RequestBudget budget) {
+        budget.deposit(budgetPercent, maxBurst);
+    }
+
+    /**
+     * @param e          请求异常
+     * @param idempotent 请求是否幂等
+     * @return 是否可以重试
+     */
+    boolean isRetryable(IOException e, boolean idempotent) {
+        if (Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        /* 连接未建立，请求没有到达对端 */
+        if (e instanceof ConnectException || e instanceof NoRouteToHostException
+                || CONNECT_TIMEOUT_EXCEPTION.equals(e.getClass().getName())) {
+            return true;
+        }
+        if (e instanceof SocketTimeoutException) {
+            return idempotent && retryReadTimeouts;
+        }
+        /* 其余的InterruptedIOException为调用被中断 */
+        return idempotent && !(e instanceof InterruptedIOException);
+    }
+
+    /**
+     * @param status     响应状态码
+     * @param idempotent 请求是否幂等
+     * @return 是否可以重试
+     */
+    boolean isRetryable(int status, boolean idempotent) {
+        return idempotent && (502 == status || 503 == status || 504 == status);
+    }
+
+    /**
+     * decorrelated jitter: min(max, random(base, previous * 3))
+     *
+     * @param previousMillis 上一次的退避间隔(首次为0)
+     * @return 本次的退避间隔(毫秒)
+     */
+    long backoff(long previousMillis) {
+        long upper = Math.max(baseBackoffMillis, previousMillis * 3);
+        long backoff = baseBackoffMillis >= upper ? baseBackoffMillis
+                : ThreadLocalRandom.current().nextLong(baseBackoffMillis, upper + 1);
+        return Math.min(maxBackoffMillis, backoff);
+    }
+
+}
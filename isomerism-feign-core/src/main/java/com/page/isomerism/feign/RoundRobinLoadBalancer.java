@@ -0,0 +1,40 @@
+package com.page.isomerism.feign;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 轮询的负载均衡策略
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class RoundRobinLoadBalancer implements LoadBalancer {
+
+    /**
+     * 轮询计数
+     * <p>
+     * key ${ModuleDefinition.module}-${ModuleDefinition.flag}
+     * (module/flag不能再调用后移除，网关可以转发的module/flag保留)
+     */
+    private final ConcurrentHashMap<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public NodeDefinition choose(ModuleDefinition moduleDefinition, List<NodeDefinition> nodes) {
+        if (1 == nodes.size()) {
+            return nodes.get(0);
+        }
+        AtomicInteger counter = counters.get(moduleDefinition.getKey());
+        if (null == counter) {
+            counter = counters.computeIfAbsent(moduleDefinition.getKey(), key -> new AtomicInteger());
+        }
+        return nodes.get((counter.getAndIncrement() & Integer.MAX_VALUE) % nodes.size());
+    }
+
+    @Override
+    public void onRoutingTableChanged(RoutingTable routingTable) {
+        counters.keySet().removeIf(moduleKey -> !routingTable.isRoutable(moduleKey));
+    }
+
+}
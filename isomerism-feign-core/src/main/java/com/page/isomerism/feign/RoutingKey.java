@@ -0,0 +1,33 @@
+package com.page.isomerism.feign;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明一致性哈希路由的key
+ * <p>
+ * 标注在远端方法的参数上时以参数值为key；
+ * 标注在远端接口或其方法上时以请求头header的值为key(参数上的标注优先，其次为方法)。
+ * 同一key的调用固定发往同一节点，节点下线时只有原先落在该节点上的key改变节点；
+ * 没有key(参数或请求头的值为空)的调用仍按负载均衡策略选择节点
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD, ElementType.PARAMETER})
+public @interface RoutingKey {
+
+    /**
+     * 作为key的请求头名称
+     * (仅标注在接口或方法上时有效)
+     *
+     * @return 请求头名称
+     */
+    String header() default "";
+
+}
@@ -0,0 +1,178 @@
+package com.page.isomerism.feign;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * 路由表的本地快照
+ * <p>
+ * 保存扫描得到的各服务实例(路由表由其重建)，格式为：
+ * magic、格式版本、写入时间、服务数，各服务的名称、实例数及实例字段，最后为之前全部字节的CRC32；
+ * 先写入临时文件再原子替换，读取时整体读入，校验不通过的快照不使用
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+final class RoutingSnapshot {
+
+    private static final int MAGIC = 0x49535254;
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * 写入时间
+     * (单位 毫秒)
+     */
+    private final long writtenAt;
+
+    /**
+     * key 服务名称
+     * value 该服务下带有module/flag元数据的实例
+     */
+    private final Map<String, Set<ServiceInstanceRecord>> serviceSnapshots;
+
+    private RoutingSnapshot(long writtenAt, Map<String, Set<ServiceInstanceRecord>> serviceSnapshots) {
+        this.writtenAt = writtenAt;
+        this.serviceSnapshots = serviceSnapshots;
+    }
+
+    long getWrittenAt() {
+        return writtenAt;
+    }
+
+    Map<String, Set<ServiceInstanceRecord>> getServiceSnapshots() {
+        return serviceSnapshots;
+    }
+
+    /**
+     * 写入快照
+     *
+     * @param path             快照文件
+     * @param serviceSnapshots 各服务的实例
+     * @throws IOException IOException
+     */
+    static void write(Path path, Map<String, Set<ServiceInstanceRecord>> serviceSnapshots) throws IOException {
+        write(path, serviceSnapshots, System.currentTimeMillis());
+    }
+
+    /**
+     * 以指定的写入时间写入快照
+     *
+     * @param path             快照文件
+     * @param serviceSnapshots 各服务的实例
+     * @param writtenAt        写入时间(单位 毫秒)
+     * @throws IOException IOException
+     */
+    static void write(Path path, Map<String, Set<ServiceInstanceRecord>> serviceSnapshots, long writtenAt) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(writtenAt);
+        out.writeInt(serviceSnapshots.size());
+        for (Map.Entry<String, Set<ServiceInstanceRecord>> entry : serviceSnapshots.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (ServiceInstanceRecord record : entry.getValue()) {
+                writeString(out, record.getInstanceId());
+                writeString(out, record.getUri());
+                writeString(out, record.getModule());
+                writeString(out, record.getFlag());
+                writeString(out, record.getZone());
+                writeString(out, record.getNodeType().getFlag());
+                writeString(out, record.getGatewayModules());
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+        out.flush();
+        Path parent = path.toAbsolutePath().getParent();
+        if (null != parent) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temporary, bytes.toByteArray());
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 读取快照
+     *
+     * @param path 快照文件
+     * @return 快照 / null(文件不存在、格式不符或校验不通过)
+     * @throws IOException IOException
+     */
+    static RoutingSnapshot read(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        if (24 > bytes.length) {
+            return null;
+        }
+        try {
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - 4);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if ((int) crc.getValue() != buffer.getInt(bytes.length - 4)) {
+                return null;
+            }
+            buffer.limit(buffer.limit() - 4);
+            if (MAGIC != buffer.getInt() || FORMAT_VERSION != buffer.getInt()) {
+                return null;
+            }
+            long writtenAt = buffer.getLong();
+            int serviceCount = buffer.getInt();
+            Map<String, Set<ServiceInstanceRecord>> serviceSnapshots = new HashMap<>();
+            for (int i = 0; i < serviceCount; i++) {
+                String service = readString(buffer);
+                int recordCount = buffer.getInt();
+                Set<ServiceInstanceRecord> records = new HashSet<>();
+                for (int j = 0; j < recordCount; j++) {
+                    records.add(new ServiceInstanceRecord(readString(buffer), readString(buffer), readString(buffer),
+                            readString(buffer), readString(buffer), NodeType.of(readString(buffer)), readString(buffer)));
+                }
+                serviceSnapshots.put(service, records);
+            }
+            return new RoutingSnapshot(writtenAt, serviceSnapshots);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 长度(null为-1) + UTF-8字节
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (null == value) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (0 > length) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
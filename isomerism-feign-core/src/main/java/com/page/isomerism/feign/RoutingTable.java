@@ -0,0 +1,164 @@
+package com.page.isomerism.feign;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 路由表
+ * <p>
+ * 每次扫描产生变化时整体构造新的路由表(版本号递增)并原子替换，
+ * 读取方始终看到一份完整、不可变的module/flag定义；
+ * 远端代理在每次调用时从当前路由表解析节点，路由表替换不影响已构造的代理
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public final class RoutingTable {
+
+    static final RoutingTable EMPTY = new RoutingTable(0L, Collections.emptyMap(), Collections.emptyList());
+
+    /**
+     * 版本号
+     * (每次替换递增)
+     */
+    private final long version;
+
+    /**
+     * key ${ModuleDefinition.module}-${ModuleDefinition.flag}
+     * value ModuleDefinition
+     */
+    private final Map<String, ModuleDefinition> moduleDefinitions;
+    /**
+     * 网关节点
+     */
+    private final List<GatewayDefinition> gateways;
+    /**
+     * 路由表中全部节点(包括网关节点)的uri
+     */
+    private final Set<String> serviceURIs;
+    /**
+     * 经由网关转发的module/flag定义
+     * (按需构造，随路由表一起失效)
+     */
+    private final ConcurrentHashMap<String, ModuleDefinition> gatewayRoutes = new ConcurrentHashMap<>();
+
+    RoutingTable(long version, Map<String, ModuleDefinition> moduleDefinitions, List<GatewayDefinition> gateways) {
+        this.version = version;
+        Set<String> uris = new HashSet<>();
+        for (ModuleDefinition moduleDefinition : moduleDefinitions.values()) {
+            for (NodeDefinition node : moduleDefinition.getNodes()) {
+                uris.add(node.getUri());
+            }
+        }
+        for (GatewayDefinition gateway : gateways) {
+            uris.add(gateway.getNode().getUri());
+        }
+        this.moduleDefinitions = Collections.unmodifiableMap(new HashMap<>(moduleDefinitions));
+        this.gateways = Collections.unmodifiableList(new ArrayList<>(gateways));
+        this.serviceURIs = Collections.unmodifiableSet(uris);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public ModuleDefinition get(String moduleKey) {
+        return moduleDefinitions.get(moduleKey);
+    }
+
+    public Map<String, ModuleDefinition> getModuleDefinitions() {
+        return moduleDefinitions;
+    }
+
+    public List<GatewayDefinition> getGateways() {
+        return gateways;
+    }
+
+    public Set<String> getServiceURIs() {
+        return serviceURIs;
+    }
+
+    /**
+     * 获取经由网关转发的module/flag定义
+     * <p>
+     * 按就近原则选择网关：调用方所在模块的网关 > 目标模块的网关 > 其他可转发到目标模块的网关
+     *
+     * @param moduleKey   ${module}-${flag}
+     * @param module      目标模块(大写)
+     * @param flag        目标flag(大写)
+     * @param localModule 调用方所在模块
+     * @return 模块定义 / null(没有可转发到目标模块的网关)
+     */
+    ModuleDefinition getGatewayRoute(String moduleKey, String module, String flag, String localModule) {
+        if (gateways.isEmpty()) {
+            return null;
+        }
+        ModuleDefinition moduleDefinition = gatewayRoutes.get(moduleKey);
+        if (null != moduleDefinition) {
+            return moduleDefinition;
+        }
+        List<NodeDefinition> local = new ArrayList<>();
+        List<NodeDefinition> target = new ArrayList<>();
+        List<NodeDefinition> other = new ArrayList<>();
+        for (GatewayDefinition gateway : gateways) {
+            if (!gateway.canReach(module)) {
+                continue;
+            }
+            if (gateway.getModule().equalsIgnoreCase(localModule)) {
+                local.add(gateway.getNode());
+            } else if (gateway.getModule().equals(module)) {
+                target.add(gateway.getNode());
+            } else {
+                other.add(gateway.getNode());
+            }
+        }
+        List<NodeDefinition> nodes = !local.isEmpty() ? local : !target.isEmpty() ? target : other;
+        if (nodes.isEmpty()) {
+            return null;
+        }
+        moduleDefinition = new ModuleDefinition();
+        moduleDefinition.setModule(module);
+        moduleDefinition.setFlag(flag);
+        moduleDefinition.setUri(nodes.get(0).getUri());
+        moduleDefinition.setSameModule(module.equalsIgnoreCase(localModule));
+        moduleDefinition.setGateway(true);
+        moduleDefinition.setNodes(Collections.unmodifiableList(nodes));
+        ModuleDefinition previous = gatewayRoutes.putIfAbsent(moduleKey, moduleDefinition);
+        return null == previous ? moduleDefinition : previous;
+    }
+
+    /**
+     * module/flag是否可以调用
+     * (路由表中有该module/flag的定义，或有网关可以转发到该模块)
+     *
+     * @param moduleKey ${module}-${flag}
+     * @return 是否可以调用
+     */
+    boolean isRoutable(String moduleKey) {
+        if (moduleDefinitions.containsKey(moduleKey)) {
+            return true;
+        }
+        for (GatewayDefinition gateway : gateways) {
+            if (gateway.getModules().isEmpty()) {
+                return true;
+            }
+            for (String module : gateway.getModules()) {
+                if (moduleKey.startsWith(module + "-")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public boolean isEmpty() {
+        return moduleDefinitions.isEmpty();
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.page.isomerism.feign;
+
+/**
+ * 发现扫描统计
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class ScanStatistics {
+
+    /**
+     * 已完成的扫描次数
+     */
+    private final long scanCount;
+    /**
+     * 最近一次扫描的耗时
+     * (单位 毫秒)
+     */
+    private final long lastDurationMillis;
+    /**
+     * 扫描耗时的最大值
+     * (单位 毫秒)
+     */
+    private final long maxDurationMillis;
+    /**
+     * 最近一次扫描注册中心返回的服务数
+     */
+    private final int serviceCount;
+    /**
+     * 最近一次扫描实际拉取实例的服务数
+     */
+    private final int fetchedCount;
+    /**
+     * 最近一次扫描跳过的服务数(已知没有node.module元数据)
+     */
+    private final int skippedCount;
+    /**
+     * 拉取实例超时或失败的累计次数
+     * (失败的服务沿用上一次扫描的结果)
+     */
+    private final long failureCount;
+
+    public ScanStatistics(long scanCount, long lastDurationMillis, long maxDurationMillis,
+                          int serviceCount, int fetchedCount, int skippedCount, long failureCount) {
+        this.scanCount = scanCount;
+        this.lastDurationMillis = lastDurationMillis;
+        this.maxDurationMillis = maxDurationMillis;
+        this.serviceCount = serviceCount;
+        this.fetchedCount = fetchedCount;
+        this.skippedCount = skippedCount;
+        this.failureCount = failureCount;
+    }
+
+    public long getScanCount() {
+        return scanCount;
+    }
+
+    public long getLastDurationMillis() {
+        return lastDurationMillis;
+    }
+
+    public long getMaxDurationMillis() {
+        return maxDurationMillis;
+    }
+
+    public int getServiceCount() {
+        return serviceCount;
+    }
+
+    public int getFetchedCount() {
+        return fetchedCount;
+    }
+
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ScanStatistics{" +
+                "scanCount=" + scanCount +
+                ", lastDurationMillis=" + lastDurationMillis +
+                ", maxDurationMillis=" + maxDurationMillis +
+                ", serviceCount=" + serviceCount +
+                ", fetchedCount=" + fetchedCount +
+                ", skippedCount=" + skippedCount +
+                ", failureCount=" + failureCount +
+                '}';
+    }
+
+}
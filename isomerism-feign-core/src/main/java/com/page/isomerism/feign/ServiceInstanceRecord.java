@@ -0,0 +1,124 @@
+package com.page.isomerism.feign;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 扫描得到的注册实例记录
+ * <p>
+ * 只保留路由需要的字段，用于与上一次扫描的结果做差异比较
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+final class ServiceInstanceRecord {
+
+    /**
+     * 网关节点变化时使用的变化标识
+     */
+    static final String GATEWAY_KEY = "#" + NodeType.GATEWAY.getFlag();
+
+    private final String instanceId;
+    private final String uri;
+    private final String module;
+    private final String flag;
+    private final String zone;
+    private final NodeType nodeType;
+    /**
+     * 网关节点可转发的模块(大写逗号分隔)
+     */
+    private final String gatewayModules;
+
+    ServiceInstanceRecord(String instanceId, String uri, String module, String flag, String zone,
+                          NodeType nodeType, String gatewayModules) {
+        this.instanceId = instanceId;
+        this.uri = uri;
+        this.module = module;
+        this.flag = flag;
+        this.zone = zone;
+        this.nodeType = nodeType;
+        this.gatewayModules = gatewayModules;
+    }
+
+    /**
+     * 由注册实例构造记录
+     *
+     * @param serviceInstance 注册实例
+     * @return 记录 / null(元数据中缺少module或flag，网关节点可以不声明flag)
+     */
+    static ServiceInstanceRecord of(ServiceInstance serviceInstance) {
+        Map<String, String> metadata = serviceInstance.getMetadata();
+        String nodeModule = metadata.get(ModuleDefinition.FIELD_NODE_MODULE);
+        String nodeFlag = metadata.get(ModuleDefinition.FIELD_NODE_FLAG);
+        NodeType nodeType = NodeType.of(metadata.get(ModuleDefinition.FIELD_NODE_TYPE));
+        if (StringUtils.isEmpty(nodeModule) || (NodeType.NODE == nodeType && StringUtils.isEmpty(nodeFlag))) {
+            return null;
+        }
+        String gatewayModules = NodeType.GATEWAY == nodeType ? metadata.get(ModuleDefinition.FIELD_GATEWAY_MODULES) : null;
+        return new ServiceInstanceRecord(serviceInstance.getInstanceId(), String.valueOf(serviceInstance.getUri()),
+                nodeModule.toUpperCase(), null == nodeFlag ? "" : nodeFlag.toUpperCase(), metadata.get(ModuleDefinition.FIELD_NODE_ZONE),
+                nodeType, null == gatewayModules ? null : gatewayModules.toUpperCase());
+    }
+
+    String getInstanceId() {
+        return instanceId;
+    }
+
+    String getUri() {
+        return uri;
+    }
+
+    String getModule() {
+        return module;
+    }
+
+    String getFlag() {
+        return flag;
+    }
+
+    String getZone() {
+        return zone;
+    }
+
+    NodeType getNodeType() {
+        return nodeType;
+    }
+
+    String getGatewayModules() {
+        return gatewayModules;
+    }
+
+    /**
+     * @return ${module}-${flag} (网关节点为 GATEWAY_KEY)
+     */
+    String getModuleKey() {
+        return NodeType.GATEWAY == nodeType ? GATEWAY_KEY : module + "-" + flag;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ServiceInstanceRecord that = (ServiceInstanceRecord) o;
+        return Objects.equals(instanceId, that.instanceId) &&
+                Objects.equals(uri, that.uri) &&
+                Objects.equals(module, that.module) &&
+                Objects.equals(flag, that.flag) &&
+                Objects.equals(zone, that.zone) &&
+                nodeType == that.nodeType &&
+                Objects.equals(gatewayModules, that.gatewayModules);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(instanceId, uri, module, flag, zone, nodeType, gatewayModules);
+    }
+
+}
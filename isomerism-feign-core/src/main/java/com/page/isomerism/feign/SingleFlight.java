@@ -0,0 +1,32 @@
+package com.page.isomerism.feign;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 合并同一代理上并发的相同调用
+ * <p>
+ * 标注在远端接口或其方法上(方法上的标注优先)。
+ * 同一module/flag下，方法与参数均相同的并发调用只向远端发送一次，
+ * 所有调用方共享同一个结果(或异常)，因此仅适用于幂等的查询方法，且调用方不应修改返回的对象
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface SingleFlight {
+
+    /**
+     * 是否启用
+     * (用于在接口启用时排除个别方法)
+     *
+     * @return true/false
+     */
+    boolean value() default true;
+
+}
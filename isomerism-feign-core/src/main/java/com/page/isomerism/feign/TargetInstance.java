@@ -0,0 +1,25 @@
+package com.page.isomerism.feign;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明定向调用的目标实例
+ * <p>
+ * 标注在远端方法的参数上，参数值为目标节点的instanceId(ServiceInstance.getInstanceId())，
+ * 调用只发往该节点，节点不在路由表中时调用失败(不重试、不对冲)；
+ * 参数值为空时按负载均衡策略选择节点。
+ * 经由网关转发时instanceId以请求头转交网关
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface TargetInstance {
+
+}
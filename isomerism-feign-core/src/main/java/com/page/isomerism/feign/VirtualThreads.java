@@ -0,0 +1,41 @@
+package com.page.isomerism.feign;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程的执行器
+ * <p>
+ * 模块以Java 8为编译目标，运行时为Java 21及以上时经反射使用Thread.ofVirtual()构造每个任务一个虚拟线程的执行器，
+ * 更低版本的运行时不支持
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 构造每个任务一个虚拟线程的执行器
+     *
+     * @param prefix 线程名称前缀
+     * @return 执行器 / null(运行时不支持虚拟线程)
+     */
+    static ExecutorService newExecutor(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.page.isomerism.feign;
+
+import feign.FeignException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 返回CompletableFuture的方法在异步执行器上调用
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class AsyncInvocationTest {
+
+    public interface AsyncEchoService {
+
+        @GetMapping("/echo")
+        CompletableFuture<String> echo();
+
+        @GetMapping("/echo")
+        String echoSync();
+
+    }
+
+    public interface EchoService {
+
+        @GetMapping("/echo")
+        String echo();
+
+    }
+
+    private final StubDiscoveryClient discoveryClient = new StubDiscoveryClient();
+    private final StubRemoteTransport transport = new StubRemoteTransport();
+    private final FeignRemoteServiceFeignFactory factory = new FeignRemoteServiceFeignFactory();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> new Thread(runnable, "async-test"));
+
+    @Before
+    public void setUp() {
+        HttpMessageConverters messageConverters = new HttpMessageConverters();
+        factory.messageConverters = () -> messageConverters;
+        factory.discoveryClient = discoveryClient;
+        factory.setRemoteTransport(transport);
+        factory.setAsyncExecutor(executor);
+        discoveryClient.register("user-service", "user", "a", null, 8081);
+        factory.refreshModules();
+    }
+
+    @After
+    public void tearDown() {
+        factory.destroy();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void futureCompletesOnAsyncExecutor() throws Exception {
+        String[] thread = new String[1];
+        transport.respond("user-service:8081", (request, node) -> {
+            thread[0] = Thread.currentThread().getName();
+            return StubRemoteTransport.ok(request, node.getInstanceId());
+        });
+        AsyncEchoService service = factory.getAsyncRemoteServiceInstance("user", "a", AsyncEchoService.class);
+        assertEquals("user-service:8081", service.echo().get(5, TimeUnit.SECONDS));
+        assertEquals("async-test", thread[0]);
+
+        assertEquals("user-service:8081", service.echoSync());
+        assertEquals(Thread.currentThread().getName(), thread[0]);
+    }
+
+    @Test
+    public void failureCompletesFutureExceptionally() throws Exception {
+        factory.setRetryPolicy(null);
+        transport.respond("user-service:8081", (request, node) -> StubRemoteTransport.response(request, 500, "failed"));
+        AsyncEchoService service = factory.getAsyncRemoteServiceInstance("user", "a", AsyncEchoService.class);
+        CompletableFuture<String> future = service.echo();
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("500 should complete the future exceptionally");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof FeignException);
+            assertEquals(500, ((FeignException) e.getCause()).status());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void interfaceWithoutAsyncMethodIsRejected() {
+        factory.getAsyncRemoteServiceInstance("user", "a", EchoService.class);
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.page.isomerism.feign;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * broadcast的参数校验
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class BroadcastTest {
+
+    private final FeignRemoteServiceFeignFactory factory = new FeignRemoteServiceFeignFactory();
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullModuleIsRejected() {
+        factory.broadcast(null, Runnable.class, service -> null, 1, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyModuleIsRejected() {
+        factory.broadcast("", Runnable.class, service -> null, 1, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullInvocationIsRejected() {
+        factory.broadcast("user", Runnable.class, null, 1, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullUnitIsRejected() {
+        factory.broadcast("user", Runnable.class, service -> null, 1, null);
+    }
+
+    @Test
+    public void unknownModuleHasNoResults() {
+        BroadcastResult<Object> result = factory.broadcast("user", Runnable.class, service -> null, 1, TimeUnit.SECONDS);
+        assertTrue(result.getResults().isEmpty());
+        assertTrue(result.getErrors().isEmpty());
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.page.isomerism.feign;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ConsistentHashRouter的稳定性、节点变化时的最小迁移及有界负载
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class ConsistentHashRouterTest {
+
+    private static final int KEYS = 10000;
+
+    private final ConsistentHashRouter router = new ConsistentHashRouter(1.25D);
+
+    private static List<NodeDefinition> nodes(int count) {
+        List<NodeDefinition> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            nodes.add(node("user:" + i, "http://10.0.0." + i + ":8080"));
+        }
+        return nodes;
+    }
+
+    private static NodeDefinition node(String instanceId, String uri) {
+        return new NodeDefinition(instanceId, uri, new NodeStatistics(uri));
+    }
+
+    private Map<String, String> route(List<NodeDefinition> nodes) {
+        Map<String, String> routes = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            routes.put("key-" + i, router.choose("key-" + i, nodes).getInstanceId());
+        }
+        return routes;
+    }
+
+    @Test
+    public void sameKeyRoutesToSameNodeRegardlessOfOrder() {
+        List<NodeDefinition> nodes = nodes(5);
+        Map<String, String> routes = route(nodes);
+        List<NodeDefinition> shuffled = new ArrayList<>(nodes);
+        Collections.shuffle(shuffled, new Random(7L));
+        assertEquals(routes, route(shuffled));
+        assertEquals(routes, route(nodes));
+    }
+
+    @Test
+    public void nodeIdentityIsInstanceId() {
+        List<NodeDefinition> nodes = nodes(5);
+        List<NodeDefinition> moved = new ArrayList<>();
+        for (NodeDefinition node : nodes) {
+            moved.add(node(node.getInstanceId(), node.getUri().replace("8080", "9090")));
+        }
+        assertEquals(route(nodes), route(moved));
+    }
+
+    @Test
+    public void keysSpreadAcrossNodes() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String instanceId : route(nodes(5)).values()) {
+            counts.merge(instanceId, 1, Integer::sum);
+        }
+        assertEquals(5, counts.size());
+        for (int count : counts.values()) {
+            assertTrue(count > KEYS / 5 * 0.8 && count < KEYS / 5 * 1.2);
+        }
+    }
+
+    @Test
+    public void removingNodeMovesOnlyItsKeys() {
+        List<NodeDefinition> nodes = nodes(5);
+        Map<String, String> before = route(nodes);
+        NodeDefinition removed = nodes.remove(2);
+        Map<String, String> after = route(nodes);
+        for (Map.Entry<String, String> route : before.entrySet()) {
+            if (!route.getValue().equals(removed.getInstanceId())) {
+                assertEquals(route.getValue(), after.get(route.getKey()));
+            }
+        }
+    }
+
+    @Test
+    public void addingNodeMovesKeysOnlyToIt() {
+        List<NodeDefinition> nodes = nodes(4);
+        Map<String, String> before = route(nodes);
+        NodeDefinition added = node("user:new", "http://10.0.1.1:8080");
+        nodes.add(added);
+        Map<String, String> after = route(nodes);
+        int moved = 0;
+        for (Map.Entry<String, String> route : after.entrySet()) {
+            if (!route.getValue().equals(before.get(route.getKey()))) {
+                assertEquals(added.getInstanceId(), route.getValue());
+                moved++;
+            }
+        }
+        assertTrue(moved > KEYS / 5 * 0.8 && moved < KEYS / 5 * 1.2);
+    }
+
+    @Test
+    public void overloadedNodeSpillsToNextHighestScore() {
+        List<NodeDefinition> nodes = nodes(4);
+        NodeDefinition preferred = router.choose("hot", nodes);
+        List<NodeDefinition> others = new ArrayList<>(nodes);
+        others.remove(preferred);
+        NodeDefinition next = router.choose("hot", others);
+        for (int i = 0; i < 10; i++) {
+            preferred.getStatistics().incrementActiveRequests();
+        }
+        assertSame(next, router.choose("hot", nodes));
+        router.setLoadFactor(0D);
+        assertSame(preferred, router.choose("hot", nodes));
+    }
+
+    @Test
+    public void loadWithinCapacityKeepsPreferredNode() {
+        List<NodeDefinition> nodes = nodes(4);
+        NodeDefinition preferred = router.choose("warm", nodes);
+        for (NodeDefinition node : nodes) {
+            for (int i = 0; i < 4; i++) {
+                node.getStatistics().incrementActiveRequests();
+            }
+        }
+        /* 进行中17个，上限 ceil(1.25 * 18 / 4) = 6 */
+        preferred.getStatistics().incrementActiveRequests();
+        assertSame(preferred, router.choose("warm", nodes));
+        preferred.getStatistics().incrementActiveRequests();
+        assertNotSame(preferred, router.choose("warm", nodes));
+    }
+
+    @Test
+    public void allNodesFullFallsBackToPreferredNode() {
+        List<NodeDefinition> nodes = nodes(2);
+        NodeDefinition preferred = router.choose("full", nodes);
+        NodeDefinition other = nodes.get(0) == preferred ? nodes.get(1) : nodes.get(0);
+        assertNotSame(preferred, other);
+        for (int i = 0; i < 10; i++) {
+            preferred.getStatistics().incrementActiveRequests();
+        }
+        assertSame(other, router.choose("full", nodes));
+        assertSame(preferred, router.forKey("full").choose(null, Collections.singletonList(preferred)));
+    }
+
+}
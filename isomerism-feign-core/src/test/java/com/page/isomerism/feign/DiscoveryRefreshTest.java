@@ -0,0 +1,135 @@
+package com.page.isomerism.feign;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 心跳触发扫描的合并及只重建发生变化的module/flag
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class DiscoveryRefreshTest {
+
+    private final StubDiscoveryClient discoveryClient = new StubDiscoveryClient();
+    private final FeignRemoteServiceFeignFactory factory = new FeignRemoteServiceFeignFactory();
+
+    @Before
+    public void setUp() {
+        factory.discoveryClient = discoveryClient;
+        discoveryClient.register("user-service", "user", "a", null, 8081);
+        discoveryClient.register("order-service", "order", "a", null, 8082);
+    }
+
+    @After
+    public void tearDown() {
+        factory.destroy();
+    }
+
+    private void heartbeat(Object value) {
+        factory.onHeartbeat(new HeartbeatEvent(discoveryClient, value));
+    }
+
+    private void awaitScans(int scans, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (scans > discoveryClient.getServicesCalls.get() && System.nanoTime() - deadline < 0) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+    }
+
+    @Test
+    public void heartbeatsAreCoalescedIntoOneScan() throws InterruptedException {
+        factory.setScanPeriod(600);
+        factory.initScheduleJob();
+        factory.refreshModules();
+        assertEquals(1, discoveryClient.getServicesCalls.get());
+
+        for (int i = 0; i < 5; i++) {
+            heartbeat(i);
+        }
+        assertEquals(1, discoveryClient.getServicesCalls.get());
+        awaitScans(2, 5000L);
+        assertEquals(2, discoveryClient.getServicesCalls.get());
+        TimeUnit.MILLISECONDS.sleep(700);
+        assertEquals(2, discoveryClient.getServicesCalls.get());
+    }
+
+    @Test
+    public void unchangedHeartbeatIsIgnored() throws InterruptedException {
+        factory.setScanPeriod(600);
+        factory.initScheduleJob();
+        factory.refreshModules();
+        heartbeat(1);
+        awaitScans(2, 5000L);
+        assertEquals(2, discoveryClient.getServicesCalls.get());
+
+        heartbeat(1);
+        TimeUnit.MILLISECONDS.sleep(2500);
+        assertEquals(2, discoveryClient.getServicesCalls.get());
+    }
+
+    @Test
+    public void heartbeatIsIgnoredWhenScanningDisabled() throws InterruptedException {
+        factory.setScanPeriod(0);
+        factory.initScheduleJob();
+        heartbeat(1);
+        TimeUnit.MILLISECONDS.sleep(2500);
+        assertEquals(0, discoveryClient.getServicesCalls.get());
+    }
+
+    @Test
+    public void onlyChangedModulesAreRebuilt() {
+        factory.refreshModules();
+        RoutingTable before = factory.getRoutingTable();
+        ModuleDefinition user = before.get("USER-A");
+        ModuleDefinition order = before.get("ORDER-A");
+        assertEquals(1, order.getNodes().size());
+
+        discoveryClient.register("order-service", "order", "a", null, 8083);
+        factory.refreshModules();
+        RoutingTable after = factory.getRoutingTable();
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertSame(user, after.get("USER-A"));
+        assertNotSame(order, after.get("ORDER-A"));
+        assertEquals(2, after.get("ORDER-A").getNodes().size());
+        /* 节点统计跨重建沿用 */
+        NodeStatistics statistics = order.getNodes().get(0).getStatistics();
+        int kept = 0;
+        for (NodeDefinition node : after.get("ORDER-A").getNodes()) {
+            if (node.getUri().equals(statistics.getUri())) {
+                assertSame(statistics, node.getStatistics());
+                kept++;
+            }
+        }
+        assertEquals(1, kept);
+    }
+
+    @Test
+    public void unchangedScanKeepsRoutingTable() {
+        factory.refreshModules();
+        RoutingTable before = factory.getRoutingTable();
+        factory.refreshModules();
+        assertSame(before, factory.getRoutingTable());
+    }
+
+    @Test
+    public void departedServiceIsRemoved() {
+        factory.refreshModules();
+        ModuleDefinition user = factory.getRoutingTable().get("USER-A");
+
+        discoveryClient.deregister("order-service");
+        factory.refreshModules();
+        assertNull(factory.getRoutingTable().get("ORDER-A"));
+        assertSame(user, factory.getRoutingTable().get("USER-A"));
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.page.isomerism.feign;
+
+import feign.Request;
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 没有可直接调用的节点时经由网关转发
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class GatewayRoutingTest {
+
+    public interface EchoService {
+
+        @GetMapping("/echo")
+        String echo();
+
+    }
+
+    private static GatewayDefinition gateway(String module, int port, String... modules) {
+        String uri = "http://10.0.1.1:" + port;
+        return new GatewayDefinition(module, new HashSet<>(Arrays.asList(modules)),
+                new NodeDefinition(module.toLowerCase() + "-gateway", uri, new NodeStatistics(uri)));
+    }
+
+    private static RoutingTable table(GatewayDefinition... gateways) {
+        return new RoutingTable(1L, new HashMap<>(), Arrays.asList(gateways));
+    }
+
+    private static String routedTo(RoutingTable table, String localModule) {
+        ModuleDefinition route = table.getGatewayRoute("PAY-A", "PAY", "A", localModule);
+        assertEquals(1, route.getNodes().size());
+        return route.getNodes().get(0).getInstanceId();
+    }
+
+    @Test
+    public void prefersCallerThenTargetThenOtherGateway() {
+        GatewayDefinition local = gateway("ORDER", 9091, "PAY");
+        GatewayDefinition target = gateway("PAY", 9092, "PAY");
+        GatewayDefinition other = gateway("EDGE", 9093);
+        assertEquals("order-gateway", routedTo(table(other, target, local), "order"));
+        assertEquals("pay-gateway", routedTo(table(other, target, local), "user"));
+        assertEquals("edge-gateway", routedTo(table(other, gateway("STOCK", 9094, "STOCK")), "user"));
+    }
+
+    @Test
+    public void gatewayThatCannotReachModuleIsSkipped() {
+        RoutingTable table = table(gateway("ORDER", 9091, "STOCK"));
+        assertNull(table.getGatewayRoute("PAY-A", "PAY", "A", "order"));
+        assertNull(RoutingTable.EMPTY.getGatewayRoute("PAY-A", "PAY", "A", "order"));
+    }
+
+    @Test
+    public void routeIsCachedPerTableVersion() {
+        List<GatewayDefinition> gateways = new ArrayList<>();
+        gateways.add(gateway("PAY", 9092, "PAY"));
+        RoutingTable table = new RoutingTable(1L, new HashMap<>(), gateways);
+        ModuleDefinition route = table.getGatewayRoute("PAY-A", "PAY", "A", "");
+        assertTrue(route.isGateway());
+        assertSame(route, table.getGatewayRoute("PAY-A", "PAY", "A", ""));
+        assertNotSame(route, table.getGatewayRoute("PAY-B", "PAY", "B", ""));
+
+        RoutingTable next = new RoutingTable(2L, new HashMap<>(), gateways);
+        assertNotSame(route, next.getGatewayRoute("PAY-A", "PAY", "A", ""));
+    }
+
+    @Test
+    public void proxyRoutesThroughGatewayUntilDirectNodeAppears() {
+        StubDiscoveryClient discoveryClient = new StubDiscoveryClient();
+        StubRemoteTransport transport = new StubRemoteTransport();
+        FeignRemoteServiceFeignFactory factory = new FeignRemoteServiceFeignFactory();
+        HttpMessageConverters messageConverters = new HttpMessageConverters();
+        factory.messageConverters = () -> messageConverters;
+        factory.discoveryClient = discoveryClient;
+        factory.setRemoteTransport(transport);
+        discoveryClient.registerGateway("gateway-service", "gateway", "pay", 9090);
+        factory.refreshModules();
+        AtomicReference<Map<String, Collection<String>>> headers = new AtomicReference<>();
+        transport.respond("gateway-service:9090", (request, node) -> {
+            headers.set(request.headers());
+            return StubRemoteTransport.ok(request, node.getInstanceId());
+        });
+        try {
+            EchoService service = factory.getRemoteServiceInstance("pay", "a", EchoService.class);
+            assertNotNull(service);
+            assertNull(factory.getRemoteServiceInstance("stock", "a", EchoService.class));
+
+            assertEquals("gateway-service:9090", service.echo());
+            assertEquals(Collections.singletonList("PAY"), headers.get().get(RemoteServiceContract.HEADER_TARGET_MODULE));
+            assertEquals(Collections.singletonList("A"), headers.get().get(RemoteServiceContract.HEADER_TARGET_FLAG));
+            assertFalse(headers.get().containsKey(RemoteServiceContract.HEADER_METHOD));
+
+            discoveryClient.register("pay-service", "pay", "a", null, 8081);
+            factory.refreshModules();
+            assertEquals("pay-service:8081", service.echo());
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    @Test
+    public void directRequestKeepsNoGatewayHeaders() {
+        ModuleDefinition moduleDefinition = new ModuleDefinition();
+        moduleDefinition.setModule("PAY");
+        moduleDefinition.setFlag("A");
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put(RemoteServiceContract.HEADER_METHOD, Collections.singletonList("PayService#pay()"));
+        Request request = Request.create(Request.HttpMethod.GET, "http://PAY-A/pay", headers, null, null);
+        Request routed = RemoteServiceContract.route(request, "http://10.0.0.1:8080/pay", moduleDefinition);
+        assertEquals("http://10.0.0.1:8080/pay", routed.url());
+        assertFalse(routed.headers().containsKey(RemoteServiceContract.HEADER_METHOD));
+        assertFalse(routed.headers().containsKey(RemoteServiceContract.HEADER_TARGET_MODULE));
+    }
+
+}
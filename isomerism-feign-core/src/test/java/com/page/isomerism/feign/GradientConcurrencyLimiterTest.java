@@ -0,0 +1,110 @@
+package com.page.isomerism.feign;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * GradientConcurrencyLimiter的许可及上限调整
+ * (以手动推进的时钟跨越采样窗口)
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class GradientConcurrencyLimiterTest {
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(600);
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private long now = 0L;
+
+    private GradientConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit) {
+        return new GradientConcurrencyLimiter(initialLimit, minLimit, maxLimit, () -> now);
+    }
+
+    @Test
+    public void rejectsBeyondLimitUntilReleased() {
+        GradientConcurrencyLimiter limiter = limiter(5, 1, 10);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+        assertEquals(5, limiter.getInFlight());
+        limiter.release(RTT, false);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void initialLimitIsClamped() {
+        assertEquals(200, limiter(500, 1, 200).getLimit());
+        assertEquals(3, limiter(0, 3, 10).getLimit());
+        assertEquals(1, limiter(1, 0, 0).getLimit());
+    }
+
+    @Test
+    public void steadyLatencyAtFullUtilisationGrowsUpToMaxLimit() {
+        GradientConcurrencyLimiter limiter = limiter(20, 1, 60);
+        int previous = limiter.getLimit();
+        for (int window = 0; window < 100; window++) {
+            runWindow(limiter, limiter.getLimit(), RTT, false);
+            assertTrue(limiter.getLimit() >= previous);
+            assertTrue(limiter.getLimit() <= 60);
+            previous = limiter.getLimit();
+        }
+        assertEquals(60, limiter.getLimit());
+    }
+
+    @Test
+    public void lowUtilisationDoesNotGrow() {
+        GradientConcurrencyLimiter limiter = limiter(20, 1, 200);
+        for (int window = 0; window < 20; window++) {
+            runWindow(limiter, 2, RTT, false);
+        }
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    public void risingLatencyShrinksLimit() {
+        GradientConcurrencyLimiter limiter = limiter(50, 1, 200);
+        for (int window = 0; window < 5; window++) {
+            runWindow(limiter, limiter.getLimit(), RTT, false);
+        }
+        int stable = limiter.getLimit();
+        for (int window = 0; window < 5; window++) {
+            runWindow(limiter, limiter.getLimit(), RTT * 10, false);
+        }
+        assertTrue(limiter.getLimit() < stable);
+    }
+
+    @Test
+    public void dropsShrinkLimitDownToMinLimit() {
+        GradientConcurrencyLimiter limiter = limiter(50, 5, 200);
+        int previous = limiter.getLimit();
+        for (int window = 0; window < 200; window++) {
+            runWindow(limiter, limiter.getLimit(), RTT, true);
+            assertTrue(limiter.getLimit() <= previous);
+            previous = limiter.getLimit();
+        }
+        assertEquals(5, limiter.getLimit());
+    }
+
+    /**
+     * 获取指定数量的许可，推进时钟跨过采样窗口后全部归还
+     */
+    private void runWindow(GradientConcurrencyLimiter limiter, int concurrency, long rttNanos, boolean dropped) {
+        int acquired = 0;
+        while (acquired < concurrency && limiter.tryAcquire()) {
+            acquired++;
+        }
+        now += WINDOW;
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(rttNanos, dropped);
+        }
+        assertEquals(0, limiter.getInFlight());
+    }
+
+}
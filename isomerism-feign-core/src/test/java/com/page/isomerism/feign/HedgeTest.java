@@ -0,0 +1,184 @@
+package com.page.isomerism.feign;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 对冲请求：慢节点上的请求被另一个节点的响应取代后中断，且不计入失败统计
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class HedgeTest {
+
+    public interface EchoService {
+
+        @GetMapping("/echo")
+        String echo();
+
+        @PostMapping("/echo")
+        String post();
+
+    }
+
+    /**
+     * 总是选择第一个节点
+     */
+    private static final class FirstNodeLoadBalancer implements LoadBalancer {
+
+        @Override
+        public NodeDefinition choose(ModuleDefinition moduleDefinition, List<NodeDefinition> nodes) {
+            return nodes.get(0);
+        }
+
+    }
+
+    /**
+     * 记录被判定为丢弃的请求
+     */
+    private static final class RecordingLimiter implements ConcurrencyLimiter {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger drops = new AtomicInteger();
+
+        @Override
+        public boolean tryAcquire() {
+            inFlight.incrementAndGet();
+            return true;
+        }
+
+        @Override
+        public void release(long rttNanos, boolean dropped) {
+            if (dropped) {
+                drops.incrementAndGet();
+            }
+            inFlight.decrementAndGet();
+        }
+
+        @Override
+        public int getLimit() {
+            return 100;
+        }
+
+        @Override
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+    }
+
+    private final StubDiscoveryClient discoveryClient = new StubDiscoveryClient();
+    private final StubRemoteTransport transport = new StubRemoteTransport();
+    private final FeignRemoteServiceFeignFactory factory = new FeignRemoteServiceFeignFactory();
+    private final RecordingLimiter limiter = new RecordingLimiter();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private String primary;
+    private String secondary;
+
+    @Before
+    public void setUp() {
+        HttpMessageConverters messageConverters = new HttpMessageConverters();
+        factory.messageConverters = () -> messageConverters;
+        factory.discoveryClient = discoveryClient;
+        factory.setRemoteTransport(transport);
+        factory.setLoadBalancer(new FirstNodeLoadBalancer());
+        factory.setRetryPolicy(null);
+        factory.setConcurrencyLimiter(() -> limiter);
+        OutlierDetector outlierDetector = new OutlierDetector();
+        outlierDetector.setConsecutiveFailures(1);
+        factory.setOutlierDetector(outlierDetector);
+        HedgePolicy hedgePolicy = new HedgePolicy();
+        hedgePolicy.setMinSamples(1);
+        hedgePolicy.setRefreshMillis(0L);
+        hedgePolicy.setMinDelayMillis(20L);
+        hedgePolicy.setBudgetPercent(100);
+        factory.setHedgePolicy(hedgePolicy);
+        discoveryClient.register("user-service", "user", "a", null, 8081);
+        discoveryClient.register("user-service", "user", "a", null, 8082);
+        factory.refreshModules();
+        List<NodeDefinition> nodes = factory.getRoutingTable().get("USER-A").getNodes();
+        primary = nodes.get(0).getInstanceId();
+        secondary = nodes.get(1).getInstanceId();
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        factory.destroy();
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (0 < limiter.getInFlight() && System.nanoTime() - deadline < 0) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    @Test
+    public void slowPrimaryIsHedgedAndLoserCancelled() throws InterruptedException {
+        EchoService service = factory.getRemoteServiceInstance("user", "a", EchoService.class);
+        /* 样本足够之前不对冲，之后快速返回的请求也不对冲 */
+        for (int i = 0; i < 3; i++) {
+            assertEquals(primary, service.echo());
+        }
+        assertEquals(3, transport.calls.size());
+
+        CountDownLatch interrupted = new CountDownLatch(1);
+        transport.respond(primary, (request, node) -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("cancelled");
+            }
+            return StubRemoteTransport.ok(request, node.getInstanceId());
+        });
+        long start = System.nanoTime();
+        assertEquals(secondary, service.echo());
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 2);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+
+        awaitIdle();
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, limiter.drops.get());
+        for (OutlierStatistics statistics : factory.getOutlierStatistics()) {
+            assertFalse(statistics.isEjected());
+        }
+    }
+
+    @Test
+    public void nonIdempotentCallIsNotHedged() {
+        EchoService service = factory.getRemoteServiceInstance("user", "a", EchoService.class);
+        for (int i = 0; i < 3; i++) {
+            service.post();
+        }
+        transport.respond(primary, (request, node) -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return StubRemoteTransport.ok(request, node.getInstanceId());
+        });
+        transport.calls.clear();
+        assertEquals(primary, service.post());
+        assertEquals(1, transport.calls.size());
+    }
+
+}
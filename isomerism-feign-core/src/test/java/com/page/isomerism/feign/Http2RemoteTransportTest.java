@@ -0,0 +1,170 @@
+package com.page.isomerism.feign;
+
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Http2RemoteTransport经由本地h2c服务的发送、重新配置及被替换HttpClient的停止
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class Http2RemoteTransportTest {
+
+    private static final Request.Options OPTIONS = new Request.Options(1000, 5000);
+
+    private Server server;
+    private String url;
+    private volatile CountDownLatch blocked = new CountDownLatch(0);
+    private final CountDownLatch received = new CountDownLatch(1);
+
+    private Http2RemoteTransport transport;
+    private ModuleDefinition moduleDefinition;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new Server();
+        ServerConnector connector = new ServerConnector(server, new HTTP2CServerConnectionFactory(new HttpConfiguration()));
+        connector.setHost("127.0.0.1");
+        server.addConnector(connector);
+        server.setHandler(new AbstractHandler() {
+            @Override
+            public void handle(String target, org.eclipse.jetty.server.Request baseRequest, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+                if ("/block".equals(target)) {
+                    received.countDown();
+                    try {
+                        blocked.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                byte[] body = Util.toByteArray(request.getInputStream());
+                response.setContentType("text/plain");
+                response.getOutputStream().write((request.getProtocol() + " " + request.getMethod() + " "
+                        + new String(body, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8));
+                baseRequest.setHandled(true);
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + connector.getLocalPort();
+
+        transport = new Http2RemoteTransport();
+        moduleDefinition = new ModuleDefinition();
+        moduleDefinition.setModule("USER");
+        moduleDefinition.setFlag("A");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        transport.close();
+        server.stop();
+    }
+
+    private String send(Request.HttpMethod method, String path, String body) throws IOException {
+        byte[] content = null == body ? null : body.getBytes(StandardCharsets.UTF_8);
+        Map<String, Collection<String>> headers = Collections.emptyMap();
+        Request request = Request.create(method, url + path, headers, content, StandardCharsets.UTF_8);
+        try (Response response = transport.execute(request, OPTIONS, moduleDefinition, null)) {
+            assertEquals(200, response.status());
+            return Util.toString(response.body().asReader());
+        }
+    }
+
+    @Test
+    public void sendsOverHttp2() throws IOException {
+        assertEquals("HTTP/2.0 GET ", send(Request.HttpMethod.GET, "/get", null));
+        assertEquals("HTTP/2.0 POST hello", send(Request.HttpMethod.POST, "/post", "hello"));
+        transport.setMaxConcurrentStreams("user", "a", 8);
+        assertEquals("HTTP/2.0 POST configured", send(Request.HttpMethod.POST, "/post", "configured"));
+    }
+
+    @Test
+    public void reconfigureDrainsInFlightRequestBeforeStopping() throws Exception {
+        transport.setMaxConcurrentStreams("user", "a", 8);
+        blocked = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> inFlight = executor.submit(() -> send(Request.HttpMethod.POST, "/block", "in-flight"));
+            assertTrue(received.await(5, TimeUnit.SECONDS));
+
+            transport.setMaxConcurrentStreams("user", "a", 16);
+            assertEquals(1, transport.getRetiringCount());
+            assertEquals("HTTP/2.0 POST after", send(Request.HttpMethod.POST, "/post", "after"));
+            /* 进行中的请求结束之前被替换的HttpClient不停止 */
+            Thread.sleep(1500L);
+            assertEquals(1, transport.getRetiringCount());
+
+            blocked.countDown();
+            assertEquals("HTTP/2.0 POST in-flight", inFlight.get(5, TimeUnit.SECONDS));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (0 < transport.getRetiringCount() && System.nanoTime() - deadline < 0) {
+                Thread.sleep(50L);
+            }
+            assertEquals(0, transport.getRetiringCount());
+        } finally {
+            blocked.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void requestsRacingReconfigureNeverUseStoppedClient() throws Exception {
+        transport.setMaxConcurrentStreams("user", "a", 8);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> senders = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                senders.add(executor.submit(() -> {
+                    int sent = 0;
+                    while (running.get()) {
+                        assertEquals("HTTP/2.0 POST race", send(Request.HttpMethod.POST, "/post", "race"));
+                        sent++;
+                    }
+                    return sent;
+                }));
+            }
+            for (int i = 0; i < 20; i++) {
+                transport.setMaxConcurrentStreams("user", "a", 8 + i);
+                Thread.sleep(10L);
+            }
+            running.set(false);
+            for (Future<Integer> sender : senders) {
+                assertTrue(0 < sender.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+    }
+
+}
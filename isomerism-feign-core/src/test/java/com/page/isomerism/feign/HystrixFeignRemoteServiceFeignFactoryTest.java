@@ -0,0 +1,100 @@
+package com.page.isomerism.feign;
+
+import com.netflix.hystrix.HystrixThreadPoolKey;
+import com.netflix.hystrix.HystrixThreadPoolMetrics;
+import com.sun.net.httpserver.HttpServer;
+import feign.codec.Encoder;
+import feign.codec.ErrorDecoder;
+import feign.codec.StringDecoder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * HystrixFeign代理被淘汰后仍可调用，不再可达后释放Hystrix资源
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class HystrixFeignRemoteServiceFeignFactoryTest {
+
+    public interface EchoService {
+
+        @GetMapping("/echo")
+        String echo();
+
+    }
+
+    private HttpServer server;
+    private String firstUrl;
+    private String secondUrl;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/echo", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        firstUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        secondUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void evictedProxyKeepsItsThreadPoolUntilUnreachable() throws InterruptedException {
+        HystrixFeignRemoteServiceFeignFactory factory = new HystrixFeignRemoteServiceFeignFactory();
+        factory.setProxyCacheMaxWeight(factory.weigh(EchoService.class));
+        HystrixThreadPoolKey firstKey = HystrixThreadPoolKey.Factory.asKey(firstUrl);
+
+        EchoService first = construct(factory, firstUrl);
+        assertEquals("ok", first.echo());
+        HystrixThreadPoolMetrics metrics = HystrixThreadPoolMetrics.getInstance(firstKey);
+        assertNotNull(metrics);
+
+        EchoService second = construct(factory, secondUrl);
+        assertEquals(1L, factory.getProxyCacheStatistics().getEvictionCount());
+        assertSame(metrics, HystrixThreadPoolMetrics.getInstance(firstKey));
+        for (int i = 0; i < 5; i++) {
+            assertEquals("ok", first.echo());
+        }
+        assertSame(metrics, HystrixThreadPoolMetrics.getInstance(firstKey));
+
+        first = null;
+        for (int i = 0; i < 100 && null != HystrixThreadPoolMetrics.getInstance(firstKey); i++) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(20);
+            factory.getProxyCacheStatistics();
+        }
+        assertNull(HystrixThreadPoolMetrics.getInstance(firstKey));
+        assertEquals("ok", second.echo());
+        assertNotNull(HystrixThreadPoolMetrics.getInstance(HystrixThreadPoolKey.Factory.asKey(secondUrl)));
+    }
+
+    private static EchoService construct(HystrixFeignRemoteServiceFeignFactory factory, String url) {
+        return factory.constructInstance(EchoService.class, new StringDecoder(), new Encoder.Default(),
+                new ErrorDecoder.Default(), url, 8, 30, 50, 3);
+    }
+
+}
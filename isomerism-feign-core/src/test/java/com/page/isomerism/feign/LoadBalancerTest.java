@@ -0,0 +1,126 @@
+package com.page.isomerism.feign;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 同一module/flag多个节点之间的负载均衡
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class LoadBalancerTest {
+
+    public interface EchoService {
+
+        @GetMapping("/echo")
+        String echo();
+
+    }
+
+    private final StubDiscoveryClient discoveryClient = new StubDiscoveryClient();
+    private final StubRemoteTransport transport = new StubRemoteTransport();
+    private final FeignRemoteServiceFeignFactory factory = new FeignRemoteServiceFeignFactory();
+
+    @Before
+    public void setUp() {
+        HttpMessageConverters messageConverters = new HttpMessageConverters();
+        factory.messageConverters = () -> messageConverters;
+        factory.discoveryClient = discoveryClient;
+        factory.setRemoteTransport(transport);
+        discoveryClient.register("user-service", "user", "a", null, 8081);
+        discoveryClient.register("user-service", "user", "a", null, 8082);
+        discoveryClient.register("user-service", "user", "a", null, 8083);
+        factory.refreshModules();
+    }
+
+    @After
+    public void tearDown() {
+        factory.destroy();
+    }
+
+    private static ModuleDefinition module(int nodeCount) {
+        ModuleDefinition moduleDefinition = new ModuleDefinition();
+        moduleDefinition.setModule("USER");
+        moduleDefinition.setFlag("A");
+        List<NodeDefinition> nodes = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            String uri = "http://10.0.0." + i + ":8080";
+            nodes.add(new NodeDefinition("user:" + i, uri, new NodeStatistics(uri)));
+        }
+        moduleDefinition.setNodes(nodes);
+        moduleDefinition.setUri(nodes.get(0).getUri());
+        return moduleDefinition;
+    }
+
+    @Test
+    public void proxySpreadsCallsAcrossAllInstances() {
+        EchoService service = factory.getRemoteServiceInstance("user", "a", EchoService.class);
+        Set<String> served = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            served.add(service.echo());
+        }
+        Set<String> instances = new HashSet<>();
+        instances.add("user-service:8081");
+        instances.add("user-service:8082");
+        instances.add("user-service:8083");
+        assertEquals(instances, served);
+        for (int count : transport.callCounts().values()) {
+            assertEquals(10, count);
+        }
+    }
+
+    @Test
+    public void roundRobinCyclesThroughNodes() {
+        RoundRobinLoadBalancer loadBalancer = new RoundRobinLoadBalancer();
+        ModuleDefinition moduleDefinition = module(3);
+        List<NodeDefinition> nodes = moduleDefinition.getNodes();
+        for (int i = 0; i < 9; i++) {
+            assertSame(nodes.get(i % 3), loadBalancer.choose(moduleDefinition, nodes));
+        }
+    }
+
+    @Test
+    public void leastRequestPrefersLessActiveNode() {
+        LeastRequestLoadBalancer loadBalancer = new LeastRequestLoadBalancer();
+        ModuleDefinition moduleDefinition = module(2);
+        List<NodeDefinition> nodes = moduleDefinition.getNodes();
+        for (int i = 0; i < 5; i++) {
+            nodes.get(0).getStatistics().incrementActiveRequests();
+        }
+        for (int i = 0; i < 20; i++) {
+            assertSame(nodes.get(1), loadBalancer.choose(moduleDefinition, nodes));
+        }
+    }
+
+    @Test
+    public void leastRequestNeverPicksBusiestOfThree() {
+        LeastRequestLoadBalancer loadBalancer = new LeastRequestLoadBalancer();
+        ModuleDefinition moduleDefinition = module(3);
+        List<NodeDefinition> nodes = moduleDefinition.getNodes();
+        for (int i = 0; i < 5; i++) {
+            nodes.get(2).getStatistics().incrementActiveRequests();
+        }
+        Map<NodeDefinition, Integer> chosen = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            chosen.merge(loadBalancer.choose(moduleDefinition, nodes), 1, Integer::sum);
+        }
+        assertEquals(2, chosen.size());
+        assertNull(chosen.get(nodes.get(2)));
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.page.isomerism.feign;
+
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * LocalityAwareLoadBalancer的同区域优先及放开到全部节点的条件
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class LocalityAwareLoadBalancerTest {
+
+    public interface EchoService {
+
+        @GetMapping("/echo")
+        String echo();
+
+    }
+
+    /**
+     * zone-a、zone-b各两个节点
+     */
+    private static ModuleDefinition module() {
+        ModuleDefinition moduleDefinition = new ModuleDefinition();
+        moduleDefinition.setModule("USER");
+        moduleDefinition.setFlag("A");
+        List<NodeDefinition> nodes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String uri = "http://10.0.0." + i + ":8080";
+            nodes.add(new NodeDefinition("user:" + i, uri, 2 > i ? "zone-a" : "zone-b", new NodeStatistics(uri)));
+        }
+        moduleDefinition.setNodes(Collections.unmodifiableList(nodes));
+        moduleDefinition.setUri(nodes.get(0).getUri());
+        return moduleDefinition;
+    }
+
+    private static Set<String> zonesChosen(LoadBalancer loadBalancer, ModuleDefinition moduleDefinition, List<NodeDefinition> nodes) {
+        Set<String> zones = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            zones.add(loadBalancer.choose(moduleDefinition, nodes).getZone());
+        }
+        return zones;
+    }
+
+    private static Set<String> zones(String... zones) {
+        return new HashSet<>(Arrays.asList(zones));
+    }
+
+    @Test
+    public void prefersLocalZone() {
+        ModuleDefinition moduleDefinition = module();
+        LocalityAwareLoadBalancer loadBalancer = new LocalityAwareLoadBalancer("zone-a");
+        assertEquals(zones("zone-a"), zonesChosen(loadBalancer, moduleDefinition, moduleDefinition.getNodes()));
+    }
+
+    @Test
+    public void fallsBackToAllNodesWhenLocalZoneIsEmpty() {
+        ModuleDefinition moduleDefinition = module();
+        LocalityAwareLoadBalancer loadBalancer = new LocalityAwareLoadBalancer("zone-c");
+        assertEquals(zones("zone-a", "zone-b"), zonesChosen(loadBalancer, moduleDefinition, moduleDefinition.getNodes()));
+
+        LocalityAwareLoadBalancer zoneless = new LocalityAwareLoadBalancer(null);
+        assertEquals(zones("zone-a", "zone-b"), zonesChosen(zoneless, moduleDefinition, moduleDefinition.getNodes()));
+    }
+
+    @Test
+    public void fallsBackWhenLocalNodesAreEjected() {
+        ModuleDefinition moduleDefinition = module();
+        LocalityAwareLoadBalancer loadBalancer = new LocalityAwareLoadBalancer("zone-a");
+        List<NodeDefinition> available = moduleDefinition.getNodes().subList(2, 4);
+        assertEquals(zones("zone-b"), zonesChosen(loadBalancer, moduleDefinition, available));
+    }
+
+    @Test
+    public void fallsBackWhenTooFewLocalNodesAreHealthy() {
+        ModuleDefinition moduleDefinition = module();
+        LocalityAwareLoadBalancer loadBalancer = new LocalityAwareLoadBalancer("zone-a");
+        List<NodeDefinition> available = moduleDefinition.getNodes().subList(1, 4);
+        assertEquals(zones("zone-a", "zone-b"), zonesChosen(loadBalancer, moduleDefinition, available));
+
+        loadBalancer.setMinHealthyPercent(50);
+        assertEquals(zones("zone-a"), zonesChosen(loadBalancer, moduleDefinition, available));
+    }
+
+    @Test
+    public void fallsBackWhenLocalZoneIsSaturated() {
+        ModuleDefinition moduleDefinition = module();
+        LocalityAwareLoadBalancer loadBalancer = new LocalityAwareLoadBalancer("zone-a");
+        loadBalancer.setSaturationActiveRequests(2);
+        for (int i = 0; i < 2; i++) {
+            moduleDefinition.getNodes().get(i).getStatistics().incrementActiveRequests();
+        }
+        assertEquals(zones("zone-a"), zonesChosen(loadBalancer, moduleDefinition, moduleDefinition.getNodes()));
+
+        for (int i = 0; i < 2; i++) {
+            moduleDefinition.getNodes().get(i).getStatistics().incrementActiveRequests();
+        }
+        assertEquals(zones("zone-a", "zone-b"), zonesChosen(loadBalancer, moduleDefinition, moduleDefinition.getNodes()));
+    }
+
+    @Test
+    public void gatewayRouteKeepsRotationAcrossTableChanges() {
+        List<GatewayDefinition> gateways = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String uri = "http://10.0.1." + i + ":9090";
+            gateways.add(new GatewayDefinition("GATEWAY", Collections.singleton("PAY"),
+                    new NodeDefinition("gateway:" + i, uri, new NodeStatistics(uri))));
+        }
+        RoutingTable table = new RoutingTable(1L, new HashMap<>(), gateways);
+        ModuleDefinition pay = table.getGatewayRoute("PAY-A", "PAY", "A", "");
+        LocalityAwareLoadBalancer loadBalancer = new LocalityAwareLoadBalancer("zone-a");
+        assertSame(pay.getNodes().get(0), loadBalancer.choose(pay, pay.getNodes()));
+        assertSame(pay.getNodes().get(1), loadBalancer.choose(pay, pay.getNodes()));
+
+        loadBalancer.onRoutingTableChanged(new RoutingTable(2L, new HashMap<>(), gateways));
+        assertSame(pay.getNodes().get(2), loadBalancer.choose(pay, pay.getNodes()));
+
+        loadBalancer.onRoutingTableChanged(RoutingTable.EMPTY);
+        assertSame(pay.getNodes().get(0), loadBalancer.choose(pay, pay.getNodes()));
+    }
+
+    @Test
+    public void proxyFallsBackToOtherZoneWhenLocalZoneLeaves() {
+        StubDiscoveryClient discoveryClient = new StubDiscoveryClient();
+        StubRemoteTransport transport = new StubRemoteTransport();
+        FeignRemoteServiceFeignFactory factory = new FeignRemoteServiceFeignFactory();
+        HttpMessageConverters messageConverters = new HttpMessageConverters();
+        factory.messageConverters = () -> messageConverters;
+        factory.discoveryClient = discoveryClient;
+        factory.setRemoteTransport(transport);
+        factory.setLoadBalancer(new LocalityAwareLoadBalancer("zone-a"));
+        discoveryClient.register("user-service-a", "user", "a", "zone-a", 8081);
+        discoveryClient.register("user-service-b", "user", "a", "zone-b", 8082);
+        factory.refreshModules();
+        try {
+            EchoService service = factory.getRemoteServiceInstance("user", "a", EchoService.class);
+            for (int i = 0; i < 5; i++) {
+                assertEquals("user-service-a:8081", service.echo());
+            }
+
+            discoveryClient.deregister("user-service-a");
+            factory.refreshModules();
+            for (int i = 0; i < 5; i++) {
+                assertEquals("user-service-b:8082", service.echo());
+            }
+            assertEquals(10, transport.calls.size());
+        } finally {
+            factory.destroy();
+        }
+    }
+
+}
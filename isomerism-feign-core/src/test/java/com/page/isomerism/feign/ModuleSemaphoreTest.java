@@ -0,0 +1,49 @@
+package com.page.isomerism.feign;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ModuleSemaphore在持有许可期间调整许可总数
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class ModuleSemaphoreTest {
+
+    @Test
+    public void growAddsPermits() {
+        ModuleSemaphore semaphore = new ModuleSemaphore(2);
+        assertTrue(semaphore.tryAcquire(2));
+        semaphore.resize(5);
+        assertTrue(semaphore.tryAcquire(3));
+        assertFalse(semaphore.tryAcquire());
+        semaphore.release(5);
+        assertEquals(5, semaphore.availablePermits());
+    }
+
+    @Test
+    public void shrinkBelowInUseIsSettledByReleases() {
+        ModuleSemaphore semaphore = new ModuleSemaphore(4);
+        assertTrue(semaphore.tryAcquire(4));
+        semaphore.resize(1);
+        assertEquals(-3, semaphore.availablePermits());
+        semaphore.release(3);
+        assertFalse(semaphore.tryAcquire());
+        semaphore.release();
+        assertEquals(1, semaphore.availablePermits());
+        assertTrue(semaphore.tryAcquire());
+        assertFalse(semaphore.tryAcquire());
+    }
+
+    @Test
+    public void resizeToSameIsNoop() {
+        ModuleSemaphore semaphore = new ModuleSemaphore(3);
+        semaphore.resize(3);
+        assertEquals(3, semaphore.availablePermits());
+    }
+
+}
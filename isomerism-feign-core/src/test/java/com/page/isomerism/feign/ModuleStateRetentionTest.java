@@ -0,0 +1,137 @@
+package com.page.isomerism.feign;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.Semaphore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 路由表变化时各module/flag运行时状态的保留与移除
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class ModuleStateRetentionTest {
+
+    private final StubDiscoveryClient discoveryClient = new StubDiscoveryClient();
+    private final FeignRemoteServiceFeignFactory factory = new FeignRemoteServiceFeignFactory();
+
+    @Before
+    public void setUp() {
+        factory.discoveryClient = discoveryClient;
+        discoveryClient.register("user-service", "user", "a", null, 8081);
+        discoveryClient.register("order-service", "order", "a", null, 8082);
+        discoveryClient.registerGateway("gateway-service", "gateway", "pay", 9090);
+        factory.refreshModules();
+    }
+
+    @After
+    public void tearDown() {
+        factory.destroy();
+    }
+
+    @Test
+    public void routableKeys() {
+        RoutingTable table = factory.getRoutingTable();
+        assertTrue(table.isRoutable("USER-A"));
+        assertTrue(table.isRoutable("PAY-B"));
+        assertFalse(table.isRoutable("STOCK-A"));
+    }
+
+    @Test
+    public void semaphoreHeldByInFlightCallSurvivesDeparture() {
+        factory.setVirtualThreads(true);
+        factory.setMaxConcurrentRequestsPerModule(2);
+        Semaphore semaphore = factory.getModuleSemaphore("USER-A");
+        assertTrue(semaphore.tryAcquire());
+
+        discoveryClient.deregister("user-service");
+        factory.refreshModules();
+        assertSame(semaphore, factory.getModuleSemaphore("USER-A"));
+        assertTrue(semaphore.tryAcquire());
+        assertFalse(semaphore.tryAcquire());
+
+        semaphore.release(2);
+        discoveryClient.deregister("order-service");
+        factory.refreshModules();
+        assertNotSame(semaphore, factory.getModuleSemaphore("USER-A"));
+    }
+
+    @Test
+    public void gatewayRoutedSemaphoreSurvivesOtherChanges() {
+        factory.setVirtualThreads(true);
+        Semaphore semaphore = factory.getModuleSemaphore("PAY-A");
+
+        discoveryClient.deregister("order-service");
+        factory.refreshModules();
+        assertSame(semaphore, factory.getModuleSemaphore("PAY-A"));
+    }
+
+    @Test
+    public void gatewayRoutedLimiterSurvivesOtherChanges() {
+        factory.setConcurrencyLimiter(GradientConcurrencyLimiter::new);
+        ConcurrencyLimiter limiter = factory.getConcurrencyLimiter(factory.getModuleDefinition("PAY-A", "PAY", "A"));
+
+        discoveryClient.deregister("order-service");
+        factory.refreshModules();
+        assertSame(limiter, factory.getConcurrencyLimiter(factory.getModuleDefinition("PAY-A", "PAY", "A")));
+    }
+
+    @Test
+    public void briefDepartureKeepsLearnedLimiter() {
+        factory.setConcurrencyLimiter(GradientConcurrencyLimiter::new);
+        ConcurrencyLimiter limiter = factory.getConcurrencyLimiter(factory.getRoutingTable().get("USER-A"));
+
+        discoveryClient.deregister("user-service");
+        factory.refreshModules();
+        discoveryClient.register("user-service", "user", "a", null, 8081);
+        factory.refreshModules();
+        assertSame(limiter, factory.getConcurrencyLimiter(factory.getRoutingTable().get("USER-A")));
+    }
+
+    @Test
+    public void limiterWithInFlightCallsIsNotEvicted() {
+        factory.concurrencyLimiterRetentionNanos = 0L;
+        factory.setConcurrencyLimiter(GradientConcurrencyLimiter::new);
+        ModuleDefinition user = factory.getRoutingTable().get("USER-A");
+        ConcurrencyLimiter limiter = factory.getConcurrencyLimiter(user);
+        assertTrue(limiter.tryAcquire());
+
+        discoveryClient.deregister("user-service");
+        factory.refreshModules();
+        assertTrue(factory.getConcurrencyLimits().containsKey("USER-A"));
+
+        limiter.release(1000L, false);
+        discoveryClient.deregister("order-service");
+        factory.refreshModules();
+        assertFalse(factory.getConcurrencyLimits().containsKey("USER-A"));
+        assertNotSame(limiter, factory.getConcurrencyLimiter(user));
+    }
+
+    @Test
+    public void departedMetricsRecordersAreRemoved() {
+        InMemoryRemoteMetricsRegistry registry = new InMemoryRemoteMetricsRegistry();
+        factory.setMetricsRegistry(registry);
+        RemoteMetricsRecorder user = factory.getMetricsRecorder(factory.getRoutingTable().get("USER-A"), "UserService#get(long)");
+        RemoteMetricsRecorder pay = factory.getMetricsRecorder(factory.getModuleDefinition("PAY-A", "PAY", "A"), "PayService#pay(long)");
+        assertEquals(2, registry.getSnapshots().size());
+
+        discoveryClient.deregister("user-service");
+        factory.refreshModules();
+        assertEquals(1, registry.getSnapshots().size());
+        assertEquals("PAY", registry.getSnapshots().get(0).getModule());
+        assertSame(pay, factory.getMetricsRecorder(factory.getModuleDefinition("PAY-A", "PAY", "A"), "PayService#pay(long)"));
+
+        discoveryClient.register("user-service", "user", "a", null, 8081);
+        factory.refreshModules();
+        assertNotSame(user, factory.getMetricsRecorder(factory.getRoutingTable().get("USER-A"), "UserService#get(long)"));
+    }
+
+}
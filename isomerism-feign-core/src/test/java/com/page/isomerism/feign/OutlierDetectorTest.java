@@ -0,0 +1,208 @@
+package com.page.isomerism.feign;
+
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * OutlierDetector的连续失败摘除、摘除到期后的恢复及摘除比例上限
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class OutlierDetectorTest {
+
+    public interface EchoService {
+
+        @GetMapping("/echo")
+        String echo();
+
+    }
+
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static ModuleDefinition module(int nodeCount) {
+        ModuleDefinition moduleDefinition = new ModuleDefinition();
+        moduleDefinition.setModule("USER");
+        moduleDefinition.setFlag("flag0");
+        List<NodeDefinition> nodes = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            String uri = "http://10.0.0." + i + ":8080";
+            nodes.add(new NodeDefinition("user:" + i, uri, new NodeStatistics(uri)));
+        }
+        moduleDefinition.setNodes(nodes);
+        moduleDefinition.setUri(nodes.get(0).getUri());
+        return moduleDefinition;
+    }
+
+    private static void fail(OutlierDetector detector, ModuleDefinition moduleDefinition, NodeDefinition node, int times) {
+        for (int i = 0; i < times; i++) {
+            detector.onResult(moduleDefinition, node, LATENCY, true);
+        }
+    }
+
+    private static int ejected(ModuleDefinition moduleDefinition) {
+        long now = System.nanoTime();
+        int ejected = 0;
+        for (NodeDefinition node : moduleDefinition.getNodes()) {
+            if (node.getStatistics().isEjected(now)) {
+                ejected++;
+            }
+        }
+        return ejected;
+    }
+
+    @Test
+    public void consecutiveFailuresEjectNode() {
+        OutlierDetector detector = new OutlierDetector();
+        ModuleDefinition moduleDefinition = module(3);
+        NodeDefinition node = moduleDefinition.getNodes().get(0);
+        fail(detector, moduleDefinition, node, 4);
+        assertFalse(node.getStatistics().isEjected(System.nanoTime()));
+        fail(detector, moduleDefinition, node, 1);
+        assertTrue(node.getStatistics().isEjected(System.nanoTime()));
+        List<NodeDefinition> available = detector.available(moduleDefinition);
+        assertEquals(2, available.size());
+        assertFalse(available.contains(node));
+    }
+
+    @Test
+    public void successResetsConsecutiveFailures() {
+        OutlierDetector detector = new OutlierDetector();
+        ModuleDefinition moduleDefinition = module(3);
+        NodeDefinition node = moduleDefinition.getNodes().get(0);
+        fail(detector, moduleDefinition, node, 4);
+        detector.onResult(moduleDefinition, node, LATENCY, false);
+        fail(detector, moduleDefinition, node, 4);
+        assertEquals(0, ejected(moduleDefinition));
+    }
+
+    @Test
+    public void ejectionIsCappedByMaxEjectionPercent() {
+        OutlierDetector detector = new OutlierDetector();
+        ModuleDefinition moduleDefinition = module(4);
+        for (NodeDefinition node : moduleDefinition.getNodes()) {
+            fail(detector, moduleDefinition, node, 5);
+        }
+        assertEquals(2, ejected(moduleDefinition));
+        assertEquals(2, detector.available(moduleDefinition).size());
+
+        detector.setMaxEjectionPercent(25);
+        ModuleDefinition capped = module(4);
+        for (NodeDefinition node : capped.getNodes()) {
+            fail(detector, capped, node, 5);
+        }
+        assertEquals(1, ejected(capped));
+    }
+
+    @Test
+    public void singleNodeIsNotEjectedUnderDefaultCap() {
+        OutlierDetector detector = new OutlierDetector();
+        ModuleDefinition moduleDefinition = module(1);
+        fail(detector, moduleDefinition, moduleDefinition.getNodes().get(0), 20);
+        assertEquals(0, ejected(moduleDefinition));
+    }
+
+    @Test
+    public void allEjectedFallsBackToAllNodes() {
+        OutlierDetector detector = new OutlierDetector();
+        detector.setMaxEjectionPercent(100);
+        ModuleDefinition moduleDefinition = module(2);
+        for (NodeDefinition node : moduleDefinition.getNodes()) {
+            fail(detector, moduleDefinition, node, 5);
+        }
+        assertEquals(2, ejected(moduleDefinition));
+        assertSame(moduleDefinition.getNodes(), detector.available(moduleDefinition));
+    }
+
+    @Test
+    public void ejectionDurationGrowsExponentiallyUpToMax() {
+        NodeStatistics statistics = new NodeStatistics("http://10.0.0.1:8080");
+        assertEquals(30L, statistics.eject(0L, 30L, 100L));
+        assertEquals(60L, statistics.eject(0L, 30L, 100L));
+        assertEquals(100L, statistics.eject(0L, 30L, 100L));
+        assertEquals(3, statistics.getEjectionCount());
+        statistics.decayEjectionCount();
+        statistics.decayEjectionCount();
+        assertEquals(1, statistics.getEjectionCount());
+        assertEquals(60L, statistics.eject(0L, 30L, 100L));
+    }
+
+
+    @Test
+    public void ejectedNodeIsRestoredAfterEjection() throws InterruptedException {
+        OutlierDetector detector = new OutlierDetector();
+        detector.setBaseEjectionMillis(50L);
+        ModuleDefinition moduleDefinition = module(3);
+        NodeDefinition node = moduleDefinition.getNodes().get(0);
+        fail(detector, moduleDefinition, node, 5);
+        assertFalse(detector.available(moduleDefinition).contains(node));
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertFalse(node.getStatistics().isEjected(System.nanoTime()));
+        assertSame(moduleDefinition.getNodes(), detector.available(moduleDefinition));
+        assertEquals(1, node.getStatistics().getEjectionCount());
+    }
+
+    @Test
+    public void proxyAvoidsEjectedNodeUntilRestored() throws InterruptedException {
+        StubDiscoveryClient discoveryClient = new StubDiscoveryClient();
+        StubRemoteTransport transport = new StubRemoteTransport();
+        FeignRemoteServiceFeignFactory factory = new FeignRemoteServiceFeignFactory();
+        HttpMessageConverters messageConverters = new HttpMessageConverters();
+        factory.messageConverters = () -> messageConverters;
+        factory.discoveryClient = discoveryClient;
+        factory.setRemoteTransport(transport);
+        factory.setRetryPolicy(null);
+        OutlierDetector detector = new OutlierDetector();
+        detector.setConsecutiveFailures(2);
+        detector.setBaseEjectionMillis(200L);
+        factory.setOutlierDetector(detector);
+        discoveryClient.register("user-service", "user", "a", null, 8081);
+        discoveryClient.register("user-service", "user", "a", null, 8082);
+        factory.refreshModules();
+        transport.respond("user-service:8081", (request, node) -> {
+            throw new IOException("connection refused");
+        });
+        try {
+            EchoService service = factory.getRemoteServiceInstance("user", "a", EchoService.class);
+            int failures = 0;
+            for (int i = 0; i < 4; i++) {
+                try {
+                    service.echo();
+                } catch (RuntimeException e) {
+                    failures++;
+                }
+            }
+            assertEquals(2, failures);
+            assertEquals(1, factory.getOutlierStatistics().stream().filter(OutlierStatistics::isEjected).count());
+
+            transport.calls.clear();
+            for (int i = 0; i < 10; i++) {
+                assertEquals("user-service:8082", service.echo());
+            }
+            assertFalse(transport.calls.contains("user-service:8081"));
+
+            TimeUnit.MILLISECONDS.sleep(300);
+            transport.respond("user-service:8081", (request, node) -> StubRemoteTransport.ok(request, node.getInstanceId()));
+            transport.calls.clear();
+            for (int i = 0; i < 10; i++) {
+                service.echo();
+            }
+            assertEquals(Integer.valueOf(5), transport.callCounts().get("user-service:8081"));
+        } finally {
+            factory.destroy();
+        }
+    }
+
+}
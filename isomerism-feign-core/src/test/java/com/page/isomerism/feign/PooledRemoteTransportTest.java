@@ -0,0 +1,137 @@
+package com.page.isomerism.feign;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.Request;
+import feign.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * PooledRemoteTransport节点连接池上限的计算及移除
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class PooledRemoteTransportTest {
+
+    private static final int DEFAULT_MAX_PER_NODE = 50;
+    private static final Request.Options OPTIONS = new Request.Options(1000, 5000);
+
+    private HttpServer server;
+    private String uri;
+    private NodeDefinition node;
+    private PooledRemoteTransport transport;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        uri = "http://127.0.0.1:" + server.getAddress().getPort();
+        node = new NodeDefinition("gateway-1", uri, new NodeStatistics(uri));
+        transport = new PooledRemoteTransport(500, DEFAULT_MAX_PER_NODE, 30 * 1000L, 60 * 1000L);
+    }
+
+    @After
+    public void tearDown() {
+        transport.close();
+        server.stop(0);
+    }
+
+    private static ModuleDefinition module(String module, String flag) {
+        ModuleDefinition moduleDefinition = new ModuleDefinition();
+        moduleDefinition.setModule(module);
+        moduleDefinition.setFlag(flag);
+        return moduleDefinition;
+    }
+
+    private void call(ModuleDefinition moduleDefinition) throws IOException {
+        Map<String, Collection<String>> headers = Collections.emptyMap();
+        Request request = Request.create(Request.HttpMethod.GET, uri + "/", headers, null, StandardCharsets.UTF_8);
+        try (Response response = transport.execute(request, OPTIONS, moduleDefinition, node)) {
+            assertEquals(200, response.status());
+        }
+    }
+
+    private RoutingTable gatewayTable(String... modules) {
+        GatewayDefinition gateway = new GatewayDefinition("GATEWAY", new HashSet<>(Arrays.asList(modules)), node);
+        return new RoutingTable(1L, new HashMap<>(), Collections.singletonList(gateway));
+    }
+
+    @Test
+    public void sharedNodeUsesLargestSetting() throws IOException {
+        transport.setMaxConnectionsPerNode("user", "a", 5);
+        transport.setMaxConnectionsPerNode("order", "a", 80);
+        call(module("USER", "A"));
+        assertEquals(5, transport.getMaxPerRoute(uri));
+        call(module("ORDER", "A"));
+        assertEquals(80, transport.getMaxPerRoute(uri));
+        call(module("USER", "A"));
+        assertEquals(80, transport.getMaxPerRoute(uri));
+    }
+
+    @Test
+    public void unconfiguredModuleCountsAsDefault() throws IOException {
+        transport.setMaxConnectionsPerNode("user", "a", 5);
+        call(module("USER", "A"));
+        call(module("PAY", "A"));
+        assertEquals(DEFAULT_MAX_PER_NODE, transport.getMaxPerRoute(uri));
+    }
+
+    @Test
+    public void settingChangeResizesSharedNode() throws IOException {
+        call(module("USER", "A"));
+        call(module("ORDER", "A"));
+        transport.setMaxConnectionsPerNode("order", "a", 120);
+        assertEquals(120, transport.getMaxPerRoute(uri));
+        transport.setMaxConnectionsPerNode("order", "a", 10);
+        assertEquals(DEFAULT_MAX_PER_NODE, transport.getMaxPerRoute(uri));
+    }
+
+    @Test
+    public void departedNodeLimitIsRemoved() throws IOException {
+        transport.setMaxConnectionsPerNode("user", "a", 5);
+        call(module("USER", "A"));
+        assertEquals(5, transport.getMaxPerRoute(uri));
+
+        transport.onRoutingTableChanged(RoutingTable.EMPTY);
+        assertEquals(DEFAULT_MAX_PER_NODE, transport.getMaxPerRoute(uri));
+        assertFalse(transport.getPoolStatistics().containsKey(uri));
+    }
+
+    @Test
+    public void departedModuleNoLongerSizesSharedNode() throws IOException {
+        transport.setMaxConnectionsPerNode("order", "a", 80);
+        call(module("USER", "A"));
+        call(module("ORDER", "A"));
+        assertEquals(80, transport.getMaxPerRoute(uri));
+
+        transport.onRoutingTableChanged(gatewayTable("USER"));
+        assertEquals(DEFAULT_MAX_PER_NODE, transport.getMaxPerRoute(uri));
+        call(module("ORDER", "A"));
+        assertEquals(80, transport.getMaxPerRoute(uri));
+    }
+
+}
@@ -0,0 +1,234 @@
+package com.page.isomerism.feign;
+
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ProxyCache的按权重淘汰及资源释放
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class ProxyCacheTest {
+
+    public interface LightService {
+
+        @GetMapping("/light")
+        String get();
+
+    }
+
+    public interface HeavyService {
+
+        @GetMapping("/heavy/1")
+        String first();
+
+        @GetMapping("/heavy/2")
+        String second();
+
+        @GetMapping("/heavy/3")
+        String third();
+
+    }
+
+    @Test
+    public void evictsLeastRecentlyAccessed() {
+        ProxyCache proxyCache = new ProxyCache(3L);
+        ProxyCache.Entry a = proxyCache.putIfAbsent("a", definition(null), 1, null);
+        ProxyCache.Entry b = proxyCache.putIfAbsent("b", definition(null), 1, null);
+        ProxyCache.Entry c = proxyCache.putIfAbsent("c", definition(null), 1, null);
+        assertSame(a, proxyCache.get("a"));
+        proxyCache.putIfAbsent("d", definition(null), 1, null);
+        assertTrue(b.isEvicted());
+        assertNull(proxyCache.get("b"));
+        assertFalse(a.isEvicted());
+        assertFalse(c.isEvicted());
+        assertNotNull(proxyCache.get("d"));
+    }
+
+    @Test
+    public void newlyWrittenEntryIsRetainedEvenIfHeavierThanMaxWeight() {
+        ProxyCache proxyCache = new ProxyCache(1L);
+        ProxyCache.Entry light = proxyCache.putIfAbsent("light", definition(null), 1, null);
+        ProxyCache.Entry heavy = proxyCache.putIfAbsent("heavy", definition(null), 5, null);
+        assertTrue(light.isEvicted());
+        assertFalse(heavy.isEvicted());
+        assertSame(heavy, proxyCache.get("heavy"));
+        assertEquals(5L, proxyCache.statistics().getWeight());
+    }
+
+    @Test
+    public void duplicatePutKeepsExistingAndReleasesNewOne() {
+        ProxyCache proxyCache = new ProxyCache(0L);
+        AtomicInteger released = new AtomicInteger();
+        ProxyCache.Entry first = proxyCache.putIfAbsent("a", definition(null), 1, released::incrementAndGet);
+        assertSame(first, proxyCache.putIfAbsent("a", definition(null), 1, released::incrementAndGet));
+        assertEquals(1, released.get());
+        assertEquals(1, proxyCache.statistics().getSize());
+    }
+
+    @Test
+    public void evictionNotifiesListener() {
+        List<ProxyCache.Entry> evicted = new ArrayList<>();
+        ProxyCache proxyCache = new ProxyCache(0L, evicted::add);
+        ProxyCache.Entry a = proxyCache.putIfAbsent("a", definition(null), 1, null);
+        proxyCache.putIfAbsent("b", definition(null), 1, null);
+        proxyCache.setMaxWeight(1L);
+        assertEquals(1, evicted.size());
+        assertSame(a, evicted.get(0));
+        assertEquals(1L, proxyCache.statistics().getEvictionCount());
+    }
+
+    @Test
+    public void releaseRunsOnEvictionWithoutService() {
+        ProxyCache proxyCache = new ProxyCache(1L);
+        AtomicInteger released = new AtomicInteger();
+        proxyCache.putIfAbsent("a", definition(null), 1, released::incrementAndGet);
+        proxyCache.putIfAbsent("b", definition(null), 1, null);
+        assertEquals(1, released.get());
+    }
+
+    @Test
+    public void releaseIsDeferredUntilEvictedProxyIsUnreachable() throws InterruptedException {
+        ProxyCache proxyCache = new ProxyCache(1L);
+        AtomicInteger released = new AtomicInteger();
+        Runnable service = proxy();
+        proxyCache.putIfAbsent("a", definition(service), 1, released::incrementAndGet);
+        proxyCache.putIfAbsent("b", definition(null), 1, null);
+        assertNull(proxyCache.get("a"));
+        collect(proxyCache, released, 3);
+        assertEquals(0, released.get());
+        service.run();
+
+        service = null;
+        collect(proxyCache, released, 100);
+        assertEquals(1, released.get());
+    }
+
+    @Test
+    public void statisticsCountHitsAndMisses() {
+        ProxyCache proxyCache = new ProxyCache(0L);
+        ProxyCache.Entry a = proxyCache.putIfAbsent("a", definition(null), 2, null);
+        proxyCache.get("a");
+        proxyCache.touch(a);
+        proxyCache.get("b");
+        ProxyCacheStatistics statistics = proxyCache.statistics();
+        assertEquals(2L, statistics.getHitCount());
+        assertEquals(1L, statistics.getMissCount());
+        assertEquals(2L, statistics.getWeight());
+    }
+
+    @Test
+    public void heavyEntryEvictsSeveralLightOnes() {
+        ProxyCache proxyCache = new ProxyCache(10L);
+        ProxyCache.Entry a = proxyCache.putIfAbsent("a", definition(null), 2, null);
+        ProxyCache.Entry b = proxyCache.putIfAbsent("b", definition(null), 2, null);
+        ProxyCache.Entry c = proxyCache.putIfAbsent("c", definition(null), 2, null);
+        ProxyCache.Entry d = proxyCache.putIfAbsent("d", definition(null), 2, null);
+        assertSame(a, proxyCache.get("a"));
+        ProxyCache.Entry heavy = proxyCache.putIfAbsent("heavy", definition(null), 6, null);
+        assertTrue(b.isEvicted());
+        assertTrue(c.isEvicted());
+        assertFalse(a.isEvicted());
+        assertFalse(d.isEvicted());
+        assertFalse(heavy.isEvicted());
+        ProxyCacheStatistics statistics = proxyCache.statistics();
+        assertEquals(10L, statistics.getWeight());
+        assertEquals(3, statistics.getSize());
+        assertEquals(2L, statistics.getEvictionCount());
+    }
+
+    @Test
+    public void shrinkingMaxWeightEvictsByWeightNotCount() {
+        ProxyCache proxyCache = new ProxyCache(10L);
+        ProxyCache.Entry light = proxyCache.putIfAbsent("light", definition(null), 1, null);
+        ProxyCache.Entry heavy = proxyCache.putIfAbsent("heavy", definition(null), 5, null);
+        ProxyCache.Entry other = proxyCache.putIfAbsent("other", definition(null), 1, null);
+        assertSame(light, proxyCache.get("light"));
+        proxyCache.setMaxWeight(3L);
+        assertTrue(heavy.isEvicted());
+        assertFalse(light.isEvicted());
+        assertFalse(other.isEvicted());
+        assertEquals(2L, proxyCache.statistics().getWeight());
+
+        proxyCache.setMaxWeight(1L);
+        assertTrue(other.isEvicted());
+        assertFalse(light.isEvicted());
+        assertEquals(1L, proxyCache.statistics().getWeight());
+    }
+
+    @Test
+    public void factoryWeighsProxiesByMethodCount() {
+        StubDiscoveryClient discoveryClient = new StubDiscoveryClient();
+        FeignRemoteServiceFeignFactory factory = new FeignRemoteServiceFeignFactory();
+        HttpMessageConverters messageConverters = new HttpMessageConverters();
+        factory.messageConverters = () -> messageConverters;
+        factory.discoveryClient = discoveryClient;
+        for (String flag : Arrays.asList("a", "b", "c")) {
+            discoveryClient.register("user-service-" + flag, "user", flag, null, 8080);
+        }
+        factory.refreshModules();
+        try {
+            assertEquals(3, factory.weigh(LightService.class));
+            assertEquals(7, factory.weigh(HeavyService.class));
+            factory.setProxyCacheMaxWeight(10L);
+            LightService a = factory.getRemoteServiceInstance("user", "a", LightService.class);
+            factory.getRemoteServiceInstance("user", "b", LightService.class);
+            LightService c = factory.getRemoteServiceInstance("user", "c", LightService.class);
+            assertEquals(9L, factory.getProxyCacheStatistics().getWeight());
+
+            factory.getRemoteServiceInstance("user", "a", HeavyService.class);
+            ProxyCacheStatistics statistics = factory.getProxyCacheStatistics();
+            assertEquals(2L, statistics.getEvictionCount());
+            assertEquals(10L, statistics.getWeight());
+            assertSame(c, factory.getRemoteServiceInstance("user", "c", LightService.class));
+            assertNotSame(a, factory.getRemoteServiceInstance("user", "a", LightService.class));
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    /**
+     * 触发GC直到资源释放动作执行或达到次数上限
+     */
+    private static void collect(ProxyCache proxyCache, AtomicInteger released, int rounds) throws InterruptedException {
+        for (int i = 0; i < rounds && 0 == released.get(); i++) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(20);
+            proxyCache.releaseUnreachable();
+        }
+    }
+
+    private static Runnable proxy() {
+        InvocationHandler handler = new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return null;
+            }
+        };
+        return (Runnable) Proxy.newProxyInstance(Runnable.class.getClassLoader(), new Class<?>[]{Runnable.class}, handler);
+    }
+
+    private static RemoteServiceDefinition<Runnable> definition(Runnable service) {
+        return RemoteServiceDefinition.buildCustomed(null, null, Runnable.class, System.currentTimeMillis(), "http://localhost", service);
+    }
+
+}
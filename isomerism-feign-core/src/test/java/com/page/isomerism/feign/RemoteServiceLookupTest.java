@@ -0,0 +1,79 @@
+package com.page.isomerism.feign;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RemoteServiceLookup的查找与失效
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class RemoteServiceLookupTest {
+
+    private final ProxyCache proxyCache = new ProxyCache(0L);
+    private final RemoteServiceLookup lookup = new RemoteServiceLookup();
+
+    @Test
+    public void hitReturnsRecordedEntry() {
+        ProxyCache.Entry entry = put("user", "flag0", Runnable.class);
+        assertSame(entry, lookup.get(Runnable.class, "user", "flag0"));
+    }
+
+    @Test
+    public void missWhenNothingRecorded() {
+        assertNull(lookup.get(Runnable.class, "user", "flag0"));
+        put("user", "flag0", Runnable.class);
+        assertNull(lookup.get(Runnable.class, "user", "flag1"));
+        assertNull(lookup.get(Runnable.class, "order", "flag0"));
+        assertNull(lookup.get(AutoCloseable.class, "user", "flag0"));
+    }
+
+    @Test
+    public void keysAreCallerValuesWithoutNormalization() {
+        ProxyCache.Entry entry = put("user", "flag0", Runnable.class);
+        assertNull(lookup.get(Runnable.class, "USER", "FLAG0"));
+        ProxyCache.Entry upper = proxyCache.putIfAbsent("USER-FLAG0", definition(Runnable.class), 1, null);
+        lookup.put(Runnable.class, "USER", "FLAG0", upper);
+        assertSame(entry, lookup.get(Runnable.class, "user", "flag0"));
+        assertSame(upper, lookup.get(Runnable.class, "USER", "FLAG0"));
+    }
+
+    @Test
+    public void evictedEntryIsMiss() {
+        ProxyCache.Entry entry = put("user", "flag0", Runnable.class);
+        proxyCache.putIfAbsent("other", definition(Runnable.class), 1, null);
+        proxyCache.setMaxWeight(1L);
+        assertTrue(entry.isEvicted());
+        assertNull(lookup.get(Runnable.class, "user", "flag0"));
+    }
+
+    @Test
+    public void evictionRemovesAllRecordedVariants() {
+        ProxyCache evicting = new ProxyCache(0L, lookup::remove);
+        ProxyCache.Entry entry = evicting.putIfAbsent("USER-FLAG0", definition(Runnable.class), 1, null);
+        lookup.put(Runnable.class, "user", "flag0", entry);
+        lookup.put(Runnable.class, "USER", "FLAG0", entry);
+        ProxyCache.Entry other = evicting.putIfAbsent("USER-FLAG1", definition(Runnable.class), 1, null);
+        lookup.put(Runnable.class, "user", "flag1", other);
+        assertEquals(3, lookup.size(Runnable.class));
+        evicting.setMaxWeight(1L);
+        assertEquals(1, lookup.size(Runnable.class));
+        assertSame(other, lookup.get(Runnable.class, "user", "flag1"));
+    }
+
+    private ProxyCache.Entry put(String module, String flag, Class<?> classOfT) {
+        ProxyCache.Entry entry = proxyCache.putIfAbsent(module + "-" + flag + "-" + classOfT.getName(), definition(classOfT), 1, null);
+        lookup.put(classOfT, module, flag, entry);
+        return entry;
+    }
+
+    private static <T> RemoteServiceDefinition<T> definition(Class<T> classOfT) {
+        return RemoteServiceDefinition.buildCustomed(null, null, classOfT, System.currentTimeMillis(), "http://localhost", null);
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.page.isomerism.feign;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RequestBudget的存入、扣除及累积上限
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class RequestBudgetTest {
+
+    private static int drain(RequestBudget budget) {
+        int withdrawn = 0;
+        while (budget.withdraw()) {
+            withdrawn++;
+        }
+        return withdrawn;
+    }
+
+    @Test
+    public void withdrawRequiresOneUnit() {
+        RequestBudget budget = new RequestBudget();
+        assertFalse(budget.withdraw());
+        for (int i = 0; i < 9; i++) {
+            budget.deposit(10, 10);
+        }
+        assertFalse(budget.withdraw());
+        budget.deposit(10, 10);
+        assertTrue(budget.withdraw());
+        assertFalse(budget.withdraw());
+    }
+
+    @Test
+    public void balanceIsCappedByMaxBurst() {
+        RequestBudget budget = new RequestBudget();
+        for (int i = 0; i < 1000; i++) {
+            budget.deposit(50, 3);
+        }
+        assertEquals(3, drain(budget));
+    }
+
+    @Test
+    public void concurrentDepositsAreNotLost() throws InterruptedException {
+        int threads = 8;
+        int depositsPerThread = 10000;
+        RequestBudget budget = new RequestBudget();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < depositsPerThread; j++) {
+                    budget.deposit(10, Integer.MAX_VALUE / 100);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(threads * depositsPerThread / 10, drain(budget));
+    }
+
+    @Test
+    public void concurrentWithdrawsNeverOverdraw() throws InterruptedException {
+        int threads = 8;
+        RequestBudget budget = new RequestBudget();
+        for (int i = 0; i < 1000; i++) {
+            budget.deposit(10, 1000);
+        }
+        int[] withdrawn = new int[threads];
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            int index = i;
+            Thread worker = new Thread(() -> {
+                while (budget.withdraw()) {
+                    withdrawn[index]++;
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        int total = 0;
+        for (int i = 0; i < threads; i++) {
+            workers.get(i).join();
+            total += withdrawn[i];
+        }
+        assertEquals(100, total);
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.page.isomerism.feign;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 远端方法结果缓存的存活时间、容量淘汰及节点下线时的清空
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class ResponseCacheTest {
+
+    public interface UserService {
+
+        @RemoteCacheable(ttl = 1, timeUnit = TimeUnit.MINUTES)
+        @GetMapping("/user/{id}")
+        String get(@PathVariable("id") long id);
+
+    }
+
+    private static final Method GET = method();
+
+    private static Method method() {
+        try {
+            return UserService.class.getMethod("get", long.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static InvocationKey key(long id) {
+        return new InvocationKey(GET, new Object[]{id});
+    }
+
+    private final StubDiscoveryClient discoveryClient = new StubDiscoveryClient();
+    private final StubRemoteTransport transport = new StubRemoteTransport();
+    private final FeignRemoteServiceFeignFactory factory = new FeignRemoteServiceFeignFactory();
+
+    @Before
+    public void setUp() {
+        HttpMessageConverters messageConverters = new HttpMessageConverters();
+        factory.messageConverters = () -> messageConverters;
+        factory.discoveryClient = discoveryClient;
+        factory.setRemoteTransport(transport);
+        discoveryClient.register("user-service", "user", "a", null, 8081);
+        discoveryClient.register("order-service", "order", "a", null, 8082);
+        factory.refreshModules();
+    }
+
+    @After
+    public void tearDown() {
+        factory.destroy();
+    }
+
+    @Test
+    public void expiredResultIsNotReturned() throws InterruptedException {
+        ResponseCache responseCache = new ResponseCache("test", TimeUnit.MILLISECONDS.toNanos(50), 16);
+        responseCache.put(key(1L), "1");
+        assertEquals("1", responseCache.get(key(1L)));
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertNull(responseCache.get(key(1L)));
+        ResponseCacheStatistics statistics = responseCache.statistics();
+        assertEquals(0, statistics.getSize());
+        assertEquals(1L, statistics.getHitCount());
+        assertEquals(1L, statistics.getMissCount());
+        assertEquals(1L, statistics.getEvictionCount());
+    }
+
+    @Test
+    public void sizeIsBoundedAndRecentlyReadResultSurvives() {
+        ResponseCache responseCache = new ResponseCache("test", TimeUnit.MINUTES.toNanos(1), 32);
+        responseCache.put(key(0L), "0");
+        for (long id = 1L; id <= 1000L; id++) {
+            responseCache.put(key(id), String.valueOf(id));
+            assertEquals("0", responseCache.get(key(0L)));
+        }
+        ResponseCacheStatistics statistics = responseCache.statistics();
+        assertTrue(32 >= statistics.getSize());
+        assertEquals(1001L - statistics.getSize(), statistics.getEvictionCount());
+    }
+
+    @Test
+    public void nullResultIsNotCached() {
+        ResponseCache responseCache = new ResponseCache("test", TimeUnit.MINUTES.toNanos(1), 16);
+        responseCache.put(key(1L), null);
+        assertEquals(0, responseCache.statistics().getSize());
+    }
+
+    @Test
+    public void proxyReadsCachedResult() {
+        UserService service = factory.getRemoteServiceInstance("user", "a", UserService.class);
+        assertEquals("user-service:8081", service.get(1L));
+        assertEquals("user-service:8081", service.get(1L));
+        assertEquals(1, transport.calls.size());
+        service.get(2L);
+        assertEquals(2, transport.calls.size());
+        assertEquals(1L, factory.getResponseCacheStatistics().get(0).getHitCount());
+    }
+
+    @Test
+    public void departedNodeInvalidatesCache() {
+        UserService service = factory.getRemoteServiceInstance("user", "a", UserService.class);
+        service.get(1L);
+        discoveryClient.register("user-service", "user", "a", null, 8083);
+        factory.refreshModules();
+        /* 只增加节点时保留缓存 */
+        service.get(1L);
+        assertEquals(1, transport.calls.size());
+
+        discoveryClient.deregister("user-service");
+        discoveryClient.register("user-service", "user", "a", null, 8083);
+        factory.refreshModules();
+        assertEquals("user-service:8083", service.get(1L));
+        assertEquals(2, transport.calls.size());
+    }
+
+    @Test
+    public void departedModuleRemovesCache() {
+        UserService service = factory.getRemoteServiceInstance("user", "a", UserService.class);
+        service.get(1L);
+        assertEquals(1, factory.getResponseCacheStatistics().size());
+
+        discoveryClient.deregister("user-service");
+        factory.refreshModules();
+        assertTrue(factory.getResponseCacheStatistics().isEmpty());
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.page.isomerism.feign;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RetryPolicy的失败分类、退避及预算
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class RetryPolicyTest {
+
+    private final RetryPolicy retryPolicy = new RetryPolicy();
+
+    @Test
+    public void connectionFailuresAreAlwaysRetryable() {
+        assertTrue(retryPolicy.isRetryable(new ConnectException(), false));
+        assertTrue(retryPolicy.isRetryable(new NoRouteToHostException(), false));
+    }
+
+    @Test
+    public void otherIOExceptionsAreRetryableOnlyWhenIdempotent() {
+        assertFalse(retryPolicy.isRetryable(new IOException(), false));
+        assertTrue(retryPolicy.isRetryable(new IOException(), true));
+    }
+
+    @Test
+    public void readTimeoutIsNotRetriedByDefault() {
+        assertFalse(retryPolicy.isRetryable(new SocketTimeoutException("Read timed out"), true));
+        assertFalse(retryPolicy.isRetryable(new SocketTimeoutException("Read timed out"), false));
+    }
+
+    @Test
+    public void readTimeoutIsRetriedWhenEnabledForIdempotentCalls() {
+        retryPolicy.setRetryReadTimeouts(true);
+        assertTrue(retryPolicy.isRetryable(new SocketTimeoutException("Read timed out"), true));
+        assertFalse(retryPolicy.isRetryable(new SocketTimeoutException("Read timed out"), false));
+    }
+
+    @Test
+    public void interruptionIsNotRetried() {
+        assertFalse(retryPolicy.isRetryable(new InterruptedIOException(), true));
+        Thread.currentThread().interrupt();
+        try {
+            assertFalse(retryPolicy.isRetryable(new ConnectException(), true));
+            assertFalse(retryPolicy.isRetryable(new IOException(), true));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    public void gatewayStatusesAreRetryableOnlyWhenIdempotent() {
+        for (int status : new int[]{502, 503, 504}) {
+            assertTrue(retryPolicy.isRetryable(status, true));
+            assertFalse(retryPolicy.isRetryable(status, false));
+        }
+        for (int status : new int[]{200, 400, 404, 429, 500}) {
+            assertFalse(retryPolicy.isRetryable(status, true));
+        }
+    }
+
+    @Test
+    public void backoffStaysWithinBounds() {
+        retryPolicy.setBaseBackoffMillis(25L);
+        retryPolicy.setMaxBackoffMillis(1000L);
+        assertEquals(25L, retryPolicy.backoff(0L));
+        long previous = 0L;
+        for (int i = 0; i < 1000; i++) {
+            long backoff = retryPolicy.backoff(previous);
+            assertTrue(backoff >= 25L);
+            assertTrue(backoff <= Math.min(1000L, Math.max(25L, previous * 3)));
+            previous = backoff;
+        }
+    }
+
+    @Test
+    public void budgetIsSharedPerModuleAndFollowsPercent() {
+        retryPolicy.setBudgetPercent(20);
+        retryPolicy.setMaxBurst(100);
+        RequestBudget budget = retryPolicy.budget("USER-FLAG0");
+        assertSame(budget, retryPolicy.budget("USER-FLAG0"));
+        for (int i = 0; i < 50; i++) {
+            retryPolicy.deposit(budget);
+        }
+        int withdrawn = 0;
+        while (budget.withdraw()) {
+            withdrawn++;
+        }
+        assertEquals(10, withdrawn);
+        assertFalse(retryPolicy.budget("ORDER-FLAG0").withdraw());
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.page.isomerism.feign;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 路由表快照的读写、校验及最长有效时间
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class RoutingSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Map<String, Set<ServiceInstanceRecord>> serviceSnapshots() {
+        Set<ServiceInstanceRecord> users = new HashSet<>();
+        users.add(new ServiceInstanceRecord("user-1", "http://127.0.0.1:8081", "USER", "A", "zone-a", NodeType.NODE, null));
+        users.add(new ServiceInstanceRecord(null, "http://127.0.0.1:8082", "USER", "", null, NodeType.NODE, null));
+        Set<ServiceInstanceRecord> gateways = new HashSet<>();
+        gateways.add(new ServiceInstanceRecord("gateway-1", "http://127.0.0.1:9090", "GATEWAY", "", null,
+                NodeType.GATEWAY, "USER,ORDER"));
+        Map<String, Set<ServiceInstanceRecord>> serviceSnapshots = new HashMap<>();
+        serviceSnapshots.put("user-service", users);
+        serviceSnapshots.put("gateway-service", gateways);
+        return serviceSnapshots;
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("routing.snapshot");
+        Map<String, Set<ServiceInstanceRecord>> serviceSnapshots = serviceSnapshots();
+        RoutingSnapshot.write(path, serviceSnapshots, 1234L);
+
+        RoutingSnapshot snapshot = RoutingSnapshot.read(path);
+        assertNotNull(snapshot);
+        assertEquals(1234L, snapshot.getWrittenAt());
+        assertEquals(serviceSnapshots, snapshot.getServiceSnapshots());
+        assertTrue(Files.notExists(path.resolveSibling("routing.snapshot.tmp")));
+    }
+
+    @Test
+    public void missingFileIsUnavailable() throws IOException {
+        assertNull(RoutingSnapshot.read(folder.getRoot().toPath().resolve("missing.snapshot")));
+    }
+
+    @Test
+    public void checksumMismatchIsRejected() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("routing.snapshot");
+        RoutingSnapshot.write(path, serviceSnapshots());
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(path, bytes);
+
+        assertNull(RoutingSnapshot.read(path));
+    }
+
+    @Test
+    public void truncatedFileIsRejected() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("routing.snapshot");
+        RoutingSnapshot.write(path, serviceSnapshots());
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, 20));
+
+        assertNull(RoutingSnapshot.read(path));
+    }
+
+    @Test
+    public void snapshotWithinMaxAgeIsRestored() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("routing.snapshot");
+        RoutingSnapshot.write(path, serviceSnapshots(), System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(30));
+
+        FeignRemoteServiceFeignFactory factory = new FeignRemoteServiceFeignFactory();
+        factory.setSnapshotMaxAge(60);
+        factory.setSnapshotPath(path.toString());
+        assertNotNull(factory.getRoutingTable().get("USER-A"));
+        assertNotNull(factory.getRoutingTable().get("USER-"));
+        assertEquals(1, factory.getRoutingTable().getGateways().size());
+    }
+
+    @Test
+    public void expiredSnapshotIsIgnored() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("routing.snapshot");
+        RoutingSnapshot.write(path, serviceSnapshots(), System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(120));
+
+        FeignRemoteServiceFeignFactory factory = new FeignRemoteServiceFeignFactory();
+        factory.setSnapshotMaxAge(60);
+        factory.setSnapshotPath(path.toString());
+        assertTrue(factory.getRoutingTable().getModuleDefinitions().isEmpty());
+    }
+
+    @Test
+    public void emptyPathDisablesSnapshot() {
+        FeignRemoteServiceFeignFactory factory = new FeignRemoteServiceFeignFactory();
+        factory.setSnapshotPath("");
+        assertEquals(Collections.emptyMap(), factory.getRoutingTable().getModuleDefinitions());
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.page.isomerism.feign;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 路由表的版本及代理在每次调用时从当前路由表解析节点
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class RoutingTableTest {
+
+    public interface EchoService {
+
+        @GetMapping("/echo")
+        String echo();
+
+    }
+
+    private final StubDiscoveryClient discoveryClient = new StubDiscoveryClient();
+    private final StubRemoteTransport transport = new StubRemoteTransport();
+    private final FeignRemoteServiceFeignFactory factory = new FeignRemoteServiceFeignFactory();
+
+    @Before
+    public void setUp() {
+        HttpMessageConverters messageConverters = new HttpMessageConverters();
+        factory.messageConverters = () -> messageConverters;
+        factory.discoveryClient = discoveryClient;
+        factory.setRemoteTransport(transport);
+        discoveryClient.register("user-service", "user", "a", null, 8081);
+        discoveryClient.registerGateway("gateway-service", "gateway", "pay", 9090);
+        factory.refreshModules();
+    }
+
+    @After
+    public void tearDown() {
+        factory.destroy();
+    }
+
+    @Test
+    public void versionIncrementsOnEachChange() {
+        long version = factory.getRoutingTable().getVersion();
+        assertEquals(1L, version);
+        discoveryClient.register("order-service", "order", "a", null, 8082);
+        factory.refreshModules();
+        assertEquals(version + 1, factory.getRoutingTable().getVersion());
+        factory.refreshModules();
+        assertEquals(version + 1, factory.getRoutingTable().getVersion());
+        discoveryClient.deregister("order-service");
+        factory.refreshModules();
+        assertEquals(version + 2, factory.getRoutingTable().getVersion());
+    }
+
+    @Test
+    public void tableIsImmutable() {
+        RoutingTable table = factory.getRoutingTable();
+        assertEquals(new HashSet<>(Arrays.asList("http://127.0.0.1:8081", "http://127.0.0.1:9090")), table.getServiceURIs());
+        try {
+            table.getModuleDefinitions().clear();
+            fail("module definitions should be unmodifiable");
+        } catch (UnsupportedOperationException e) {
+            assertEquals(1, table.getModuleDefinitions().size());
+        }
+        try {
+            table.get("USER-A").getNodes().clear();
+            fail("nodes should be unmodifiable");
+        } catch (UnsupportedOperationException e) {
+            assertEquals(1, table.get("USER-A").getNodes().size());
+        }
+    }
+
+    @Test
+    public void proxyResolvesNodesPerCall() {
+        EchoService service = factory.getRemoteServiceInstance("user", "a", EchoService.class);
+        assertEquals("user-service:8081", service.echo());
+
+        discoveryClient.deregister("user-service");
+        discoveryClient.register("user-service", "user", "a", null, 8083);
+        factory.refreshModules();
+        assertSame(service, factory.getRemoteServiceInstance("user", "a", EchoService.class));
+        assertEquals("user-service:8083", service.echo());
+        assertEquals(1, factory.getProxyCacheStatistics().getSize());
+        assertEquals(0L, factory.getProxyCacheStatistics().getEvictionCount());
+    }
+
+    @Test
+    public void proxyFailsWhileModuleHasNoNode() {
+        EchoService service = factory.getRemoteServiceInstance("user", "a", EchoService.class);
+        discoveryClient.deregister("user-service");
+        factory.refreshModules();
+        try {
+            service.echo();
+            fail("a module/flag without nodes should not be callable");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("no node available"));
+        }
+        assertTrue(transport.calls.isEmpty());
+
+        discoveryClient.register("user-service", "user", "a", null, 8081);
+        factory.refreshModules();
+        assertEquals("user-service:8081", service.echo());
+    }
+
+}
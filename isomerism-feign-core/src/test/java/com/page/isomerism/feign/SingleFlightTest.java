@@ -0,0 +1,178 @@
+package com.page.isomerism.feign;
+
+import feign.FeignException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * SingleFlight合并并发的相同调用
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class SingleFlightTest {
+
+    @SingleFlight
+    public interface UserService {
+
+        @GetMapping("/user/{id}")
+        String get(@PathVariable("id") long id);
+
+        @GetMapping("/user/{id}")
+        CompletableFuture<String> getAsync(@PathVariable("id") long id);
+
+        @SingleFlight(false)
+        @GetMapping("/user/{id}")
+        String getUncoalesced(@PathVariable("id") long id);
+
+    }
+
+    private final StubDiscoveryClient discoveryClient = new StubDiscoveryClient();
+    private final StubRemoteTransport transport = new StubRemoteTransport();
+    private final FeignRemoteServiceFeignFactory factory = new FeignRemoteServiceFeignFactory();
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+
+    private final CountDownLatch received = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        HttpMessageConverters messageConverters = new HttpMessageConverters();
+        factory.messageConverters = () -> messageConverters;
+        factory.discoveryClient = discoveryClient;
+        factory.setRemoteTransport(transport);
+        discoveryClient.register("user-service", "user", "a", null, 8081);
+        factory.refreshModules();
+        transport.respond("user-service:8081", (request, node) -> {
+            received.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return StubRemoteTransport.ok(request, request.url().substring(request.url().lastIndexOf('/') + 1));
+        });
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        factory.destroy();
+    }
+
+    private UserService service() {
+        return factory.getRemoteServiceInstance("user", "a", UserService.class);
+    }
+
+    @Test
+    public void concurrentIdenticalCallsShareOneRequest() throws Exception {
+        UserService service = service();
+        List<Future<String>> calls = new ArrayList<>();
+        calls.add(callers.submit(() -> service.get(1L)));
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 4; i++) {
+            calls.add(callers.submit(() -> service.get(1L)));
+        }
+        TimeUnit.MILLISECONDS.sleep(200);
+        release.countDown();
+        for (Future<String> call : calls) {
+            assertEquals("1", call.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, transport.calls.size());
+
+        /* 合并的调用结束后再次调用重新发送 */
+        assertEquals("1", service.get(1L));
+        assertEquals(2, transport.calls.size());
+    }
+
+    @Test
+    public void differentArgumentsAreNotCoalesced() throws Exception {
+        UserService service = service();
+        Future<String> first = callers.submit(() -> service.get(1L));
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        Future<String> second = callers.submit(() -> service.get(2L));
+        TimeUnit.MILLISECONDS.sleep(200);
+        release.countDown();
+        assertEquals("1", first.get(5, TimeUnit.SECONDS));
+        assertEquals("2", second.get(5, TimeUnit.SECONDS));
+        assertEquals(2, transport.calls.size());
+    }
+
+    @Test
+    public void excludedMethodIsNotCoalesced() throws Exception {
+        UserService service = service();
+        Future<String> first = callers.submit(() -> service.getUncoalesced(1L));
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        Future<String> second = callers.submit(() -> service.getUncoalesced(1L));
+        TimeUnit.MILLISECONDS.sleep(200);
+        release.countDown();
+        assertEquals("1", first.get(5, TimeUnit.SECONDS));
+        assertEquals("1", second.get(5, TimeUnit.SECONDS));
+        assertEquals(2, transport.calls.size());
+    }
+
+    @Test
+    public void asyncCallersGetIndependentFutures() throws Exception {
+        UserService service = service();
+        CompletableFuture<String> first = service.getAsync(1L);
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> second = service.getAsync(1L);
+        assertNotSame(first, second);
+        /* 一个调用方取消不影响其他调用方 */
+        first.cancel(true);
+        release.countDown();
+        assertEquals("1", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, transport.calls.size());
+    }
+
+    @Test
+    public void failureIsSharedByAllCallers() throws Exception {
+        factory.setRetryPolicy(null);
+        transport.respond("user-service:8081", (request, node) -> {
+            received.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return StubRemoteTransport.response(request, 500, "failed");
+        });
+        UserService service = service();
+        List<Future<String>> calls = new ArrayList<>();
+        calls.add(callers.submit(() -> service.get(1L)));
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        calls.add(callers.submit(() -> service.get(1L)));
+        TimeUnit.MILLISECONDS.sleep(200);
+        release.countDown();
+        for (Future<String> call : calls) {
+            try {
+                call.get(5, TimeUnit.SECONDS);
+                fail("500 should fail every coalesced caller");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof FeignException);
+            }
+        }
+        assertEquals(1, transport.calls.size());
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.page.isomerism.feign;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试用的DiscoveryClient
+ * (记录getServices的调用次数，用于统计扫描次数)
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+class StubDiscoveryClient implements DiscoveryClient {
+
+    private final ConcurrentHashMap<String, List<ServiceInstance>> instances = new ConcurrentHashMap<>();
+
+    final AtomicInteger getServicesCalls = new AtomicInteger();
+
+    void register(String service, String module, String flag, String zone, int port) {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put(ModuleDefinition.FIELD_NODE_MODULE, module);
+        metadata.put(ModuleDefinition.FIELD_NODE_FLAG, flag);
+        if (null != zone) {
+            metadata.put(ModuleDefinition.FIELD_NODE_ZONE, zone);
+        }
+        register(service, metadata, port);
+    }
+
+    void registerGateway(String service, String module, String gatewayModules, int port) {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put(ModuleDefinition.FIELD_NODE_MODULE, module);
+        metadata.put(ModuleDefinition.FIELD_NODE_TYPE, NodeType.GATEWAY.getFlag());
+        metadata.put(ModuleDefinition.FIELD_GATEWAY_MODULES, gatewayModules);
+        register(service, metadata, port);
+    }
+
+    private void register(String service, Map<String, String> metadata, int port) {
+        ServiceInstance serviceInstance = new DefaultServiceInstance(service + ":" + port, service, "127.0.0.1", port, false, metadata);
+        instances.compute(service, (key, value) -> {
+            List<ServiceInstance> list = null == value ? new ArrayList<>() : new ArrayList<>(value);
+            list.add(serviceInstance);
+            return list;
+        });
+    }
+
+    void deregister(String service) {
+        instances.remove(service);
+    }
+
+    @Override
+    public String description() {
+        return "stub";
+    }
+
+    @Override
+    public List<ServiceInstance> getInstances(String serviceId) {
+        return instances.getOrDefault(serviceId, Collections.emptyList());
+    }
+
+    @Override
+    public List<String> getServices() {
+        getServicesCalls.incrementAndGet();
+        return new ArrayList<>(instances.keySet());
+    }
+
+}
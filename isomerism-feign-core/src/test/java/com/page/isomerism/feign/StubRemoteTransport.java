@@ -0,0 +1,91 @@
+package com.page.isomerism.feign;
+
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 测试用的RemoteTransport
+ * (不发送请求，记录每次请求的目标节点，默认以200及节点的instanceId作为响应)
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+class StubRemoteTransport implements RemoteTransport {
+
+    @FunctionalInterface
+    interface Handler {
+
+        Response handle(Request request, NodeDefinition node) throws IOException;
+
+    }
+
+    /**
+     * 各次请求的目标节点的instanceId(直接按url构造的代理为请求地址)
+     */
+    final List<String> calls = new CopyOnWriteArrayList<>();
+
+    /**
+     * 预先建立连接的节点的instanceId
+     */
+    final List<String> preconnects = new CopyOnWriteArrayList<>();
+
+    /**
+     * key 节点的instanceId
+     */
+    private final ConcurrentHashMap<String, Handler> handlers = new ConcurrentHashMap<>();
+
+    void respond(String instanceId, Handler handler) {
+        handlers.put(instanceId, handler);
+    }
+
+    /**
+     * 各节点收到的请求数
+     */
+    Map<String, Integer> callCounts() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String call : calls) {
+            counts.merge(call, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options, ModuleDefinition moduleDefinition, NodeDefinition node) throws IOException {
+        String target = null == node ? request.url() : node.getInstanceId();
+        calls.add(target);
+        Handler handler = handlers.get(target);
+        return null == handler ? ok(request, target) : handler.handle(request, node);
+    }
+
+    @Override
+    public void preconnect(ModuleDefinition moduleDefinition, NodeDefinition node) {
+        preconnects.add(node.getInstanceId());
+    }
+
+    static Response ok(Request request, String body) {
+        return response(request, 200, body);
+    }
+
+    static Response response(Request request, int status, String body) {
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put("Content-Type", Collections.singletonList("text/plain;charset=UTF-8"));
+        return Response.builder()
+                .status(status)
+                .reason(200 == status ? "OK" : "ERROR")
+                .headers(headers)
+                .request(request)
+                .body(body, StandardCharsets.UTF_8)
+                .build();
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.page.isomerism.feign;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 扫描后在后台预先构造已注册接口的代理及预先建立连接
+ *
+ * @author page.xee
+ * @date 2026/10/17
+ */
+public class WarmUpTest {
+
+    public interface EchoService {
+
+        @GetMapping("/echo")
+        String echo();
+
+    }
+
+    private final StubDiscoveryClient discoveryClient = new StubDiscoveryClient();
+    private final StubRemoteTransport transport = new StubRemoteTransport();
+    private final FeignRemoteServiceFeignFactory factory = new FeignRemoteServiceFeignFactory();
+
+    @Before
+    public void setUp() {
+        HttpMessageConverters messageConverters = new HttpMessageConverters();
+        factory.messageConverters = () -> messageConverters;
+        factory.discoveryClient = discoveryClient;
+        factory.setRemoteTransport(transport);
+        discoveryClient.register("user-service", "user", "a", null, 8081);
+        discoveryClient.register("user-service", "user", "a", null, 8082);
+        discoveryClient.register("order-service", "order", "a", null, 8083);
+    }
+
+    @After
+    public void tearDown() {
+        factory.destroy();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() - deadline < 0) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+    }
+
+    @Test
+    public void registeredServiceIsBuiltAfterScan() throws InterruptedException {
+        factory.registerRemoteService("user", EchoService.class);
+        assertEquals(0, factory.getProxyCacheStatistics().getSize());
+
+        factory.refreshModules();
+        await(() -> 1 == factory.getProxyCacheStatistics().getSize());
+        assertEquals(1, factory.getProxyCacheStatistics().getSize());
+        long misses = factory.getProxyCacheStatistics().getMissCount();
+        assertNotNull(factory.getRemoteServiceInstance("user", "a", EchoService.class));
+        assertEquals(misses, factory.getProxyCacheStatistics().getMissCount());
+        /* 未开启预先建立连接 */
+        assertTrue(transport.preconnects.isEmpty());
+        assertTrue(transport.calls.isEmpty());
+    }
+
+    @Test
+    public void registeringAfterScanWarmsUpImmediately() throws InterruptedException {
+        factory.refreshModules();
+        factory.registerRemoteService("user", EchoService.class);
+        await(() -> 1 == factory.getProxyCacheStatistics().getSize());
+        assertEquals(1, factory.getProxyCacheStatistics().getSize());
+    }
+
+    @Test
+    public void preconnectOpensConnectionsToEveryNode() throws InterruptedException {
+        factory.setPreconnect(true);
+        factory.registerRemoteService("user", EchoService.class);
+        factory.refreshModules();
+        await(() -> 2 == transport.preconnects.size());
+        assertEquals(new HashSet<>(Arrays.asList("user-service:8081", "user-service:8082")),
+                new HashSet<>(transport.preconnects));
+
+        /* 只有发生变化的module/flag再次预热 */
+        discoveryClient.register("order-service", "order", "a", null, 8084);
+        factory.refreshModules();
+        discoveryClient.register("user-service", "user", "a", null, 8085);
+        factory.refreshModules();
+        await(() -> 5 == transport.preconnects.size());
+        assertEquals(5, transport.preconnects.size());
+        assertEquals(1, factory.getProxyCacheStatistics().getSize());
+    }
+
+}